@@ -0,0 +1,83 @@
+package com.example.IndiChessBackend.benchmarks;
+
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameStatus;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.service.ClockSyncService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One ClockSyncService sweep over every resident game, timed until the last
+ * frame has been converted to JSON and handed to the broker channel. Run at
+ * two sizes: the time per game should not grow with the number of games.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClockSyncBenchmark {
+
+    @Param({ "10000", "50000" })
+    public int games;
+
+    @Param({ "500" })
+    public int batchSize;
+
+    private Fixtures.Services services;
+    private ClockSyncService clockSyncService;
+    private final AtomicLong sent = new AtomicLong();
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stdout = Fixtures.muteStdout();
+        services = new Fixtures.Services();
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> {
+            sent.incrementAndGet();
+            return true;
+        });
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        // Period 0: the benchmark drives the sweeps itself
+        clockSyncService = new ClockSyncService(services.liveGameRegistry, template, new SimpleMeterRegistry(),
+                0, batchSize, 2, Integer.MAX_VALUE / batchSize);
+        long now = System.currentTimeMillis();
+        for (long id = 1; id <= games; id++) {
+            Game game = new Game();
+            game.setId(id);
+            game.setFen(Fixtures.MIDDLEGAME_FEN);
+            game.setStatus(GameStatus.IN_PROGRESS);
+            game.setTimeControl(TimeControl.BLITZ);
+            game.setClockMillis(true, 180_000);
+            game.setClockMillis(false, 180_000);
+            game.setCurrentTurn(id % 2 == 0 ? "WHITE" : "BLACK");
+            game.setLastMoveTime(now);
+            game.setMoves(new byte[0]);
+            services.liveGameRegistry.register(game);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clockSyncService.shutdown();
+        services.shutdown();
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public long sweep() {
+        long target = sent.get() + clockSyncService.sweep();
+        while (sent.get() < target) {
+            Thread.onSpinWait();
+        }
+        return target;
+    }
+}
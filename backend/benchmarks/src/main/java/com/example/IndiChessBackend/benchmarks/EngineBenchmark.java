@@ -0,0 +1,46 @@
+package com.example.IndiChessBackend.benchmarks;
+
+import com.example.IndiChessBackend.service.GameEngineService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameEngineService entry points on opening, middlegame and endgame positions.
+ * The same position is requested repeatedly, so these are position-cache hits;
+ * MoveGeneratorBenchmark covers the uncached generator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBenchmark {
+
+    @Param({ "opening", "middlegame", "endgame" })
+    public String phase;
+
+    private final GameEngineService engine = Fixtures.engine();
+    private String fen;
+    private String from;
+    private String to;
+
+    @Setup
+    public void setUp() {
+        fen = Fixtures.fen(phase);
+        String[] move = Fixtures.move(phase);
+        from = move[0];
+        to = move[1];
+    }
+
+    @Benchmark
+    public String applyMove() {
+        return engine.applyMove(fen, from, to, null);
+    }
+
+    @Benchmark
+    public GameEngineService.GameResult getGameResult() {
+        return engine.getGameResult(fen);
+    }
+}
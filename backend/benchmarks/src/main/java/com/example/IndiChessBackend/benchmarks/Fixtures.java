@@ -0,0 +1,263 @@
+package com.example.IndiChessBackend.benchmarks;
+
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.GameAnalysisRepo;
+import com.example.IndiChessBackend.repo.GameMoveRepo;
+import com.example.IndiChessBackend.repo.GameRepo;
+import com.example.IndiChessBackend.repo.GameStateWrite;
+import com.example.IndiChessBackend.repo.UserRatingRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import com.example.IndiChessBackend.service.AnalysisPool;
+import com.example.IndiChessBackend.service.ClockService;
+import com.example.IndiChessBackend.service.EndgameBitbaseService;
+import com.example.IndiChessBackend.service.GameEngineService;
+import com.example.IndiChessBackend.service.GameMailboxes;
+import com.example.IndiChessBackend.service.GameService;
+import com.example.IndiChessBackend.service.GameStateWriter;
+import com.example.IndiChessBackend.service.LiveGameRegistry;
+import com.example.IndiChessBackend.service.MatchmakingPool;
+import com.example.IndiChessBackend.service.MatchmakingService;
+import com.example.IndiChessBackend.service.OpeningBookService;
+import com.example.IndiChessBackend.service.OptimisticRetry;
+import com.example.IndiChessBackend.service.PostGameAnalysisService;
+import com.example.IndiChessBackend.service.PositionCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared benchmark fixtures: positions for each game phase and services wired
+ * against in-memory repositories, so the numbers measure our code and not MySQL.
+ */
+public final class Fixtures {
+
+    public static final String OPENING_FEN = "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3";
+    public static final String MIDDLEGAME_FEN = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+    public static final String ENDGAME_FEN = "8/5pk1/6p1/3R4/7P/6P1/r4PK1/8 w - - 0 40";
+
+    /**
+     * A 20-ply Ruy Lopez line, used to drive full games through GameService
+     */
+    public static final String[] RUY_LOPEZ = {
+            "e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1", "f8e7",
+            "f1e1", "b7b5", "a4b3", "d7d6", "c2c3", "e8g8", "h2h3", "c6a5", "b3c2", "c7c5"
+    };
+
+    private Fixtures() {
+    }
+
+    public static String fen(String phase) {
+        switch (phase) {
+            case "opening":
+                return OPENING_FEN;
+            case "middlegame":
+                return MIDDLEGAME_FEN;
+            case "endgame":
+                return ENDGAME_FEN;
+            default:
+                throw new IllegalArgumentException("Unknown phase: " + phase);
+        }
+    }
+
+    /**
+     * A legal move for the phase's position, as from/to squares
+     */
+    public static String[] move(String phase) {
+        switch (phase) {
+            case "opening":
+                return new String[] { "f1", "b5" };
+            case "middlegame":
+                return new String[] { "c3", "d5" };
+            case "endgame":
+                return new String[] { "d5", "d7" };
+            default:
+                throw new IllegalArgumentException("Unknown phase: " + phase);
+        }
+    }
+
+    public static GameEngineService engine() {
+        return new GameEngineService(new PositionCache(new SimpleMeterRegistry(), 200_000),
+                new AnalysisPool(0, 16, 10_000, 1, 1), new EndgameBitbaseService(""));
+    }
+
+    /**
+     * Services wired the way Spring wires them, on top of in-memory repositories
+     */
+    public static final class Services {
+        public final Map<Long, Game> games = new ConcurrentHashMap<>();
+        public final Map<String, User> users = new ConcurrentHashMap<>();
+        public final GameRepo gameRepo;
+        public final UserRepo userRepo;
+        public final GameEngineService engine = engine();
+        public final LiveGameRegistry liveGameRegistry;
+        public final PostGameAnalysisService postGameAnalysisService;
+        public final GameMailboxes gameMailboxes = new GameMailboxes(0);
+        public final ClockService clockService = new ClockService(new SimpleMeterRegistry(), 100, 2);
+        public final GameService gameService;
+        public final SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> true);
+        public final MatchmakingService matchmakingService;
+
+        private final AtomicLong ids = new AtomicLong();
+
+        public Services() {
+            gameRepo = gameRepo();
+            userRepo = userRepo();
+            liveGameRegistry = new LiveGameRegistry(new GameStateWriter(gameRepo, List.of()), event -> { }, 200, 100);
+            postGameAnalysisService = new PostGameAnalysisService(gameRepo, gameAnalysisRepo(), engine,
+                    new SimpleMeterRegistry(), 1, 6, 200, 16, 500, false);
+            gameService = new GameService(gameRepo, gameMoveRepo(), userRepo, engine, liveGameRegistry, postGameAnalysisService,
+                    new OpeningBookService(""), gameMailboxes,
+                    new OptimisticRetry(new SimpleMeterRegistry(), 3), clockService);
+            matchmakingService = new MatchmakingService(gameService, messagingTemplate, userRepo, userRatingRepo(),
+                    new SimpleMeterRegistry(), 100, 10, 600, MatchmakingService.Mode.INSTANT,
+                    MatchmakingPool.Algorithm.GLOBAL, 1000);
+        }
+
+        public void shutdown() {
+            matchmakingService.shutdown();
+            gameMailboxes.shutdown();
+            clockService.shutdown();
+            liveGameRegistry.shutdown();
+            postGameAnalysisService.shutdown();
+        }
+
+        @SuppressWarnings("unchecked")
+        private GameRepo gameRepo() {
+            return (GameRepo) Proxy.newProxyInstance(GameRepo.class.getClassLoader(), new Class<?>[] { GameRepo.class },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "save":
+                                Game game = (Game) args[0];
+                                if (game.getId() == null) {
+                                    game.setId(ids.incrementAndGet());
+                                }
+                                games.put(game.getId(), game);
+                                return game;
+                            case "insertGames":
+                                for (Game each : (List<Game>) args[0]) {
+                                    each.setId(ids.incrementAndGet());
+                                    games.put(each.getId(), each);
+                                }
+                                return null;
+                            case "findById":
+                                return Optional.ofNullable(games.get((Long) args[0]));
+                            case "writeLiveStates":
+                                List<GameStateWrite> writes = (List<GameStateWrite>) args[0];
+                                for (GameStateWrite write : writes) {
+                                    games.put(write.snapshot().getId(), write.snapshot());
+                                }
+                                int[] counts = new int[writes.size()];
+                                Arrays.fill(counts, 1);
+                                return counts;
+                            case "replaceMoves":
+                                // The saved entity already holds the whole list
+                                return 1;
+                            default:
+                                return objectMethod(proxy, method.getName(), args);
+                        }
+                    });
+        }
+
+        // Move rows live in the in-memory games' move lists only
+        private GameMoveRepo gameMoveRepo() {
+            return (GameMoveRepo) Proxy.newProxyInstance(GameMoveRepo.class.getClassLoader(),
+                    new Class<?>[] { GameMoveRepo.class },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "findByGameIdAndPlyGreaterThanEqualOrderByPly":
+                                return List.of();
+                            default:
+                                return objectMethod(proxy, method.getName(), args);
+                        }
+                    });
+        }
+
+        // Analyses are not kept; benchmarks only measure the request path
+        private GameAnalysisRepo gameAnalysisRepo() {
+            return (GameAnalysisRepo) Proxy.newProxyInstance(GameAnalysisRepo.class.getClassLoader(),
+                    new Class<?>[] { GameAnalysisRepo.class },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "save":
+                                return args[0];
+                            case "findByGameId":
+                                return Optional.empty();
+                            default:
+                                return objectMethod(proxy, method.getName(), args);
+                        }
+                    });
+        }
+
+        // Nobody has played a rated game yet: every player is at the default rating
+        private UserRatingRepo userRatingRepo() {
+            return (UserRatingRepo) Proxy.newProxyInstance(UserRatingRepo.class.getClassLoader(),
+                    new Class<?>[] { UserRatingRepo.class },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "findById":
+                                return Optional.empty();
+                            default:
+                                return objectMethod(proxy, method.getName(), args);
+                        }
+                    });
+        }
+
+        @SuppressWarnings("unchecked")
+        private UserRepo userRepo() {
+            return (UserRepo) Proxy.newProxyInstance(UserRepo.class.getClassLoader(), new Class<?>[] { UserRepo.class },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "findByUsername":
+                            case "getUserByUsername":
+                                return Optional.of(users.computeIfAbsent((String) args[0], Services::user));
+                            case "findByUsernameIn":
+                                return ((java.util.Collection<String>) args[0]).stream()
+                                        .map(username -> users.computeIfAbsent(username, Services::user))
+                                        .toList();
+                            default:
+                                return objectMethod(proxy, method.getName(), args);
+                        }
+                    });
+        }
+
+        private static User user(String username) {
+            User user = new User();
+            user.setUserId((long) username.hashCode());
+            user.setUsername(username);
+            user.setEmailId(username + "@bench.local");
+            return user;
+        }
+
+        private static Object objectMethod(Object proxy, String name, Object[] args) {
+            switch (name) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "InMemoryRepository";
+                default:
+                    throw new UnsupportedOperationException(name);
+            }
+        }
+    }
+
+    /**
+     * Silence the services' console logging so it does not dominate the measurement
+     */
+    public static PrintStream muteStdout() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.IndiChessBackend.benchmarks;
+
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.TimeControl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameService.makeMove through the live session path.
+ * Each invocation creates a game and plays a 20-ply opening, so scores are per move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameServiceBenchmark {
+
+    private Fixtures.Services services;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stdout = Fixtures.muteStdout();
+        services = new Fixtures.Services();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        services.shutdown();
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(20)
+    public Game makeMove() {
+        Game game = services.gameService.createGame("white", TimeControl.RAPID);
+        services.gameService.joinGame(game.getId(), "black");
+        Game current = game;
+        for (int ply = 0; ply < Fixtures.RUY_LOPEZ.length; ply++) {
+            String move = Fixtures.RUY_LOPEZ[ply];
+            current = services.gameService.makeMove(game.getId(), ply % 2 == 0 ? "white" : "black",
+                    move.substring(0, 2), move.substring(2, 4), null);
+        }
+        services.games.remove(game.getId());
+        return current;
+    }
+}
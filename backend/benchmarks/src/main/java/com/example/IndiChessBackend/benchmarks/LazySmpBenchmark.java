@@ -0,0 +1,93 @@
+package com.example.IndiChessBackend.benchmarks;
+
+import com.example.IndiChessBackend.engine.ParallelSearch;
+import com.example.IndiChessBackend.engine.Position;
+import com.example.IndiChessBackend.engine.Search;
+import com.example.IndiChessBackend.engine.SearchResult;
+import com.example.IndiChessBackend.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lazy SMP scaling. timeToDepth is the wall time to finish a fixed depth from
+ * an empty hash table; nodesPerSecond runs fixed-time searches and reports
+ * the nodes of all threads as the nodes counter (nodes/s).
+ * Scale past 8 threads with e.g. {@code -p threads=1,2,4,8,16}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class LazySmpBenchmark {
+
+    private static final int HASH_MB = 64;
+    private static final long NPS_SEARCH_MILLIS = 200;
+
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    @Param({ "opening", "middlegame" })
+    public String phase;
+
+    @Param({ "9" })
+    public int depth;
+
+    private ExecutorService helpers;
+    private TranspositionTable table;
+    private ParallelSearch search;
+    private Position position;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        helpers = Executors.newFixedThreadPool(Math.max(1, threads - 1), r -> {
+            Thread thread = new Thread(r, "smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        table = new TranspositionTable(HASH_MB);
+        search = new ParallelSearch(table, helpers);
+        position = new Position(Fixtures.fen(phase));
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        helpers.shutdownNow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public SearchResult timeToDepth() {
+        return search.search(position, threads, depth, Long.MAX_VALUE / 2);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public SearchResult nodesPerSecond(Nodes counter) {
+        SearchResult result = search.search(position, threads, Search.MAX_PLY - 1, NPS_SEARCH_MILLIS);
+        counter.nodes += result.getNodes();
+        return result;
+    }
+}
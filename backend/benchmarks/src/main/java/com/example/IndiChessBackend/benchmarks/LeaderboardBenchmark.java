@@ -0,0 +1,66 @@
+package com.example.IndiChessBackend.benchmarks;
+
+import com.example.IndiChessBackend.service.Leaderboard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Leaderboard reads and writes at a million players with ratings bunched
+ * around 1500, the shape where an ORDER BY rank query hurts most.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LeaderboardBenchmark {
+
+    @Param({ "1000000" })
+    public int players;
+
+    private Leaderboard leaderboard;
+    private final AtomicLong clock = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        leaderboard = new Leaderboard();
+        Random random = new Random(42);
+        for (long id = 1; id <= players; id++) {
+            leaderboard.put(new Leaderboard.Entry(id, "player" + id, 1500 + random.nextGaussian() * 250, 0));
+        }
+    }
+
+    @Benchmark
+    public int rank() {
+        return leaderboard.rank(randomPlayer());
+    }
+
+    @Benchmark
+    public List<Leaderboard.Ranked> aroundMe() {
+        return leaderboard.around(randomPlayer(), 10);
+    }
+
+    @Benchmark
+    public List<Leaderboard.Ranked> topPage() {
+        return leaderboard.page(ThreadLocalRandom.current().nextInt(100) * 50, 50);
+    }
+
+    // A rated game moving one player
+    @Benchmark
+    public void put() {
+        long id = randomPlayer();
+        leaderboard.put(new Leaderboard.Entry(id, "player" + id,
+                1500 + ThreadLocalRandom.current().nextGaussian() * 250, clock.incrementAndGet()));
+    }
+
+    private long randomPlayer() {
+        return 1 + ThreadLocalRandom.current().nextInt(players);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.IndiChessBackend.benchmarks;
+
+import com.example.IndiChessBackend.dto.QueueStatusDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MatchmakingService.joinQueue: two players join the same queue and get paired,
+ * while thousands of other players wait in the remaining time-control queues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MatchmakingBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int waitingUsers;
+
+    private Fixtures.Services services;
+    private PrintStream stdout;
+
+    @State(Scope.Thread)
+    public static class Player {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+        final String prefix = "bench-" + THREADS.incrementAndGet() + "-";
+        long counter;
+
+        String next() {
+            return prefix + (counter++);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stdout = Fixtures.muteStdout();
+        services = new Fixtures.Services();
+        // One waiting player per time control queue can never pair with the others,
+        // so spread the waiting population over distinct time-control keys
+        for (int i = 0; i < waitingUsers; i++) {
+            services.matchmakingService.joinQueue("waiting-" + i, "WAITING-" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        services.shutdown();
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public QueueStatusDTO joinAndPair(Player player) {
+        String timeControl = "BLITZ";
+        services.matchmakingService.joinQueue(player.next(), timeControl);
+        return services.matchmakingService.joinQueue(player.next(), timeControl);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.IndiChessBackend.benchmarks;
+
+import com.example.IndiChessBackend.service.MatchmakingPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rating-ordered matchmaking queue with 10k players waiting.
+ * join: a new player takes the nearest acceptable rating, and the pool is
+ * topped back up. tick: one batch pairing of the whole queue. simulate: two
+ * simulated minutes of arrivals on top of the waiting crowd, with a matching
+ * tick every simulated second; arrivals are paired at once only when
+ * pairOnJoin (INSTANT mode). The rating gap of the pairs and the time
+ * players waited are printed per run, to compare the algorithms.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchmakingPoolBenchmark {
+
+    private static final long QUEUE_TIMEOUT_MILLIS = 90_000;
+
+    @Param({ "10000" })
+    public int queued;
+
+    @Param({ "100" })
+    public int arrivalsPerSecond;
+
+    @Param({ "GREEDY", "GLOBAL" })
+    public MatchmakingPool.Algorithm algorithm;
+
+    @Param({ "true", "false" })
+    public boolean pairOnJoin;
+
+    private MatchmakingPool pool;
+    private long ids;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        pool = new MatchmakingPool(100, 10, 600);
+        Random random = new Random(42);
+        // Waiting for up to a minute already, ratings bunched around 1500
+        for (int i = 0; i < queued; i++) {
+            pool.add(new MatchmakingPool.Seeker("waiting-" + ids++, rating(random), -random.nextInt(60_000)));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public MatchmakingPool.Seeker join() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        MatchmakingPool.Seeker joining = new MatchmakingPool.Seeker("joining-" + ids++,
+                1500 + random.nextGaussian() * 300, 0);
+        MatchmakingPool.Seeker opponent = pool.claimOpponent(joining, 0);
+        if (opponent != null) {
+            pool.add(opponent); // Keep the queue at its size
+        } else {
+            pool.remove(joining.username());
+        }
+        return opponent;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int tick() {
+        return pool.pair(algorithm, 60_000).size();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int simulate() {
+        Random random = new Random(7);
+        int seconds = 120;
+        double[] gaps = new double[queued + seconds * arrivalsPerSecond];
+        long[] waits = new long[gaps.length * 2];
+        int pairs = 0;
+        int waited = 0;
+        for (long now = 0; now < seconds * 1000L; now += 1000) {
+            for (int i = 0; i < arrivalsPerSecond; i++) {
+                long at = now + random.nextInt(1000);
+                MatchmakingPool.Seeker joining = new MatchmakingPool.Seeker("arrival-" + ids++, rating(random), at);
+                MatchmakingPool.Seeker opponent = pairOnJoin ? pool.claimOpponent(joining, at) : null;
+                if (opponent == null) {
+                    pool.add(joining);
+                    continue;
+                }
+                gaps[pairs++] = Math.abs(joining.rating() - opponent.rating());
+                waits[waited++] = 0;
+                waits[waited++] = at - opponent.queuedAt();
+            }
+            long sweepAt = now + 1000;
+            for (MatchmakingPool.Pair pair : pool.pair(algorithm, sweepAt)) {
+                gaps[pairs++] = Math.abs(pair.first().rating() - pair.second().rating());
+                waits[waited++] = sweepAt - pair.first().queuedAt();
+                waits[waited++] = sweepAt - pair.second().queuedAt();
+            }
+        }
+        report(Arrays.copyOf(gaps, pairs), Arrays.copyOf(waits, waited));
+        return pairs;
+    }
+
+    private static void report(double[] gaps, long[] waits) {
+        Arrays.sort(gaps);
+        Arrays.sort(waits);
+        long timedOut = Arrays.stream(waits).filter(wait -> wait > QUEUE_TIMEOUT_MILLIS).count();
+        System.out.printf("%n%d pairs | rating gap mean %.1f, p50 %.1f, p95 %.1f, max %.1f"
+                + " | wait mean %.1fs, p50 %.1fs, p95 %.1fs | %d paired after the 90s timeout%n",
+                gaps.length, Arrays.stream(gaps).average().orElse(0), percentile(gaps, 0.5), percentile(gaps, 0.95),
+                gaps.length > 0 ? gaps[gaps.length - 1] : 0,
+                Arrays.stream(waits).average().orElse(0) / 1000, percentile(waits, 0.5) / 1000,
+                percentile(waits, 0.95) / 1000, timedOut);
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        return sorted.length > 0 ? sorted[(int) Math.min(sorted.length - 1, sorted.length * p)] : 0;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted.length > 0 ? sorted[(int) Math.min(sorted.length - 1, sorted.length * p)] : 0;
+    }
+
+    private static double rating(Random random) {
+        return 1500 + random.nextGaussian() * 300;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.IndiChessBackend.benchmarks;
+
+import com.example.IndiChessBackend.engine.BitboardMoveGenerator;
+import com.example.IndiChessBackend.engine.MoveGenerator;
+import com.example.IndiChessBackend.engine.Position;
+import com.example.IndiChessBackend.service.GameEngineService;
+import com.github.bhlangonijr.chesslib.Board;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation throughput and allocation per validated move.
+ * Run with {@code -prof gc} to see gc.alloc.rate.norm (bytes per operation).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoveGeneratorBenchmark {
+
+    // Kiwipete: castling, pins, en passant and promotions in one position
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final long KIWIPETE_PERFT_3 = 97862;
+
+    private final GameEngineService engine = Fixtures.engine();
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private Position position;
+    private Board board;
+
+    @Setup
+    public void setUp() {
+        position = new Position(KIWIPETE);
+        board = new Board();
+        board.loadFromFen(KIWIPETE);
+    }
+
+    /**
+     * Score is perft nodes per second
+     */
+    @Benchmark
+    @OperationsPerInvocation((int) KIWIPETE_PERFT_3)
+    public long perftNodes() {
+        return BitboardMoveGenerator.INSTANCE.perft(position, 3);
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        return BitboardMoveGenerator.INSTANCE.generateLegalMoves(position, moves);
+    }
+
+    /**
+     * The path taken by every move request: find the legal move matching from/to
+     */
+    @Benchmark
+    public int validateMove() {
+        return engine.findLegalMove(position, "e2", "a6", null);
+    }
+
+    /**
+     * The previous chesslib path, kept as a baseline
+     */
+    @Benchmark
+    public void chesslibValidateMove(Blackhole blackhole) throws Exception {
+        for (com.github.bhlangonijr.chesslib.move.Move move : com.github.bhlangonijr.chesslib.move.MoveGenerator
+                .generateLegalMoves(board)) {
+            if (move.toString().equals("e2a6")) {
+                blackhole.consume(move);
+                return;
+            }
+        }
+    }
+}
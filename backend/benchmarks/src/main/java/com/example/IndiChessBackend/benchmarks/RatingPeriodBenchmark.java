@@ -0,0 +1,164 @@
+package com.example.IndiChessBackend.benchmarks;
+
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.UserRating;
+import com.example.IndiChessBackend.repo.UserRatingRepo;
+import com.example.IndiChessBackend.service.Glicko2;
+import com.example.IndiChessBackend.service.RatingPeriodService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One whole rating period over a million users.
+ * closePeriods: RatingPeriodService sweeping every idle rating in keyset
+ * pages. The repository is an in-memory table, so MySQL I/O is NOT part of
+ * the timing: the figure is the CPU cost of the sweep alone, and the number
+ * of database round trips it would make (one findIdle and one batched
+ * closeIdlePeriods per page) is printed per iteration to cost the I/O
+ * separately. One user in ten is long gone and already at the deviation cap;
+ * those rows are left out by the query and never rewritten.
+ * rateAll: the Glicko-2 update of every user after a game, the cost of a
+ * period in which everybody played.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RatingPeriodBenchmark {
+
+    private static final long PERIOD_MILLIS = 86_400_000L;
+
+    @Param({ "1000000" })
+    public int users;
+
+    @Param({ "1000" })
+    public int batchSize;
+
+    private double[] rating;
+    private double[] deviation;
+    private double[] volatility;
+    private long[] updatedAt;
+    private int capped;
+    private int selects;
+    private int batches;
+    private RatingPeriodService ratingPeriodService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rating = new double[users];
+        deviation = new double[users];
+        volatility = new double[users];
+        updatedAt = new long[users];
+        ratingPeriodService = new RatingPeriodService(userRatingRepo(), PERIOD_MILLIS, 0, batchSize);
+    }
+
+    // Every user rated once, long enough ago to be idle
+    @Setup(Level.Iteration)
+    public void resetRatings() {
+        capped = 0;
+        for (int i = 0; i < users; i++) {
+            rating[i] = 1000 + (i * 7919L) % 1500;
+            deviation[i] = i % 10 == 9 ? Glicko2.DEFAULT_DEVIATION : 50 + i % 250;
+            volatility[i] = 0.06;
+            updatedAt[i] = 1;
+            if (deviation[i] >= Glicko2.DEFAULT_DEVIATION) {
+                capped++;
+            }
+        }
+        selects = 0;
+        batches = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportRoundTrips() {
+        if (selects + batches > 0) {
+            System.out.printf("%n%d round trips not timed: %d findIdle, %d closeIdlePeriods batches%n",
+                    selects + batches, selects, batches);
+        }
+    }
+
+    @Benchmark
+    public int closePeriods() {
+        int closed = ratingPeriodService.closePeriods(2 * PERIOD_MILLIS);
+        if (closed != users - capped) {
+            throw new IllegalStateException("Closed " + closed + " of " + (users - capped));
+        }
+        return closed;
+    }
+
+    @Benchmark
+    public double rateAll() {
+        double sum = 0;
+        for (int i = 0; i < users; i++) {
+            // Paired with the neighbour, so every rating and deviation meets a different opponent
+            int opponent = (i + 1) % users;
+            Glicko2.Rating next = Glicko2.rate(new Glicko2.Rating(rating[i], deviation[i], volatility[i]),
+                    new Glicko2.Rating(rating[opponent], deviation[opponent], volatility[opponent]), (i % 3) * 0.5);
+            sum += next.rating();
+        }
+        return sum;
+    }
+
+    // The BLITZ slice of user_ratings, user ids 1..users; the other time controls are empty
+    @SuppressWarnings("unchecked")
+    private UserRatingRepo userRatingRepo() {
+        return (UserRatingRepo) Proxy.newProxyInstance(UserRatingRepo.class.getClassLoader(),
+                new Class<?>[] { UserRatingRepo.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findIdle":
+                            return findIdle((TimeControl) args[0], (Long) args[1], (Long) args[2], (Double) args[3],
+                                    (Integer) args[4]);
+                        case "closeIdlePeriods":
+                            return closeIdlePeriods((List<UserRating>) args[0], (Long) args[1]);
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "InMemoryRepository";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private List<UserRating> findIdle(TimeControl timeControl, long afterUserId, long idleSince, double maxDeviation,
+            int limit) {
+        selects++;
+        List<UserRating> page = new ArrayList<>(limit);
+        if (timeControl != TimeControl.BLITZ) {
+            return page;
+        }
+        for (int i = (int) afterUserId; i < users && page.size() < limit; i++) {
+            if (updatedAt[i] < idleSince && deviation[i] < maxDeviation) {
+                page.add(new UserRating(i + 1L, timeControl, rating[i], deviation[i], volatility[i], 1, updatedAt[i]));
+            }
+        }
+        return page;
+    }
+
+    private int[] closeIdlePeriods(List<UserRating> ratings, long periodAt) {
+        batches++;
+        int[] counts = new int[ratings.size()];
+        Arrays.fill(counts, 1);
+        for (int j = 0; j < counts.length; j++) {
+            UserRating row = ratings.get(j);
+            int i = (int) (row.getUserId() - 1);
+            if (updatedAt[i] != row.getUpdatedAt()) {
+                counts[j] = 0;
+                continue;
+            }
+            deviation[i] = row.getDeviation();
+            updatedAt[i] = periodAt;
+        }
+        return counts;
+    }
+}
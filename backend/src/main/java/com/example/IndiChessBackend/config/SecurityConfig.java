@@ -52,6 +52,8 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable()) // Disable CSRF first
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // Use bean
                 .authorizeHttpRequests(auth -> auth
+                        // Completion of an async response (e.g. engine analysis) already passed the checks
+                        .dispatcherTypeMatchers(jakarta.servlet.DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**").permitAll() // Explicitly open auth
                         .requestMatchers("/game/create").authenticated() // Protect create
                         .requestMatchers("/matchmaking/**").authenticated() // Protect matchmaking
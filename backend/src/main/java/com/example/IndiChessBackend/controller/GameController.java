@@ -1,13 +1,23 @@
 package com.example.IndiChessBackend.controller;
 
+import com.example.IndiChessBackend.dto.AnalysisResultDTO;
+import com.example.IndiChessBackend.engine.Move;
+import com.example.IndiChessBackend.exception.ResourceNotFoundException;
 import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameAnalysis;
+import com.example.IndiChessBackend.model.GameMove;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.service.BotService;
+import com.example.IndiChessBackend.service.GameEngineService;
 import com.example.IndiChessBackend.service.GameService;
+import com.example.IndiChessBackend.service.PostGameAnalysisService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,12 +26,53 @@ import java.util.Map;
 public class GameController {
 
     private final GameService gameService;
+    private final BotService botService;
+    private final GameEngineService gameEngineService;
+    private final PostGameAnalysisService postGameAnalysisService;
 
     @PostMapping("/create")
     public ResponseEntity<Game> createGame(@AuthenticationPrincipal UserDetails userDetails) {
         return ResponseEntity.ok(gameService.createGame(userDetails.getUsername()));
     }
 
+    @PostMapping("/bot")
+    public ResponseEntity<Game> createBotGame(@RequestBody(required = false) Map<String, String> options,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        String timeControl = options != null ? options.get("timeControl") : null;
+        String color = options != null ? options.get("color") : null;
+        return ResponseEntity.ok(botService.createBotGame(userDetails.getUsername(),
+                TimeControl.fromString(timeControl), color));
+    }
+
+    /**
+     * Engine analysis of a FEN. Optional: threads (default 1), depth (default
+     * unlimited) and timeMillis (default 1000). Answered asynchronously: the
+     * search runs on the analysis pool, not on this request thread.
+     */
+    @PostMapping("/analysis")
+    public java.util.concurrent.CompletableFuture<ResponseEntity<AnalysisResultDTO>> analyze(
+            @RequestBody Map<String, String> request) {
+        String fen = request.get("fen");
+        if (fen == null || fen.isBlank()) {
+            throw new IllegalArgumentException("fen is required");
+        }
+        int threads = gameEngineService.analysisThreads(Integer.parseInt(request.getOrDefault("threads", "1")));
+        int depth = Integer.parseInt(request.getOrDefault("depth", "0"));
+        long timeMillis = Long.parseLong(request.getOrDefault("timeMillis", "1000"));
+
+        return gameEngineService.search(fen, threads, depth, timeMillis).thenApply(result -> {
+            String bestMove = result.getBestMove() != Move.NONE ? Move.toUci(result.getBestMove()) : null;
+            return ResponseEntity.ok(new AnalysisResultDTO(bestMove, result.getScore(), result.getDepth(),
+                    result.getNodes(), result.getNodesPerSecond(), result.getTimeMillis(), threads));
+        });
+    }
+
+    @GetMapping("/{gameId}/analysis")
+    public ResponseEntity<GameAnalysis> getAnalysis(@PathVariable Long gameId) {
+        return ResponseEntity.ok(postGameAnalysisService.find(gameId)
+                .orElseThrow(() -> new ResourceNotFoundException("GameAnalysis", gameId)));
+    }
+
     @PostMapping("/join/{gameId}")
     public ResponseEntity<Game> joinGame(@PathVariable Long gameId, @AuthenticationPrincipal UserDetails userDetails) {
         return ResponseEntity.ok(gameService.joinGame(gameId, userDetails.getUsername()));
@@ -35,7 +86,9 @@ public class GameController {
         String to = moveData.get("to");
         String promotion = moveData.get("promotion");
 
-        return ResponseEntity.ok(gameService.makeMove(gameId, userDetails.getUsername(), from, to, promotion));
+        Game game = gameService.makeMove(gameId, userDetails.getUsername(), from, to, promotion);
+        botService.onMoveMade(game);
+        return ResponseEntity.ok(game);
     }
 
     @GetMapping("/{gameId}")
@@ -43,6 +96,17 @@ public class GameController {
         return ResponseEntity.ok(gameService.getGame(gameId));
     }
 
+    @GetMapping(value = "/{gameId}/pgn", produces = "application/x-chess-pgn")
+    public ResponseEntity<String> getPgn(@PathVariable Long gameId) {
+        return ResponseEntity.ok(gameService.getPgn(gameId));
+    }
+
+    @GetMapping("/{gameId}/moves")
+    public ResponseEntity<List<GameMove>> getMoves(@PathVariable Long gameId,
+            @RequestParam(defaultValue = "0") int since) {
+        return ResponseEntity.ok(gameService.getMovesSince(gameId, since));
+    }
+
     @PostMapping("/{gameId}/resign")
     public ResponseEntity<Game> resign(@PathVariable Long gameId, @AuthenticationPrincipal UserDetails userDetails) {
         return ResponseEntity.ok(gameService.resignGame(gameId, userDetails.getUsername()));
@@ -0,0 +1,42 @@
+package com.example.IndiChessBackend.controller;
+
+import com.example.IndiChessBackend.dto.LeaderboardDTO;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller for rating leaderboards, one per time control
+ */
+@RestController
+@RequestMapping("/leaderboard")
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    /**
+     * Best players first, size (at most 100) per page
+     */
+    @GetMapping("/{timeControl}")
+    public ResponseEntity<LeaderboardDTO> top(@PathVariable String timeControl,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(leaderboardService.top(TimeControl.fromString(timeControl), page, size));
+    }
+
+    /**
+     * The caller's rank with count players above and below
+     */
+    @GetMapping("/{timeControl}/around-me")
+    public ResponseEntity<LeaderboardDTO> aroundMe(@PathVariable String timeControl,
+            @RequestParam(defaultValue = "10") int count,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        return ResponseEntity.ok(leaderboardService.around(TimeControl.fromString(timeControl),
+                userDetails.getUsername(), count));
+    }
+}
@@ -3,24 +3,33 @@ package com.example.IndiChessBackend.controller;
 import com.example.IndiChessBackend.model.DTO.GameStateDTO;
 import com.example.IndiChessBackend.model.DTO.MoveRequest;
 import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.service.BotService;
 import com.example.IndiChessBackend.service.GameService;
+import com.example.IndiChessBackend.service.LagService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 
 import org.springframework.stereotype.Controller;
 import java.security.Principal;
+import java.util.Map;
 
 @Controller
 @RequiredArgsConstructor
 public class SocketController {
 
     private final GameService gameService;
+    private final BotService botService;
+    private final LagService lagService;
     private final org.springframework.messaging.simp.SimpMessagingTemplate messagingTemplate;
 
     @MessageMapping("/move")
     // @SendTo removed, doing manual send
-    public void handleMove(@Payload MoveRequest moveRequest, Principal principal) {
+    public void handleMove(@Payload MoveRequest moveRequest, Principal principal,
+            @Header("simpSessionId") String sessionId) {
         // Principal might be null in basic socket setup if not fully integrated with
         // SecurityContext
         // For now trusting client username or passing it in DTO would be safer if Auth
@@ -35,28 +44,81 @@ public class SocketController {
                     username,
                     moveRequest.getFrom(),
                     moveRequest.getTo(),
-                    moveRequest.getPromotion());
-
-            GameStateDTO gameState = new GameStateDTO(
-                    "MOVE",
-                    game.getFen(),
-                    game.getPgn(),
-                    game.getCurrentTurn(),
-                    null, // lastMove
-                    game.getWhiteTimeRemaining(),
-                    game.getBlackTimeRemaining(),
-                    game.getStatus().toString(),
-                    game.getStatusMessage());
+                    moveRequest.getPromotion(),
+                    lagService.creditMillis(sessionId));
+
+            GameStateDTO gameState = GameStateDTO.of("MOVE", game);
 
             // Send to specific game topic
             messagingTemplate.convertAndSend("/topic/game/" + moveRequest.getGameId(), gameState);
 
+            // Computer opponent replies on the same topic from its own executor
+            botService.onMoveMade(game);
+
         } catch (Exception e) {
             e.printStackTrace();
-            GameStateDTO errorState = new GameStateDTO("ERROR", null, null, null, null, 0L, 0L, "ERROR",
-                    e.getMessage());
+            GameStateDTO errorState = new GameStateDTO("ERROR", null, null, null, null, 0L, 0L, null, null, 0L,
+                    "ERROR", e.getMessage(), null, null, null, null);
             // Attempt to send error back to same topic (or user specific queue ideally)
             messagingTemplate.convertAndSend("/topic/game/" + moveRequest.getGameId(), errorState);
         }
     }
+
+    /**
+     * Queue a move to play as soon as the opponent has moved (up to
+     * indichess.premove.max-queued per player). Premoves are private; only
+     * the resulting moves are broadcast.
+     */
+    @MessageMapping("/premove")
+    public void handlePremove(@Payload MoveRequest moveRequest, Principal principal,
+            @Header("simpSessionId") String sessionId) {
+        String username = principal != null ? principal.getName() : "anonymous";
+
+        try {
+            gameService.premove(
+                    moveRequest.getGameId(),
+                    username,
+                    moveRequest.getFrom(),
+                    moveRequest.getTo(),
+                    moveRequest.getPromotion(),
+                    lagService.creditMillis(sessionId))
+                    .ifPresent(game -> {
+                        // The opponent had already moved, so it was played right away
+                        messagingTemplate.convertAndSend("/topic/game/" + moveRequest.getGameId(),
+                                GameStateDTO.of("MOVE", game));
+                        botService.onMoveMade(game);
+                    });
+        } catch (Exception e) {
+            GameStateDTO errorState = new GameStateDTO("ERROR", null, null, null, null, 0L, 0L, null, null, 0L,
+                    "ERROR", e.getMessage(), null, null, null, null);
+            messagingTemplate.convertAndSend("/topic/game/" + moveRequest.getGameId(), errorState);
+        }
+    }
+
+    /**
+     * Lag probe: the pong carries a one-time token the client must echo to
+     * /app/pong, timing the round trip on this very connection. It goes to
+     * the pinging session only, not to the user's other tabs.
+     */
+    @MessageMapping("/ping")
+    public void ping(Principal principal, @Header("simpSessionId") String sessionId) {
+        if (principal != null && sessionId != null) {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(sessionId);
+            headers.setLeaveMutable(true);
+            messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/pong",
+                    Map.of("token", lagService.pingToken(sessionId)), headers.getMessageHeaders());
+        }
+    }
+
+    @MessageMapping("/pong")
+    public void pong(@Payload Map<String, String> pong, @Header("simpSessionId") String sessionId) {
+        lagService.pong(sessionId, pong.get("token"));
+    }
+
+    @MessageMapping("/premove/cancel")
+    public void cancelPremoves(@Payload MoveRequest moveRequest, Principal principal) {
+        String username = principal != null ? principal.getName() : "anonymous";
+        gameService.cancelPremoves(moveRequest.getGameId(), username);
+    }
 }
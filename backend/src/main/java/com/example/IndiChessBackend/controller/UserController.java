@@ -1,7 +1,9 @@
 package com.example.IndiChessBackend.controller;
 
+import com.example.IndiChessBackend.model.DTO.RatingDTO;
 import com.example.IndiChessBackend.model.DTO.UserStatsDTO;
-import com.example.IndiChessBackend.service.GameService;
+import com.example.IndiChessBackend.service.RatingService;
+import com.example.IndiChessBackend.service.UserStatsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -10,17 +12,26 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/user")
 @RequiredArgsConstructor
 public class UserController {
 
-    private final GameService gameService;
+    private final UserStatsService userStatsService;
+    private final RatingService ratingService;
 
     @GetMapping("/stats")
     public ResponseEntity<UserStatsDTO> getUserStats() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
-        return ResponseEntity.ok(gameService.getUserStats(username));
+        return ResponseEntity.ok(userStatsService.getUserStats(username));
+    }
+
+    @GetMapping("/ratings")
+    public ResponseEntity<List<RatingDTO>> getRatings() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return ResponseEntity.ok(ratingService.getRatings(authentication.getName()));
     }
 }
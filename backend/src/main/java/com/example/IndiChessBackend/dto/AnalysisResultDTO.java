@@ -0,0 +1,22 @@
+package com.example.IndiChessBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for engine analysis results
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisResultDTO {
+
+    private String bestMove; // UCI, e.g. "e2e4"; null when the game is over
+    private int score; // Centipawns for the side to move
+    private int depth;
+    private long nodes;
+    private long nodesPerSecond;
+    private long timeMillis;
+    private int threads;
+}
@@ -0,0 +1,20 @@
+package com.example.IndiChessBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a slice of a time control's leaderboard
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardDTO {
+
+    private String timeControl;
+    private int totalPlayers;
+    private List<LeaderboardEntryDTO> entries;
+}
@@ -0,0 +1,18 @@
+package com.example.IndiChessBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one row of a leaderboard
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryDTO {
+
+    private int rank; // 1 = best
+    private String username;
+    private int rating;
+}
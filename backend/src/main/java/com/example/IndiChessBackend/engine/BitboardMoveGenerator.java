@@ -0,0 +1,258 @@
+package com.example.IndiChessBackend.engine;
+
+import static com.example.IndiChessBackend.engine.Position.*;
+
+/**
+ * Magic-bitboard legal move generator.
+ * Legality is resolved up front from the checkers and pinned pieces instead of
+ * make/test/unmake, so every move written is legal. Stateless and thread-safe.
+ */
+public final class BitboardMoveGenerator implements MoveGenerator {
+
+    public static final BitboardMoveGenerator INSTANCE = new BitboardMoveGenerator();
+
+    @Override
+    public int generateLegalMoves(Position pos, int[] moves) {
+        return generate(pos, moves, false);
+    }
+
+    @Override
+    public int generateLegalCaptures(Position pos, int[] moves) {
+        return generate(pos, moves, true);
+    }
+
+    /**
+     * Count leaf nodes of the legal move tree to the given depth
+     */
+    public long perft(Position pos, int depth) {
+        int[] moves = new int[MAX_MOVES * (depth + 1)];
+        return perft(pos, depth, moves, 0);
+    }
+
+    private long perft(Position pos, int depth, int[] moves, int offset) {
+        int count = generateInto(pos, moves, offset, false);
+        if (depth <= 1) {
+            return depth == 1 ? count : 1;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            pos.makeMove(moves[offset + i]);
+            nodes += perft(pos, depth - 1, moves, offset + MAX_MOVES);
+            pos.unmakeMove();
+        }
+        return nodes;
+    }
+
+    private int generate(Position pos, int[] moves, boolean capturesOnly) {
+        return generateInto(pos, moves, 0, capturesOnly);
+    }
+
+    private int generateInto(Position pos, int[] moves, int offset, boolean capturesOnly) {
+        int us = pos.sideToMove;
+        int them = us ^ 1;
+        long ours = pos.colors[us];
+        long theirs = pos.colors[them];
+        long occ = pos.occupied;
+        int king = pos.kingSquare(us);
+        int n = offset;
+
+        if (king < 0) {
+            return 0;
+        }
+
+        long checkers = pos.attackersTo(king, occ, them);
+        long pinned = pinnedPieces(pos, king, us);
+
+        // King moves, tested against the board without the king on it
+        long kingTargets = Bitboards.kingAttacks(king) & ~ours;
+        if (capturesOnly) {
+            kingTargets &= theirs;
+        }
+        long occNoKing = occ ^ (1L << king);
+        while (kingTargets != 0) {
+            int to = Long.numberOfTrailingZeros(kingTargets);
+            kingTargets &= kingTargets - 1;
+            if (pos.attackersTo(to, occNoKing, them) == 0) {
+                moves[n++] = Move.of(king, to);
+            }
+        }
+
+        // Double check: only the king can move
+        if (Long.bitCount(checkers) > 1) {
+            return n - offset;
+        }
+
+        long target;
+        if (checkers != 0) {
+            int checker = Long.numberOfTrailingZeros(checkers);
+            target = checkers | Bitboards.between(king, checker);
+        } else {
+            target = ~ours;
+        }
+        long captureTarget = target & theirs;
+        long pieceTarget = capturesOnly ? captureTarget : target;
+
+        // Knights: a pinned knight can never move
+        long knights = pos.pieces[us * 6 + KNIGHT] & ~pinned;
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            n = addMoves(moves, n, from, Bitboards.knightAttacks(from) & pieceTarget);
+        }
+
+        long diagonal = pos.pieces[us * 6 + BISHOP] | pos.pieces[us * 6 + QUEEN];
+        while (diagonal != 0) {
+            int from = Long.numberOfTrailingZeros(diagonal);
+            diagonal &= diagonal - 1;
+            long attacks = Bitboards.bishopAttacks(from, occ) & pieceTarget;
+            if ((pinned & (1L << from)) != 0) {
+                attacks &= Bitboards.line(king, from);
+            }
+            n = addMoves(moves, n, from, attacks);
+        }
+
+        long straight = pos.pieces[us * 6 + ROOK] | pos.pieces[us * 6 + QUEEN];
+        while (straight != 0) {
+            int from = Long.numberOfTrailingZeros(straight);
+            straight &= straight - 1;
+            long attacks = Bitboards.rookAttacks(from, occ) & pieceTarget;
+            if ((pinned & (1L << from)) != 0) {
+                attacks &= Bitboards.line(king, from);
+            }
+            n = addMoves(moves, n, from, attacks);
+        }
+
+        n = generatePawnMoves(pos, moves, n, us, king, pinned, target, capturesOnly);
+
+        if (!capturesOnly && checkers == 0) {
+            n = generateCastling(pos, moves, n, us, king);
+        }
+        return n - offset;
+    }
+
+    private int generatePawnMoves(Position pos, int[] moves, int n, int us, int king, long pinned,
+            long target, boolean capturesOnly) {
+        int them = us ^ 1;
+        long pawns = pos.pieces[us * 6 + PAWN];
+        long empty = ~pos.occupied;
+        long theirs = pos.colors[them];
+        long promotionRank = us == WHITE ? Bitboards.RANK_8 : Bitboards.RANK_1;
+        int forward = us == WHITE ? 8 : -8;
+
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long pinMask = (pinned & (1L << from)) != 0 ? Bitboards.line(king, from) : -1L;
+
+            // Pushes
+            int one = from + forward;
+            if (one >= 0 && one < 64 && (empty & (1L << one)) != 0) {
+                long oneBit = 1L << one;
+                if ((oneBit & target & pinMask) != 0) {
+                    if ((oneBit & promotionRank) != 0) {
+                        n = addPromotions(moves, n, from, one);
+                    } else if (!capturesOnly) {
+                        moves[n++] = Move.of(from, one);
+                    }
+                }
+                boolean startRank = us == WHITE ? (from >>> 3) == 1 : (from >>> 3) == 6;
+                int two = one + forward;
+                if (!capturesOnly && startRank && (empty & (1L << two)) != 0
+                        && ((1L << two) & target & pinMask) != 0) {
+                    moves[n++] = Move.of(from, two);
+                }
+            }
+
+            // Captures
+            long captures = Bitboards.pawnAttacks(us, from) & theirs & target & pinMask;
+            while (captures != 0) {
+                int to = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                if (((1L << to) & promotionRank) != 0) {
+                    n = addPromotions(moves, n, from, to);
+                } else {
+                    moves[n++] = Move.of(from, to);
+                }
+            }
+
+            // En passant, verified by removing both pawns from the board
+            int ep = pos.epSquare;
+            if (ep >= 0 && (Bitboards.pawnAttacks(us, from) & (1L << ep)) != 0) {
+                int capSq = ep - forward;
+                long occ = (pos.occupied ^ (1L << from) ^ (1L << capSq)) | (1L << ep);
+                long attackers = (Bitboards.rookAttacks(king, occ)
+                        & (pos.pieces[them * 6 + ROOK] | pos.pieces[them * 6 + QUEEN]))
+                        | (Bitboards.bishopAttacks(king, occ)
+                                & (pos.pieces[them * 6 + BISHOP] | pos.pieces[them * 6 + QUEEN]))
+                        | (Bitboards.knightAttacks(king) & pos.pieces[them * 6 + KNIGHT])
+                        | (Bitboards.pawnAttacks(us, king) & pos.pieces[them * 6 + PAWN] & ~(1L << capSq));
+                if (attackers == 0) {
+                    moves[n++] = Move.of(from, ep, Move.EN_PASSANT);
+                }
+            }
+        }
+        return n;
+    }
+
+    private int generateCastling(Position pos, int[] moves, int n, int us, int king) {
+        int them = us ^ 1;
+        long occ = pos.occupied;
+        int rights = pos.castling;
+        int shortRight = us == WHITE ? WHITE_OO : BLACK_OO;
+        int longRight = us == WHITE ? WHITE_OOO : BLACK_OOO;
+        int rook = piece(us, ROOK);
+
+        // Rights from a hand-written FEN may not match the board
+        if (king != (us == WHITE ? 4 : 60)) {
+            return n;
+        }
+
+        if ((rights & shortRight) != 0 && pos.board[king + 3] == rook
+                && (occ & ((1L << (king + 1)) | (1L << (king + 2)))) == 0
+                && pos.attackersTo(king + 1, occ, them) == 0
+                && pos.attackersTo(king + 2, occ, them) == 0) {
+            moves[n++] = Move.of(king, king + 2, Move.CASTLING);
+        }
+        if ((rights & longRight) != 0 && pos.board[king - 4] == rook
+                && (occ & ((1L << (king - 1)) | (1L << (king - 2)) | (1L << (king - 3)))) == 0
+                && pos.attackersTo(king - 1, occ, them) == 0
+                && pos.attackersTo(king - 2, occ, them) == 0) {
+            moves[n++] = Move.of(king, king - 2, Move.CASTLING);
+        }
+        return n;
+    }
+
+    private static long pinnedPieces(Position pos, int king, int us) {
+        int them = us ^ 1;
+        long snipers = (Bitboards.rookAttacks(king, 0)
+                & (pos.pieces[them * 6 + ROOK] | pos.pieces[them * 6 + QUEEN]))
+                | (Bitboards.bishopAttacks(king, 0)
+                        & (pos.pieces[them * 6 + BISHOP] | pos.pieces[them * 6 + QUEEN]));
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Bitboards.between(king, sniper) & pos.occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & pos.colors[us];
+            }
+        }
+        return pinned;
+    }
+
+    private static int addMoves(int[] moves, int n, int from, long targets) {
+        while (targets != 0) {
+            moves[n++] = Move.of(from, Long.numberOfTrailingZeros(targets));
+            targets &= targets - 1;
+        }
+        return n;
+    }
+
+    private static int addPromotions(int[] moves, int n, int from, int to) {
+        moves[n++] = Move.promotion(from, to, QUEEN);
+        moves[n++] = Move.promotion(from, to, ROOK);
+        moves[n++] = Move.promotion(from, to, BISHOP);
+        moves[n++] = Move.promotion(from, to, KNIGHT);
+        return n;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.IndiChessBackend.engine;
+
+/**
+ * Precomputed attack tables for the bitboard engine.
+ * Squares are numbered a1 = 0 ... h8 = 63. Sliding attacks use magic
+ * bitboards; the magics are searched once at class load with a fixed seed,
+ * so the tables are identical on every run.
+ */
+public final class Bitboards {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_4 = RANK_1 << 24;
+    public static final long RANK_5 = RANK_1 << 32;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    // [color][square]
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Squares strictly between two aligned squares, and the full line through them
+    static final long[][] BETWEEN = new long[64][64];
+    static final long[][] LINE = new long[64][64];
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] ROOK_MAGIC = new long[64];
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final long[] BISHOP_MAGIC = new long[64];
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    private static final int[][] ROOK_DIRS = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+    private static final int[][] BISHOP_DIRS = { { 1, 1 }, { 1, -1 }, { -1, 1 }, { -1, -1 } };
+
+    static {
+        initLeapers();
+        long seed = 0x1D2C3B4A59687706L;
+        for (int sq = 0; sq < 64; sq++) {
+            seed = initMagic(sq, ROOK_DIRS, ROOK_MASK, ROOK_MAGIC, ROOK_SHIFT, ROOK_TABLE, seed);
+            seed = initMagic(sq, BISHOP_DIRS, BISHOP_MASK, BISHOP_MAGIC, BISHOP_SHIFT, BISHOP_TABLE, seed);
+        }
+        initLines();
+    }
+
+    private Bitboards() {
+    }
+
+    public static long rookAttacks(int sq, long occupied) {
+        return ROOK_TABLE[sq][(int) (((occupied & ROOK_MASK[sq]) * ROOK_MAGIC[sq]) >>> ROOK_SHIFT[sq])];
+    }
+
+    public static long bishopAttacks(int sq, long occupied) {
+        return BISHOP_TABLE[sq][(int) (((occupied & BISHOP_MASK[sq]) * BISHOP_MAGIC[sq]) >>> BISHOP_SHIFT[sq])];
+    }
+
+    public static long queenAttacks(int sq, long occupied) {
+        return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+    }
+
+    public static long knightAttacks(int sq) {
+        return KNIGHT_ATTACKS[sq];
+    }
+
+    public static long kingAttacks(int sq) {
+        return KING_ATTACKS[sq];
+    }
+
+    public static long pawnAttacks(int color, int sq) {
+        return PAWN_ATTACKS[color][sq];
+    }
+
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    public static int file(int sq) {
+        return sq & 7;
+    }
+
+    public static int rank(int sq) {
+        return sq >>> 3;
+    }
+
+    private static void initLeapers() {
+        int[][] knight = { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 } };
+        int[][] king = { { 1, 0 }, { 1, 1 }, { 0, 1 }, { -1, 1 }, { -1, 0 }, { -1, -1 }, { 0, -1 }, { 1, -1 } };
+        for (int sq = 0; sq < 64; sq++) {
+            KNIGHT_ATTACKS[sq] = leaper(sq, knight);
+            KING_ATTACKS[sq] = leaper(sq, king);
+            PAWN_ATTACKS[Position.WHITE][sq] = leaper(sq, new int[][] { { -1, 1 }, { 1, 1 } });
+            PAWN_ATTACKS[Position.BLACK][sq] = leaper(sq, new int[][] { { -1, -1 }, { 1, -1 } });
+        }
+    }
+
+    private static long leaper(int sq, int[][] deltas) {
+        long attacks = 0;
+        for (int[] d : deltas) {
+            int f = file(sq) + d[0];
+            int r = rank(sq) + d[1];
+            if (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                attacks |= 1L << (r * 8 + f);
+            }
+        }
+        return attacks;
+    }
+
+    private static long slidingAttacks(int sq, long occupied, int[][] dirs) {
+        long attacks = 0;
+        for (int[] d : dirs) {
+            int f = file(sq) + d[0];
+            int r = rank(sq) + d[1];
+            while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                long bit = 1L << (r * 8 + f);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                f += d[0];
+                r += d[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static long relevantMask(int sq, int[][] dirs) {
+        long mask = 0;
+        for (int[] d : dirs) {
+            int f = file(sq) + d[0];
+            int r = rank(sq) + d[1];
+            // The last square of each ray never changes the attack set
+            while (f + d[0] >= 0 && f + d[0] < 8 && r + d[1] >= 0 && r + d[1] < 8) {
+                mask |= 1L << (r * 8 + f);
+                f += d[0];
+                r += d[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long initMagic(int sq, int[][] dirs, long[] masks, long[] magics, int[] shifts, long[][] tables,
+            long seed) {
+        long mask = relevantMask(sq, dirs);
+        int bits = Long.bitCount(mask);
+        int size = 1 << bits;
+        long[] occupancies = new long[size];
+        long[] reference = new long[size];
+
+        // Carry-rippler enumeration of every subset of the mask
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            reference[i] = slidingAttacks(sq, subset, dirs);
+            subset = (subset - mask) & mask;
+        }
+
+        long[] table = new long[size];
+        int[] epoch = new int[size];
+        int attempt = 0;
+        while (true) {
+            long magic = 0;
+            // Sparse candidates converge much faster
+            while (Long.bitCount((mask * magic) >>> 56) < 6) {
+                seed = xorshift(seed);
+                long a = seed;
+                seed = xorshift(seed);
+                long b = seed;
+                seed = xorshift(seed);
+                magic = a & b & seed;
+            }
+            attempt++;
+            boolean ok = true;
+            for (int i = 0; i < size && ok; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                if (epoch[index] < attempt) {
+                    epoch[index] = attempt;
+                    table[index] = reference[i];
+                } else if (table[index] != reference[i]) {
+                    ok = false;
+                }
+            }
+            if (ok) {
+                masks[sq] = mask;
+                magics[sq] = magic;
+                shifts[sq] = 64 - bits;
+                tables[sq] = table;
+                return seed;
+            }
+        }
+    }
+
+    private static long xorshift(long x) {
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        return x * 2685821657736338717L;
+    }
+
+    private static void initLines() {
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) {
+                    continue;
+                }
+                long bitB = 1L << b;
+                if ((slidingAttacks(a, 0, ROOK_DIRS) & bitB) != 0) {
+                    BETWEEN[a][b] = slidingAttacks(a, bitB, ROOK_DIRS) & slidingAttacks(b, 1L << a, ROOK_DIRS);
+                    LINE[a][b] = (slidingAttacks(a, 0, ROOK_DIRS) & slidingAttacks(b, 0, ROOK_DIRS))
+                            | (1L << a) | bitB;
+                } else if ((slidingAttacks(a, 0, BISHOP_DIRS) & bitB) != 0) {
+                    BETWEEN[a][b] = slidingAttacks(a, bitB, BISHOP_DIRS) & slidingAttacks(b, 1L << a, BISHOP_DIRS);
+                    LINE[a][b] = (slidingAttacks(a, 0, BISHOP_DIRS) & slidingAttacks(b, 0, BISHOP_DIRS))
+                            | (1L << a) | bitB;
+                }
+            }
+        }
+    }
+}
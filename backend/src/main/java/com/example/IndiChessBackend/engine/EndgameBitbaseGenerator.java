@@ -0,0 +1,204 @@
+package com.example.IndiChessBackend.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Offline generator for {@link EndgameBitbases} by retrograde iteration:
+ * mates are marked won, then a position with White to move is won if some
+ * move reaches a won position, and one with Black to move if every move
+ * does; whatever is left undecided is a draw. KQK and KRK are solved first
+ * so pawn promotions in KPK can look them up.
+ *
+ * <pre>java -cp IndiChessBackend.jar com.example.IndiChessBackend.engine.EndgameBitbaseGenerator bitbases.bin</pre>
+ */
+public final class EndgameBitbaseGenerator {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte WON = 1;
+    private static final byte DRAWN = 2; // Also impossible positions
+
+    private EndgameBitbaseGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: EndgameBitbaseGenerator <bitbases.bin>");
+            System.exit(1);
+        }
+        long start = System.currentTimeMillis();
+        write(Path.of(args[0]));
+        System.out.println("♟️ Wrote endgame bitbases to " + args[0] + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    public static void write(Path path) throws IOException {
+        byte[] queen = solve(Position.QUEEN, null, null);
+        byte[] rook = solve(Position.ROOK, null, null);
+        byte[] pawn = solve(Position.PAWN, queen, rook);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(EndgameBitbases.MAGIC);
+            out.writeInt(EndgameBitbases.PIECES.length);
+            // Same order as EndgameBitbases.PIECES
+            writeBits(out, pawn);
+            writeBits(out, rook);
+            writeBits(out, queen);
+        }
+    }
+
+    private static void writeBits(OutputStream out, byte[] states) throws IOException {
+        byte[] bits = new byte[EndgameBitbases.TABLE_BYTES];
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == WON) {
+                bits[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        out.write(bits);
+    }
+
+    /**
+     * States of every position of K + piece vs K with the piece White's
+     */
+    static byte[] solve(int piece, byte[] queenTable, byte[] rookTable) {
+        byte[] states = new byte[EndgameBitbases.POSITIONS];
+        for (int wk = 0; wk < 64; wk++) {
+            for (int ps = 0; ps < 64; ps++) {
+                for (int bk = 0; bk < 64; bk++) {
+                    for (int stm = 0; stm < 2; stm++) {
+                        int index = EndgameBitbases.index(stm, wk, ps, bk);
+                        if (!isValid(piece, stm, wk, ps, bk)) {
+                            states[index] = DRAWN;
+                        } else if (stm == 1) {
+                            states[index] = initialBlackState(piece, wk, ps, bk);
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int wk = 0; wk < 64; wk++) {
+                for (int ps = 0; ps < 64; ps++) {
+                    for (int bk = 0; bk < 64; bk++) {
+                        int white = EndgameBitbases.index(0, wk, ps, bk);
+                        if (states[white] == UNKNOWN && whiteCanWin(piece, states, queenTable, rookTable, wk, ps, bk)) {
+                            states[white] = WON;
+                            changed = true;
+                        }
+                        int black = EndgameBitbases.index(1, wk, ps, bk);
+                        if (states[black] == UNKNOWN && blackMustLose(piece, states, wk, ps, bk)) {
+                            states[black] = WON;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == UNKNOWN) {
+                states[i] = DRAWN;
+            }
+        }
+        return states;
+    }
+
+    private static boolean isValid(int piece, int stm, int wk, int ps, int bk) {
+        if (wk == ps || wk == bk || ps == bk) {
+            return false;
+        }
+        if ((Bitboards.kingAttacks(wk) & bit(bk)) != 0) {
+            return false;
+        }
+        if (piece == Position.PAWN && (ps < 8 || ps >= 56)) {
+            return false;
+        }
+        // Black cannot be in check with White to move
+        return stm == 1 || (attacks(piece, ps, bit(wk) | bit(bk)) & bit(bk)) == 0;
+    }
+
+    // Mate is won, stalemate and capturing the piece are draws
+    private static byte initialBlackState(int piece, int wk, int ps, int bk) {
+        long occupied = bit(wk) | bit(ps);
+        long guarded = Bitboards.kingAttacks(wk) | attacks(piece, ps, occupied);
+        if ((Bitboards.kingAttacks(bk) & bit(ps) & ~Bitboards.kingAttacks(wk)) != 0) {
+            return DRAWN;
+        }
+        long escapes = Bitboards.kingAttacks(bk) & ~guarded & ~bit(ps);
+        if (escapes == 0) {
+            return (guarded & bit(bk)) != 0 ? WON : DRAWN;
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean whiteCanWin(int piece, byte[] states, byte[] queenTable, byte[] rookTable,
+            int wk, int ps, int bk) {
+        long occupied = bit(wk) | bit(ps) | bit(bk);
+        long kingMoves = Bitboards.kingAttacks(wk) & ~Bitboards.kingAttacks(bk) & ~occupied;
+        for (long m = kingMoves; m != 0; m &= m - 1) {
+            if (states[EndgameBitbases.index(1, Long.numberOfTrailingZeros(m), ps, bk)] == WON) {
+                return true;
+            }
+        }
+
+        if (piece != Position.PAWN) {
+            for (long m = attacks(piece, ps, occupied) & ~occupied; m != 0; m &= m - 1) {
+                if (states[EndgameBitbases.index(1, wk, Long.numberOfTrailingZeros(m), bk)] == WON) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int push = ps + 8;
+        if ((occupied & bit(push)) != 0) {
+            return false;
+        }
+        if (push >= 56) {
+            // Promote; a rook wins some positions where a queen stalemates
+            int index = EndgameBitbases.index(1, wk, push, bk);
+            return queenTable[index] == WON || rookTable[index] == WON;
+        }
+        if (states[EndgameBitbases.index(1, wk, push, bk)] == WON) {
+            return true;
+        }
+        int doublePush = ps + 16;
+        return ps < 16 && (occupied & bit(doublePush)) == 0
+                && states[EndgameBitbases.index(1, wk, doublePush, bk)] == WON;
+    }
+
+    // Captures of the piece were settled as draws up front
+    private static boolean blackMustLose(int piece, byte[] states, int wk, int ps, int bk) {
+        long guarded = Bitboards.kingAttacks(wk) | attacks(piece, ps, bit(wk) | bit(ps));
+        long moves = Bitboards.kingAttacks(bk) & ~guarded & ~bit(ps);
+        for (long m = moves; m != 0; m &= m - 1) {
+            if (states[EndgameBitbases.index(0, wk, ps, Long.numberOfTrailingZeros(m))] != WON) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long attacks(int piece, int sq, long occupied) {
+        switch (piece) {
+            case Position.PAWN:
+                return Bitboards.pawnAttacks(Position.WHITE, sq);
+            case Position.ROOK:
+                return Bitboards.rookAttacks(sq, occupied);
+            case Position.QUEEN:
+                return Bitboards.queenAttacks(sq, occupied);
+            default:
+                throw new IllegalArgumentException("Unsupported piece: " + piece);
+        }
+    }
+
+    private static long bit(int sq) {
+        return 1L << sq;
+    }
+}
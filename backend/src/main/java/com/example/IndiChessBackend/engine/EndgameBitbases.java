@@ -0,0 +1,112 @@
+package com.example.IndiChessBackend.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Win/draw bitbases for king and one piece (pawn, rook or queen) against a
+ * lone king, memory-mapped from the file written by
+ * {@link EndgameBitbaseGenerator}. One bit per position: set when the side
+ * with the extra piece wins, clear for draws and impossible positions.
+ * Positions are indexed with the stronger side as White:
+ * ((sideToMove * 64 + strongKing) * 64 + piece) * 64 + weakKing.
+ * Thread-safe: only absolute reads are made on the shared buffer.
+ */
+public final class EndgameBitbases {
+
+    /** Result of a probe, from the side to move's point of view */
+    public static final int UNKNOWN = 0;
+    public static final int DRAW = 1;
+    public static final int WIN = 2;
+    public static final int LOSS = 3;
+
+    static final int MAGIC = 0x49424231; // "IBB1"
+    static final int HEADER_BYTES = 8;
+    static final int POSITIONS = 2 * 64 * 64 * 64;
+    static final int TABLE_BYTES = POSITIONS / 8;
+    // Table order in the file
+    static final int[] PIECES = { Position.PAWN, Position.ROOK, Position.QUEEN };
+
+    private static final EndgameBitbases EMPTY = new EndgameBitbases(null);
+    private static volatile EndgameBitbases installed = EMPTY;
+
+    private final ByteBuffer tables;
+
+    private EndgameBitbases(ByteBuffer tables) {
+        this.tables = tables;
+    }
+
+    public static EndgameBitbases open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_BYTES + (long) PIECES.length * TABLE_BYTES) {
+                throw new IOException("Unexpected bitbase file size: " + channel.size());
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a bitbase file: " + path);
+            }
+            return new EndgameBitbases(buffer);
+        }
+    }
+
+    public static EndgameBitbases empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Bitbases used by {@link Search}; empty until the application installs a file
+     */
+    public static EndgameBitbases installed() {
+        return installed;
+    }
+
+    public static void install(EndgameBitbases bitbases) {
+        installed = bitbases;
+    }
+
+    public boolean isEmpty() {
+        return tables == null;
+    }
+
+    /**
+     * WIN, LOSS or DRAW for the side to move, or UNKNOWN when the material is
+     * not covered (anything but two kings and one pawn, rook or queen)
+     */
+    public int probe(Position pos) {
+        if (tables == null || Long.bitCount(pos.occupied()) != 3) {
+            return UNKNOWN;
+        }
+        int strong = Long.bitCount(pos.pieces(Position.WHITE)) == 2 ? Position.WHITE : Position.BLACK;
+        int table = -1;
+        int pieceSquare = -1;
+        for (int t = 0; t < PIECES.length; t++) {
+            long piece = pos.pieces(strong, PIECES[t]);
+            if (piece != 0) {
+                table = t;
+                pieceSquare = Long.numberOfTrailingZeros(piece);
+            }
+        }
+        if (table < 0) {
+            return UNKNOWN;
+        }
+
+        // Mirror ranks so the strong side is always White
+        int flip = strong == Position.WHITE ? 0 : 56;
+        int sideToMove = pos.sideToMove() == strong ? 0 : 1;
+        int index = index(sideToMove, pos.kingSquare(strong) ^ flip, pieceSquare ^ flip,
+                pos.kingSquare(strong ^ 1) ^ flip);
+        boolean won = (tables.get(HEADER_BYTES + table * TABLE_BYTES + (index >>> 3)) & (1 << (index & 7))) != 0;
+        if (!won) {
+            return DRAW;
+        }
+        return sideToMove == 0 ? WIN : LOSS;
+    }
+
+    static int index(int sideToMove, int strongKing, int piece, int weakKing) {
+        return ((sideToMove * 64 + strongKing) * 64 + piece) * 64 + weakKing;
+    }
+}
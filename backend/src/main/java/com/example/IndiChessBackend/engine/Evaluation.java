@@ -0,0 +1,135 @@
+package com.example.IndiChessBackend.engine;
+
+import static com.example.IndiChessBackend.engine.Position.*;
+
+/**
+ * Static evaluation: material plus piece-square tables, with the king table
+ * tapered between middlegame and endgame by remaining material.
+ * Scores are in centipawns from the side to move's point of view.
+ */
+public final class Evaluation {
+
+    public static final int[] PIECE_VALUES = { 100, 320, 330, 500, 900, 0 };
+
+    // Tables are written from White's side, rank 8 first; index with sq ^ 56 for White
+    private static final int[] PAWN_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0 };
+
+    private static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50 };
+
+    private static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20 };
+
+    private static final int[] ROOK_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0 };
+
+    private static final int[] QUEEN_TABLE = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20 };
+
+    private static final int[] KING_MIDDLEGAME_TABLE = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20 };
+
+    private static final int[] KING_ENDGAME_TABLE = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50 };
+
+    private static final int[][] TABLES = { PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE };
+
+    // Game phase weight per piece type; 24 is the full opening material
+    private static final int[] PHASE_WEIGHTS = { 0, 1, 1, 2, 4, 0 };
+    private static final int MAX_PHASE = 24;
+
+    private Evaluation() {
+    }
+
+    public static int evaluate(Position pos) {
+        int score = 0;
+        int phase = 0;
+        for (int color = WHITE; color <= BLACK; color++) {
+            int sign = color == WHITE ? 1 : -1;
+            int flip = color == WHITE ? 56 : 0;
+            for (int type = PAWN; type <= QUEEN; type++) {
+                long bb = pos.pieces(color, type);
+                int[] table = TABLES[type];
+                while (bb != 0) {
+                    int sq = Long.numberOfTrailingZeros(bb);
+                    bb &= bb - 1;
+                    score += sign * (PIECE_VALUES[type] + table[sq ^ flip]);
+                    phase += PHASE_WEIGHTS[type];
+                }
+            }
+        }
+
+        phase = Math.min(phase, MAX_PHASE);
+        for (int color = WHITE; color <= BLACK; color++) {
+            int king = pos.kingSquare(color);
+            if (king < 0) {
+                continue;
+            }
+            int index = king ^ (color == WHITE ? 56 : 0);
+            int kingScore = (KING_MIDDLEGAME_TABLE[index] * phase
+                    + KING_ENDGAME_TABLE[index] * (MAX_PHASE - phase)) / MAX_PHASE;
+            score += color == WHITE ? kingScore : -kingScore;
+        }
+
+        return pos.sideToMove() == WHITE ? score : -score;
+    }
+
+    /**
+     * True if the side to move has something other than pawns and king,
+     * which makes null-move pruning safe from zugzwang
+     */
+    public static boolean hasNonPawnMaterial(Position pos) {
+        int us = pos.sideToMove();
+        return (pos.pieces(us, KNIGHT) | pos.pieces(us, BISHOP) | pos.pieces(us, ROOK) | pos.pieces(us, QUEEN)) != 0;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.IndiChessBackend.engine;
+
+/**
+ * Moves are encoded as primitive ints in the low 16 bits:
+ * bits 0-5 from square, 6-11 to square, 12-13 promotion piece
+ * (knight, bishop, rook, queen) and 14-15 move flag.
+ * Castling is encoded as the king move (e1g1), as in UCI.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int NORMAL = 0;
+    public static final int PROMOTION = 1;
+    public static final int EN_PASSANT = 2;
+    public static final int CASTLING = 3;
+
+    private static final char[] PROMOTION_CHARS = { 'n', 'b', 'r', 'q' };
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(int from, int to, int flag) {
+        return from | (to << 6) | (flag << 14);
+    }
+
+    /**
+     * @param promotionType one of {@link Position#KNIGHT} .. {@link Position#QUEEN}
+     */
+    public static int promotion(int from, int to, int promotionType) {
+        return from | (to << 6) | ((promotionType - Position.KNIGHT) << 12) | (PROMOTION << 14);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int flag(int move) {
+        return (move >>> 14) & 0x3;
+    }
+
+    /**
+     * Promotion piece type, only meaningful for {@link #PROMOTION} moves
+     */
+    public static int promotionType(int move) {
+        return ((move >>> 12) & 0x3) + Position.KNIGHT;
+    }
+
+    public static String squareName(int sq) {
+        return String.valueOf((char) ('a' + (sq & 7))) + (char) ('1' + (sq >>> 3));
+    }
+
+    /**
+     * Parse a square like "e4" (case-insensitive), -1 if malformed
+     */
+    public static int parseSquare(String name) {
+        if (name == null || name.length() != 2) {
+            return -1;
+        }
+        int file = Character.toLowerCase(name.charAt(0)) - 'a';
+        int rank = name.charAt(1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return -1;
+        }
+        return rank * 8 + file;
+    }
+
+    public static String toUci(int move) {
+        String uci = squareName(from(move)) + squareName(to(move));
+        if (flag(move) == PROMOTION) {
+            uci += PROMOTION_CHARS[(move >>> 12) & 0x3];
+        }
+        return uci;
+    }
+
+    /**
+     * Promotion piece type for a UCI suffix char ('q', 'r', 'b', 'n'), -1 if none
+     */
+    public static int promotionTypeOf(char c) {
+        switch (Character.toLowerCase(c)) {
+            case 'n':
+                return Position.KNIGHT;
+            case 'b':
+                return Position.BISHOP;
+            case 'r':
+                return Position.ROOK;
+            case 'q':
+                return Position.QUEEN;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * The legal move in pos written as UCI (e2e4, e7e8q, e1g1), or NONE
+     */
+    public static int parseUci(Position pos, String uci) {
+        if (uci == null || uci.length() < 4) {
+            return NONE;
+        }
+        int from = parseSquare(uci.substring(0, 2));
+        int to = parseSquare(uci.substring(2, 4));
+        int promotionType = uci.length() > 4 ? promotionTypeOf(uci.charAt(4)) : -1;
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = BitboardMoveGenerator.INSTANCE.generateLegalMoves(pos, moves);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (from(move) == from && to(move) == to
+                    && (flag(move) != PROMOTION || promotionType(move) == promotionType)) {
+                return move;
+            }
+        }
+        return NONE;
+    }
+}
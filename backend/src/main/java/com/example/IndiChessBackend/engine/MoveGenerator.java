@@ -0,0 +1,25 @@
+package com.example.IndiChessBackend.engine;
+
+/**
+ * Legal move generation into a caller-owned int buffer, so generating moves
+ * never allocates. The buffer must hold at least {@link #MAX_MOVES} entries.
+ */
+public interface MoveGenerator {
+
+    // No legal chess position has more than 218 moves
+    int MAX_MOVES = 256;
+
+    /**
+     * Write all legal moves of the side to move into {@code moves}
+     *
+     * @return number of moves written
+     */
+    int generateLegalMoves(Position position, int[] moves);
+
+    /**
+     * Write only legal captures and promotions (used by quiescence search)
+     *
+     * @return number of moves written
+     */
+    int generateLegalCaptures(Position position, int[] moves);
+}
@@ -0,0 +1,101 @@
+package com.example.IndiChessBackend.engine;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of moves in their 16-bit encoding, stored as two big-endian
+ * bytes per move. This byte form is what the games table keeps: two bytes a
+ * move in place of a text move list, with no per-move string building.
+ */
+public final class MoveList {
+
+    private byte[] bytes;
+    private int length;
+
+    public MoveList() {
+        this.bytes = new byte[64];
+    }
+
+    public static MoveList fromBytes(byte[] data) {
+        MoveList list = new MoveList();
+        if (data != null && data.length > 0) {
+            list.bytes = Arrays.copyOf(data, Math.max(64, data.length * 2));
+            list.length = data.length & ~1;
+        }
+        return list;
+    }
+
+    public void add(int move) {
+        if (length + 2 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        bytes[length] = (byte) (move >>> 8);
+        bytes[length + 1] = (byte) move;
+        length += 2;
+    }
+
+    /**
+     * Drop the last move; false if the list is empty
+     */
+    public boolean removeLast() {
+        if (length == 0) {
+            return false;
+        }
+        length -= 2;
+        return true;
+    }
+
+    public int size() {
+        return length / 2;
+    }
+
+    public int get(int index) {
+        return decode(bytes, index);
+    }
+
+    /**
+     * Exact-size copy in the stored form
+     */
+    public byte[] toBytes() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    public int[] toArray() {
+        int[] moves = new int[size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = get(i);
+        }
+        return moves;
+    }
+
+    /**
+     * Move at index of a stored list
+     */
+    public static int decode(byte[] data, int index) {
+        return (data[index * 2] & 0xFF) << 8 | (data[index * 2 + 1] & 0xFF);
+    }
+
+    /**
+     * Last move of a stored list, {@link Move#NONE} if there is none
+     */
+    public static int last(byte[] data) {
+        return data == null || data.length < 2 ? Move.NONE : decode(data, data.length / 2 - 1);
+    }
+
+    /**
+     * Space-separated UCI text of a stored list
+     */
+    public static String toUci(byte[] data) {
+        if (data == null || data.length < 2) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder(data.length * 3);
+        for (int i = 0; i < data.length / 2; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(Move.toUci(decode(data, i)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.IndiChessBackend.engine;
+
+/**
+ * Standard algebraic notation (SAN) and PGN movetext, produced on demand from
+ * the stored binary move list.
+ */
+public final class Notation {
+
+    private static final char[] PIECE_LETTERS = { 'P', 'N', 'B', 'R', 'Q', 'K' };
+
+    private Notation() {
+    }
+
+    /**
+     * SAN of a legal move in pos, e.g. "Nbd7", "exd5", "e8=Q+", "O-O-O#"
+     */
+    public static String san(Position pos, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int type = pos.pieceAt(from) % 6;
+        StringBuilder san = new StringBuilder(8);
+
+        if (Move.flag(move) == Move.CASTLING) {
+            san.append(to > from ? "O-O" : "O-O-O");
+        } else {
+            boolean capture = pos.pieceAt(to) != Position.NO_PIECE || Move.flag(move) == Move.EN_PASSANT;
+            if (type == Position.PAWN) {
+                if (capture) {
+                    san.append((char) ('a' + Bitboards.file(from)));
+                }
+            } else {
+                san.append(PIECE_LETTERS[type]);
+                appendDisambiguation(san, pos, move, type);
+            }
+            if (capture) {
+                san.append('x');
+            }
+            san.append(Move.squareName(to));
+            if (Move.flag(move) == Move.PROMOTION) {
+                san.append('=').append(PIECE_LETTERS[Move.promotionType(move)]);
+            }
+        }
+
+        pos.makeMove(move);
+        if (pos.inCheck()) {
+            int[] replies = new int[MoveGenerator.MAX_MOVES];
+            san.append(BitboardMoveGenerator.INSTANCE.generateLegalMoves(pos, replies) == 0 ? '#' : '+');
+        }
+        pos.unmakeMove();
+        return san.toString();
+    }
+
+    // File, rank or both when another piece of the same type can reach the square
+    private static void appendDisambiguation(StringBuilder san, Position pos, int move, int type) {
+        int from = Move.from(move);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = BitboardMoveGenerator.INSTANCE.generateLegalMoves(pos, moves);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < count; i++) {
+            int other = Move.from(moves[i]);
+            if (other != from && Move.to(moves[i]) == Move.to(move) && pos.pieceAt(other) % 6 == type) {
+                ambiguous = true;
+                sameFile |= Bitboards.file(other) == Bitboards.file(from);
+                sameRank |= Bitboards.rank(other) == Bitboards.rank(from);
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            san.append((char) ('a' + Bitboards.file(from)));
+        } else if (!sameRank) {
+            san.append((char) ('1' + Bitboards.rank(from)));
+        } else {
+            san.append(Move.squareName(from));
+        }
+    }
+
+    /**
+     * Numbered SAN movetext ("1. e4 e5 2. Nf3") of moves played from startFen
+     */
+    public static String movetext(String startFen, int[] moves) {
+        Position pos = new Position(startFen);
+        StringBuilder text = new StringBuilder(moves.length * 6);
+        for (int i = 0; i < moves.length; i++) {
+            if (pos.sideToMove() == Position.WHITE) {
+                text.append(pos.fullmoveNumber()).append(". ");
+            } else if (i == 0) {
+                text.append(pos.fullmoveNumber()).append("... ");
+            }
+            text.append(san(pos, moves[i])).append(' ');
+            pos.makeMove(moves[i]);
+        }
+        return text.toString().trim();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.IndiChessBackend.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Read-only opening book in the Polyglot .bin layout: 16-byte big-endian
+ * entries (key, move, weight, learn) sorted by key. The file is memory-mapped
+ * and probed with a binary search, so a book of any size costs neither heap
+ * nor load time; pages are faulted in by the OS as positions are looked up.
+ * Keys are this engine's {@link Position#key()} rather than the Polyglot
+ * Random64 hash, so books are produced with {@link OpeningBookBuilder}; a
+ * standard Polyglot book would never match a position, and
+ * {@link #requireEngineKeys()} refuses one.
+ * Thread-safe: only absolute reads are made on the shared buffer.
+ */
+public final class OpeningBook {
+
+    static final int ENTRY_BYTES = 16;
+
+    // Random64 key of the start position, present in any standard Polyglot book
+    static final long POLYGLOT_START_KEY = 0x463B96181691FC9CL;
+
+    private static final OpeningBook EMPTY = new OpeningBook(ByteBuffer.allocate(0));
+
+    private final ByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(ByteBuffer entries) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_BYTES;
+    }
+
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(buffer);
+        }
+    }
+
+    public static OpeningBook empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A book move for the position picked at random in proportion to its
+     * weight, or {@link Move#NONE} when the position is not in the book
+     */
+    public int probe(Position pos) {
+        int first = lowerBound(pos.key());
+        int totalWeight = 0;
+        for (int i = first; i < size && key(i) == pos.key(); i++) {
+            totalWeight += weight(i);
+        }
+        if (totalWeight == 0) {
+            return Move.NONE;
+        }
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = first; i < size && key(i) == pos.key(); i++) {
+            pick -= weight(i);
+            if (pick < 0) {
+                return toMove(pos, entries.getShort(i * ENTRY_BYTES + 8) & 0xFFFF);
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Fail unless the book has moves for the start position under this
+     * engine's keys, which every book made by {@link OpeningBookBuilder} has.
+     * Catches a standard Polyglot book, whose keys would never be hit.
+     */
+    public void requireEngineKeys() {
+        if (count(new Position().key()) > 0) {
+            return;
+        }
+        if (count(POLYGLOT_START_KEY) > 0) {
+            throw new IllegalStateException("Book is keyed with the Polyglot Random64 hash, which this engine "
+                    + "does not use; rebuild it from move lines with OpeningBookBuilder");
+        }
+        throw new IllegalStateException("Book has no moves for the start position (" + size + " entries); "
+                + "it was not built by OpeningBookBuilder");
+    }
+
+    /**
+     * Number of book moves stored for the position
+     */
+    public int count(long key) {
+        int count = 0;
+        for (int i = lowerBound(key); i < size && key(i) == key; i++) {
+            count++;
+        }
+        return count;
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long key(int index) {
+        return entries.getLong(index * ENTRY_BYTES);
+    }
+
+    private int weight(int index) {
+        return entries.getShort(index * ENTRY_BYTES + 10) & 0xFFFF;
+    }
+
+    /**
+     * Polyglot move: to square bits 0-5, from square 6-11, promotion 12-14
+     * (1 = knight .. 4 = queen); castling is written as king takes own rook.
+     * Only a move that is legal in the position is returned.
+     */
+    static int toMove(Position pos, int polyglot) {
+        int to = polyglot & 0x3F;
+        int from = (polyglot >>> 6) & 0x3F;
+        int promotion = (polyglot >>> 12) & 0x7;
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = BitboardMoveGenerator.INSTANCE.generateLegalMoves(pos, moves);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (Move.from(move) != from || toPolyglotTarget(move) != to) {
+                continue;
+            }
+            if (Move.flag(move) != Move.PROMOTION || Move.promotionType(move) == promotion) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    static int toPolyglot(int move) {
+        int promotion = Move.flag(move) == Move.PROMOTION ? Move.promotionType(move) : 0;
+        return toPolyglotTarget(move) | Move.from(move) << 6 | promotion << 12;
+    }
+
+    private static int toPolyglotTarget(int move) {
+        if (Move.flag(move) != Move.CASTLING) {
+            return Move.to(move);
+        }
+        // King side lands on the h-file rook, queen side on the a-file rook
+        return Move.to(move) > Move.from(move) ? Move.from(move) + 3 : Move.from(move) - 4;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.IndiChessBackend.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline tool that turns lines of UCI moves into an {@link OpeningBook}
+ * file. Each input line is a game or opening line; when it is tab-separated
+ * (ECO, name, moves as in openings.tsv) the last column holds the moves.
+ * A move's weight is the number of lines that play it from that position.
+ *
+ * <pre>java -cp IndiChessBackend.jar com.example.IndiChessBackend.engine.OpeningBookBuilder lines.tsv book.bin</pre>
+ */
+public final class OpeningBookBuilder {
+
+    // key -> polyglot move -> weight
+    private final Map<Long, Map<Integer, Integer>> positions = new HashMap<>();
+
+    /**
+     * Add one line; stops at the first illegal move and returns false
+     */
+    public boolean addLine(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return true;
+        }
+        String[] columns = trimmed.split("\t");
+        String moves = columns[columns.length - 1].trim();
+        Position pos = new Position();
+        for (String uci : moves.split("\\s+")) {
+            int move = Move.parseUci(pos, uci);
+            if (move == Move.NONE) {
+                return false;
+            }
+            positions.computeIfAbsent(pos.key(), k -> new HashMap<>())
+                    .merge(OpeningBook.toPolyglot(move), 1, Integer::sum);
+            pos.makeMove(move);
+        }
+        return true;
+    }
+
+    public int addLines(Reader reader) throws IOException {
+        int rejected = 0;
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (!addLine(line)) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Write the entries sorted by unsigned key, as the Polyglot format requires
+     */
+    public int write(OutputStream out) throws IOException {
+        List<Long> keys = new ArrayList<>(positions.keySet());
+        keys.sort(Long::compareUnsigned);
+        ByteBuffer entry = ByteBuffer.allocate(OpeningBook.ENTRY_BYTES);
+        int written = 0;
+        for (long key : keys) {
+            for (Map.Entry<Integer, Integer> move : positions.get(key).entrySet()) {
+                entry.clear();
+                entry.putLong(key);
+                entry.putShort((short) (int) move.getKey());
+                entry.putShort((short) Math.min(move.getValue(), 0xFFFF));
+                entry.putInt(0); // learn
+                out.write(entry.array());
+                written++;
+            }
+        }
+        return written;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: OpeningBookBuilder <lines.tsv> <book.bin>");
+            System.exit(1);
+        }
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        int rejected;
+        try (Reader reader = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            rejected = builder.addLines(reader);
+        }
+        int written;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(args[1])))) {
+            written = builder.write(out);
+        }
+        System.out.println("📖 Wrote " + written + " book entries to " + args[1]
+                + (rejected > 0 ? " (" + rejected + " lines with illegal moves skipped)" : ""));
+    }
+}
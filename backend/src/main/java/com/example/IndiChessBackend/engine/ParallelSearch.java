@@ -0,0 +1,81 @@
+package com.example.IndiChessBackend.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lazy SMP: the calling thread runs the main search while helper threads
+ * search the same root on their own copies of the position. The threads only
+ * cooperate through the shared lock-free {@link TranspositionTable}; helpers
+ * on odd indices start one ply deeper so they fill the table ahead of the
+ * main thread. The main thread's result is returned, with the node count of
+ * all threads.
+ */
+public final class ParallelSearch {
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int ABANDONED = 2;
+
+    private final TranspositionTable table;
+    private final Executor helperExecutor;
+
+    public ParallelSearch(TranspositionTable table, Executor helperExecutor) {
+        this.table = table;
+        this.helperExecutor = helperExecutor;
+    }
+
+    /**
+     * Search with the given number of threads (at least 1). Helpers are stopped
+     * and joined before returning; the position is restored.
+     */
+    public SearchResult search(Position pos, int threads, int maxDepth, long timeBudgetMillis) {
+        // Set once the main search is done; helpers check it even before they start
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<AtomicInteger> states = new ArrayList<>();
+        List<FutureTask<SearchResult>> tasks = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            Search helper = new Search(table, cancelled);
+            Position copy = pos.copy();
+            int startDepth = 1 + (i & 1);
+            AtomicInteger state = new AtomicInteger(QUEUED);
+            FutureTask<SearchResult> task = new FutureTask<>(() -> state.compareAndSet(QUEUED, RUNNING)
+                    ? helper.search(copy, startDepth, maxDepth, timeBudgetMillis)
+                    : null);
+            states.add(state);
+            tasks.add(task);
+            helperExecutor.execute(task);
+        }
+
+        Search main = new Search(table);
+        SearchResult result = main.search(pos, maxDepth, timeBudgetMillis);
+        if (tasks.isEmpty()) {
+            return result;
+        }
+
+        cancelled.set(true);
+        long nodes = result.getNodes();
+        for (int i = 0; i < tasks.size(); i++) {
+            // A helper still waiting for a pool thread will never search; only running ones are waited for
+            if (states.get(i).compareAndSet(QUEUED, ABANDONED)) {
+                continue;
+            }
+            try {
+                SearchResult helped = tasks.get(i).get();
+                nodes += helped != null ? helped.getNodes() : 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                System.err.println("❌ Search helper failed: " + e.getCause());
+            }
+        }
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes,
+                result.getTimeMillis());
+    }
+}
@@ -0,0 +1,519 @@
+package com.example.IndiChessBackend.engine;
+
+import java.util.Arrays;
+
+/**
+ * Mutable bitboard chess position with incremental Zobrist hashing and
+ * make/unmake support. Not thread-safe; one instance per game or search thread.
+ */
+public final class Position {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    // Piece index = color * 6 + type
+    public static final int NO_PIECE = 12;
+
+    public static final int WHITE_OO = 1;
+    public static final int WHITE_OOO = 2;
+    public static final int BLACK_OO = 4;
+    public static final int BLACK_OOO = 8;
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_CHARS = "PNBRQKpnbrqk";
+
+    // Castling rights that survive a move touching the given square
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, 0xF);
+        CASTLING_MASK[0] &= ~WHITE_OOO;
+        CASTLING_MASK[7] &= ~WHITE_OO;
+        CASTLING_MASK[4] &= ~(WHITE_OO | WHITE_OOO);
+        CASTLING_MASK[56] &= ~BLACK_OOO;
+        CASTLING_MASK[63] &= ~BLACK_OO;
+        CASTLING_MASK[60] &= ~(BLACK_OO | BLACK_OOO);
+    }
+
+    final long[] pieces = new long[12];
+    final long[] colors = new long[2];
+    long occupied;
+    final int[] board = new int[64];
+
+    int sideToMove;
+    int castling;
+    int epSquare = -1;
+    int halfmoveClock;
+    int fullmoveNumber = 1;
+    long key;
+
+    // Undo stack, one slot per move made since the position was set up
+    private int ply;
+    private int[] moveHistory = new int[256];
+    private long[] keyHistory = new long[256];
+    private int[] capturedHistory = new int[256];
+    private int[] castlingHistory = new int[256];
+    private int[] epHistory = new int[256];
+    private int[] halfmoveHistory = new int[256];
+
+    public Position() {
+        setFen(START_FEN);
+    }
+
+    public Position(String fen) {
+        setFen(fen);
+    }
+
+    public static int pieceType(int piece) {
+        return piece % 6;
+    }
+
+    public static int pieceColor(int piece) {
+        return piece / 6;
+    }
+
+    public static int piece(int color, int type) {
+        return color * 6 + type;
+    }
+
+    public long pieces(int color, int type) {
+        return pieces[color * 6 + type];
+    }
+
+    public long pieces(int color) {
+        return colors[color];
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    public int pieceAt(int sq) {
+        return board[sq];
+    }
+
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    public int castlingRights() {
+        return castling;
+    }
+
+    public int epSquare() {
+        return epSquare;
+    }
+
+    public int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public long key() {
+        return key;
+    }
+
+    /**
+     * Number of moves made since the position was set up
+     */
+    public int ply() {
+        return ply;
+    }
+
+    /**
+     * Move made at the given ply since setup
+     */
+    public int moveAt(int index) {
+        return moveHistory[index];
+    }
+
+    public int kingSquare(int color) {
+        long king = pieces[color * 6 + KING];
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    public void setFen(String fen) {
+        String[] parts = fen.trim().split("\\s+");
+        if (parts.length < 4) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+        Arrays.fill(pieces, 0);
+        Arrays.fill(colors, 0);
+        Arrays.fill(board, NO_PIECE);
+        occupied = 0;
+        ply = 0;
+
+        int rank = 7;
+        int file = 0;
+        for (int i = 0; i < parts[0].length(); i++) {
+            char c = parts[0].charAt(i);
+            if (c == '/') {
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                int piece = PIECE_CHARS.indexOf(c);
+                if (piece < 0 || rank < 0 || file > 7) {
+                    throw new IllegalArgumentException("Invalid FEN: " + fen);
+                }
+                put(piece, rank * 8 + file);
+                file++;
+            }
+        }
+
+        sideToMove = parts[1].equals("b") ? BLACK : WHITE;
+
+        castling = 0;
+        for (char c : parts[2].toCharArray()) {
+            switch (c) {
+                case 'K':
+                    castling |= WHITE_OO;
+                    break;
+                case 'Q':
+                    castling |= WHITE_OOO;
+                    break;
+                case 'k':
+                    castling |= BLACK_OO;
+                    break;
+                case 'q':
+                    castling |= BLACK_OOO;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        epSquare = parts[3].equals("-") ? -1 : Move.parseSquare(parts[3]);
+        // Only keep an en passant square that can actually be captured
+        if (epSquare >= 0 && (Bitboards.pawnAttacks(sideToMove ^ 1, epSquare)
+                & pieces[sideToMove * 6 + PAWN]) == 0) {
+            epSquare = -1;
+        }
+        halfmoveClock = parts.length > 4 ? Integer.parseInt(parts[4]) : 0;
+        fullmoveNumber = parts.length > 5 ? Integer.parseInt(parts[5]) : 1;
+        key = computeKey();
+    }
+
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = board[rank * 8 + file];
+                if (piece == NO_PIECE) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        fen.append(empty);
+                        empty = 0;
+                    }
+                    fen.append(PIECE_CHARS.charAt(piece));
+                }
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+        fen.append(sideToMove == WHITE ? " w " : " b ");
+        if (castling == 0) {
+            fen.append('-');
+        } else {
+            if ((castling & WHITE_OO) != 0)
+                fen.append('K');
+            if ((castling & WHITE_OOO) != 0)
+                fen.append('Q');
+            if ((castling & BLACK_OO) != 0)
+                fen.append('k');
+            if ((castling & BLACK_OOO) != 0)
+                fen.append('q');
+        }
+        fen.append(' ').append(epSquare < 0 ? "-" : Move.squareName(epSquare));
+        fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    public long computeKey() {
+        long k = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            if (board[sq] != NO_PIECE) {
+                k ^= Zobrist.PIECE_SQUARE[board[sq]][sq];
+            }
+        }
+        k ^= Zobrist.CASTLING[castling];
+        if (epSquare >= 0) {
+            k ^= Zobrist.EN_PASSANT_FILE[epSquare & 7];
+        }
+        if (sideToMove == BLACK) {
+            k ^= Zobrist.SIDE_TO_MOVE;
+        }
+        return k;
+    }
+
+    /**
+     * Bitboard of pieces of the given color attacking a square with the given occupancy
+     */
+    public long attackersTo(int sq, long occ, int color) {
+        int base = color * 6;
+        return (Bitboards.pawnAttacks(color ^ 1, sq) & pieces[base + PAWN])
+                | (Bitboards.knightAttacks(sq) & pieces[base + KNIGHT])
+                | (Bitboards.kingAttacks(sq) & pieces[base + KING])
+                | (Bitboards.bishopAttacks(sq, occ) & (pieces[base + BISHOP] | pieces[base + QUEEN]))
+                | (Bitboards.rookAttacks(sq, occ) & (pieces[base + ROOK] | pieces[base + QUEEN]));
+    }
+
+    public boolean isAttacked(int sq, int byColor) {
+        return attackersTo(sq, occupied, byColor) != 0;
+    }
+
+    public long checkers() {
+        int king = kingSquare(sideToMove);
+        return king < 0 ? 0 : attackersTo(king, occupied, sideToMove ^ 1);
+    }
+
+    public boolean inCheck() {
+        return checkers() != 0;
+    }
+
+    /**
+     * Apply a legal move produced by the move generator
+     */
+    public void makeMove(int move) {
+        ensureCapacity();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flag = Move.flag(move);
+        int us = sideToMove;
+        int them = us ^ 1;
+        int moving = board[from];
+        int captured = flag == Move.EN_PASSANT ? piece(them, PAWN) : board[to];
+
+        moveHistory[ply] = move;
+        keyHistory[ply] = key;
+        capturedHistory[ply] = captured;
+        castlingHistory[ply] = castling;
+        epHistory[ply] = epSquare;
+        halfmoveHistory[ply] = halfmoveClock;
+        ply++;
+
+        if (epSquare >= 0) {
+            key ^= Zobrist.EN_PASSANT_FILE[epSquare & 7];
+            epSquare = -1;
+        }
+
+        halfmoveClock++;
+
+        if (flag == Move.CASTLING) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = to > from ? from + 1 : from - 1;
+            move(moving, from, to);
+            move(piece(us, ROOK), rookFrom, rookTo);
+        } else {
+            if (captured != NO_PIECE) {
+                int capSq = flag == Move.EN_PASSANT ? to + (us == WHITE ? -8 : 8) : to;
+                remove(captured, capSq);
+                halfmoveClock = 0;
+            }
+            move(moving, from, to);
+            if (pieceType(moving) == PAWN) {
+                halfmoveClock = 0;
+                if (flag == Move.PROMOTION) {
+                    remove(moving, to);
+                    put(piece(us, Move.promotionType(move)), to);
+                } else if ((to ^ from) == 16) {
+                    int ep = (from + to) >>> 1;
+                    if ((Bitboards.pawnAttacks(us, ep) & pieces[them * 6 + PAWN]) != 0) {
+                        epSquare = ep;
+                        key ^= Zobrist.EN_PASSANT_FILE[ep & 7];
+                    }
+                }
+            }
+        }
+
+        int newCastling = castling & CASTLING_MASK[from] & CASTLING_MASK[to];
+        if (newCastling != castling) {
+            key ^= Zobrist.CASTLING[castling] ^ Zobrist.CASTLING[newCastling];
+            castling = newCastling;
+        }
+
+        if (us == BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove = them;
+        key ^= Zobrist.SIDE_TO_MOVE;
+    }
+
+    /**
+     * Take back the last move made with {@link #makeMove(int)}
+     */
+    public void unmakeMove() {
+        ply--;
+        int move = moveHistory[ply];
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flag = Move.flag(move);
+        int them = sideToMove;
+        int us = them ^ 1;
+
+        if (flag == Move.CASTLING) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = to > from ? from + 1 : from - 1;
+            move(piece(us, KING), to, from);
+            move(piece(us, ROOK), rookTo, rookFrom);
+        } else {
+            if (flag == Move.PROMOTION) {
+                remove(board[to], to);
+                put(piece(us, PAWN), to);
+            }
+            move(board[to], to, from);
+            int captured = capturedHistory[ply];
+            if (captured != NO_PIECE) {
+                int capSq = flag == Move.EN_PASSANT ? to + (us == WHITE ? -8 : 8) : to;
+                put(captured, capSq);
+            }
+        }
+
+        sideToMove = us;
+        if (us == BLACK) {
+            fullmoveNumber--;
+        }
+        castling = castlingHistory[ply];
+        epSquare = epHistory[ply];
+        halfmoveClock = halfmoveHistory[ply];
+        key = keyHistory[ply];
+    }
+
+    /**
+     * Pass the turn without moving (used by search pruning)
+     */
+    public void makeNullMove() {
+        ensureCapacity();
+        moveHistory[ply] = Move.NONE;
+        keyHistory[ply] = key;
+        capturedHistory[ply] = NO_PIECE;
+        castlingHistory[ply] = castling;
+        epHistory[ply] = epSquare;
+        halfmoveHistory[ply] = halfmoveClock;
+        ply++;
+        if (epSquare >= 0) {
+            key ^= Zobrist.EN_PASSANT_FILE[epSquare & 7];
+            epSquare = -1;
+        }
+        halfmoveClock++;
+        sideToMove ^= 1;
+        key ^= Zobrist.SIDE_TO_MOVE;
+    }
+
+    public void unmakeNullMove() {
+        ply--;
+        sideToMove ^= 1;
+        epSquare = epHistory[ply];
+        halfmoveClock = halfmoveHistory[ply];
+        key = keyHistory[ply];
+    }
+
+    /**
+     * True if the current position occurred before since the last irreversible move
+     */
+    public boolean isRepetition() {
+        int limit = Math.min(halfmoveClock, ply);
+        for (int back = 4; back <= limit; back += 2) {
+            if (keyHistory[ply - back] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Number of times the current position occurred since the last irreversible
+     * move, including the current occurrence
+     */
+    public int repetitionCount() {
+        int count = 1;
+        int limit = Math.min(halfmoveClock, ply);
+        for (int back = 4; back <= limit; back += 2) {
+            if (keyHistory[ply - back] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Neither side has enough material to deliver mate
+     */
+    public boolean isInsufficientMaterial() {
+        if ((pieces[PAWN] | pieces[6 + PAWN] | pieces[ROOK] | pieces[6 + ROOK]
+                | pieces[QUEEN] | pieces[6 + QUEEN]) != 0) {
+            return false;
+        }
+        long knights = pieces[KNIGHT] | pieces[6 + KNIGHT];
+        long bishops = pieces[BISHOP] | pieces[6 + BISHOP];
+        int minors = Long.bitCount(knights | bishops);
+        if (minors <= 1) {
+            return true;
+        }
+        // Only bishops, all on the same square color
+        long dark = 0xAA55AA55AA55AA55L;
+        return knights == 0 && ((bishops & dark) == 0 || (bishops & ~dark) == 0);
+    }
+
+    public Position copy() {
+        return new Position(toFen());
+    }
+
+    private void ensureCapacity() {
+        if (ply == moveHistory.length) {
+            int size = ply * 2;
+            moveHistory = Arrays.copyOf(moveHistory, size);
+            keyHistory = Arrays.copyOf(keyHistory, size);
+            capturedHistory = Arrays.copyOf(capturedHistory, size);
+            castlingHistory = Arrays.copyOf(castlingHistory, size);
+            epHistory = Arrays.copyOf(epHistory, size);
+            halfmoveHistory = Arrays.copyOf(halfmoveHistory, size);
+        }
+    }
+
+    private void put(int piece, int sq) {
+        long bit = 1L << sq;
+        pieces[piece] |= bit;
+        colors[piece / 6] |= bit;
+        occupied |= bit;
+        board[sq] = piece;
+        key ^= Zobrist.PIECE_SQUARE[piece][sq];
+    }
+
+    private void remove(int piece, int sq) {
+        long bit = 1L << sq;
+        pieces[piece] &= ~bit;
+        colors[piece / 6] &= ~bit;
+        occupied &= ~bit;
+        board[sq] = NO_PIECE;
+        key ^= Zobrist.PIECE_SQUARE[piece][sq];
+    }
+
+    private void move(int piece, int from, int to) {
+        long bits = (1L << from) | (1L << to);
+        pieces[piece] ^= bits;
+        colors[piece / 6] ^= bits;
+        occupied ^= bits;
+        board[from] = NO_PIECE;
+        board[to] = piece;
+        key ^= Zobrist.PIECE_SQUARE[piece][from] ^ Zobrist.PIECE_SQUARE[piece][to];
+    }
+}
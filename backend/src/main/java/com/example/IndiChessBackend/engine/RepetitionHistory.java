@@ -0,0 +1,136 @@
+package com.example.IndiChessBackend.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Zobrist keys of a game since its last irreversible move (capture, pawn move),
+ * with an open-addressed occurrence count per key so a repetition check costs
+ * O(1) per move instead of replaying or scanning the game.
+ * Not thread-safe; owned by one live game.
+ */
+public final class RepetitionHistory {
+
+    // Fifty-move rule ends the game after 100 reversible plies, so 128 slots suffice
+    private static final int TABLE_SIZE = 256;
+
+    private long[] keys = new long[128];
+    private int size;
+
+    private final long[] tableKeys = new long[TABLE_SIZE];
+    private final int[] tableCounts = new int[TABLE_SIZE];
+
+    /**
+     * Record the position reached by a move
+     *
+     * @param irreversible true if the move was a capture or pawn move, which
+     *                     makes every earlier position unreachable
+     * @return how many times this position has now occurred
+     */
+    public int push(long key, boolean irreversible) {
+        if (irreversible) {
+            clear();
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = key;
+        return increment(key);
+    }
+
+    /**
+     * Take back the last recorded position.
+     *
+     * @return false if nothing is left to take back
+     */
+    public boolean pop() {
+        if (size == 0) {
+            return false;
+        }
+        long key = keys[--size];
+        int slot = find(key);
+        if (slot >= 0) {
+            tableCounts[slot]--;
+        }
+        return size > 0;
+    }
+
+    /**
+     * Occurrences of the given position since the last irreversible move
+     */
+    public int count(long key) {
+        int slot = find(key);
+        return slot >= 0 ? tableCounts[slot] : 0;
+    }
+
+    /**
+     * Occurrences of the most recent position
+     */
+    public int currentCount() {
+        return size == 0 ? 0 : count(keys[size - 1]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        // Fixed-size table, so clearing is constant time as well
+        Arrays.fill(tableKeys, 0);
+        Arrays.fill(tableCounts, 0);
+        size = 0;
+    }
+
+    /**
+     * Compact form for persisting with the game row (8 bytes per key)
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(size * Long.BYTES);
+        for (int i = 0; i < size; i++) {
+            buffer.putLong(keys[i]);
+        }
+        return buffer.array();
+    }
+
+    public static RepetitionHistory fromBytes(byte[] bytes) {
+        RepetitionHistory history = new RepetitionHistory();
+        if (bytes != null) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.remaining() >= Long.BYTES) {
+                history.push(buffer.getLong(), false);
+            }
+        }
+        return history;
+    }
+
+    private int increment(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            // First free slot; popped keys leave reusable slots with a zero count
+            slot = slot(key);
+            while (tableCounts[slot] != 0) {
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            tableKeys[slot] = key;
+        }
+        return ++tableCounts[slot];
+    }
+
+    private int find(long key) {
+        int slot = slot(key);
+        for (int probes = 0; probes < TABLE_SIZE; probes++) {
+            if (tableCounts[slot] != 0 && tableKeys[slot] == key) {
+                return slot;
+            }
+            if (tableCounts[slot] == 0 && tableKeys[slot] == 0) {
+                return -1;
+            }
+            slot = (slot + 1) & (TABLE_SIZE - 1);
+        }
+        return -1;
+    }
+
+    private static int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & (TABLE_SIZE - 1);
+    }
+}
@@ -0,0 +1,400 @@
+package com.example.IndiChessBackend.engine;
+
+/**
+ * Iterative-deepening negamax alpha-beta search (principal variation search)
+ * with quiescence, null-move pruning and move ordering by transposition-table
+ * move, MVV-LVA, killer moves and history. All per-ply buffers are
+ * preallocated, so a search does not allocate once it is running.
+ * Not thread-safe: one instance per search thread; instances can be reused.
+ * Several instances may share one {@link TranspositionTable} (see
+ * {@link ParallelSearch}).
+ */
+public final class Search {
+
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    // Scores beyond this are forced mates
+    public static final int MATE_BOUND = MATE - 1000;
+    public static final int MAX_PLY = 128;
+    // Bitbase wins: above any evaluation, below mate scores
+    public static final int KNOWN_WIN = 20000;
+
+    private static final int TT_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 26;
+
+    private final MoveGenerator generator = BitboardMoveGenerator.INSTANCE;
+    private final TranspositionTable table;
+    // Shared stop signal of a group of searches; unlike stop(), not reset when a search starts
+    private final java.util.concurrent.atomic.AtomicBoolean cancelled;
+
+    private final int[][] moves = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+    private final int[][] scores = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[64][64];
+
+    private long nodes;
+    private long deadline;
+    private int rootDepth;
+    private int rootBestMove;
+    private volatile boolean stopped;
+    // Positions of the game before the root, if searching a game in progress
+    private RepetitionHistory gameHistory;
+
+    public Search(TranspositionTable table) {
+        this(table, null);
+    }
+
+    /**
+     * A search that also stops, within a thousand nodes, once cancelled is
+     * set, even if it is set before the search has started
+     */
+    public Search(TranspositionTable table, java.util.concurrent.atomic.AtomicBoolean cancelled) {
+        this.table = table;
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Search the position until maxDepth is reached or the time budget runs out.
+     * The first iteration always completes so a legal move is returned whenever
+     * one exists. The position is restored before returning.
+     */
+    public SearchResult search(Position pos, int maxDepth, long timeBudgetMillis) {
+        return search(pos, 1, maxDepth, timeBudgetMillis);
+    }
+
+    /**
+     * Same as {@link #search(Position, int, long)} but starting the iterations at
+     * startDepth; Lazy SMP helpers use it to stay out of step with the main thread.
+     */
+    public SearchResult search(Position pos, int startDepth, int maxDepth, long timeBudgetMillis) {
+        long start = System.currentTimeMillis();
+        deadline = start + Math.max(1, timeBudgetMillis);
+        nodes = 0;
+        stopped = false;
+        for (int[] pair : killers) {
+            pair[0] = Move.NONE;
+            pair[1] = Move.NONE;
+        }
+        for (int[] row : history) {
+            java.util.Arrays.fill(row, 0);
+        }
+
+        int bestMove = Move.NONE;
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = Math.max(1, Math.min(startDepth, maxDepth)); depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            rootDepth = depth;
+            rootBestMove = Move.NONE;
+            int score = negamax(pos, depth, -INFINITY, INFINITY, 0, true);
+            if (stopped && depth > 1) {
+                break;
+            }
+            // Tracked locally: another thread sharing the table may overwrite the root slot
+            if (rootBestMove != Move.NONE) {
+                bestMove = rootBestMove;
+            }
+            bestScore = score;
+            completedDepth = depth;
+            // A forced mate will not change with more depth
+            if (Math.abs(score) >= MATE_BOUND || System.currentTimeMillis() >= deadline) {
+                break;
+            }
+        }
+
+        if (bestMove == Move.NONE) {
+            // Only when the root had no legal move searched; any legal move beats none
+            int count = generator.generateLegalMoves(pos, moves[0]);
+            bestMove = count > 0 ? moves[0][0] : Move.NONE;
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Same as {@link #search(Position, int, long)} for a position reached in a
+     * game: a line back to a position that already occurred twice since the
+     * last irreversible move is scored as the threefold-repetition draw it
+     * would be. gameHistory is only read.
+     */
+    public SearchResult search(Position pos, RepetitionHistory gameHistory, int maxDepth, long timeBudgetMillis) {
+        this.gameHistory = gameHistory;
+        try {
+            return search(pos, 1, maxDepth, timeBudgetMillis);
+        } finally {
+            this.gameHistory = null;
+        }
+    }
+
+    /**
+     * Abort a running search from another thread
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    public long nodes() {
+        return nodes;
+    }
+
+    private int negamax(Position pos, int depth, int alpha, int beta, int ply, boolean allowNull) {
+        if ((++nodes & 1023) == 0) {
+            checkTime();
+        }
+        if (stopped && rootDepth > 1) {
+            return 0;
+        }
+
+        boolean root = ply == 0;
+        if (!root) {
+            if (pos.halfmoveClock() >= 100 || pos.isRepetition() || repeatsGame(pos)
+                    || pos.isInsufficientMaterial()) {
+                return 0;
+            }
+            // Mate distance pruning
+            alpha = Math.max(alpha, -MATE + ply);
+            beta = Math.min(beta, MATE - ply - 1);
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+
+        boolean inCheck = pos.inCheck();
+        if (!root && !inCheck) {
+            int known = EndgameBitbases.installed().probe(pos);
+            if (known == EndgameBitbases.WIN) {
+                return KNOWN_WIN - ply;
+            } else if (known == EndgameBitbases.LOSS) {
+                return -KNOWN_WIN + ply;
+            } else if (known == EndgameBitbases.DRAW) {
+                return 0;
+            }
+        }
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiesce(pos, alpha, beta, ply);
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        long entry = table.probe(pos.key());
+        int ttMove = Move.NONE;
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (!root && !pvNode && TranspositionTable.depth(entry) >= depth) {
+                int ttScore = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && ttScore >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && ttScore <= alpha)) {
+                    return ttScore;
+                }
+            }
+        }
+
+        // Null move: if passing still fails high, the position is good enough
+        if (allowNull && !pvNode && !inCheck && depth >= 3 && Math.abs(beta) < MATE_BOUND
+                && Evaluation.hasNonPawnMaterial(pos) && Evaluation.evaluate(pos) >= beta) {
+            pos.makeNullMove();
+            int score = -negamax(pos, depth - 3, -beta, -beta + 1, ply + 1, false);
+            pos.unmakeNullMove();
+            if (stopped && rootDepth > 1) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE_BOUND ? beta : score;
+            }
+        }
+
+        int[] list = moves[ply];
+        int count = generator.generateLegalMoves(pos, list);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(pos, list, scores[ply], count, ttMove, ply);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(list, scores[ply], i, count);
+            boolean quiet = isQuiet(pos, move);
+
+            pos.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -negamax(pos, depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                score = -negamax(pos, depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                if (score > alpha && score < beta) {
+                    score = -negamax(pos, depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            pos.unmakeMove();
+
+            if (stopped && rootDepth > 1) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (root) {
+                    rootBestMove = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            if (killers[ply][0] != move) {
+                                killers[ply][1] = killers[ply][0];
+                                killers[ply][0] = move;
+                            }
+                            history[Move.from(move)][Move.to(move)] += depth * depth;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT
+                        : TranspositionTable.BOUND_UPPER;
+        table.store(pos.key(), bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    private int quiesce(Position pos, int alpha, int beta, int ply) {
+        if ((++nodes & 1023) == 0) {
+            checkTime();
+        }
+        if (stopped && rootDepth > 1) {
+            return 0;
+        }
+
+        boolean inCheck = pos.inCheck();
+        int[] list = moves[ply];
+        int count;
+        if (inCheck) {
+            // Every evasion must be considered, there is no stand-pat in check
+            count = generator.generateLegalMoves(pos, list);
+            if (count == 0) {
+                return -MATE + ply;
+            }
+        } else {
+            int standPat = Evaluation.evaluate(pos);
+            if (standPat >= beta || ply >= MAX_PLY) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+            count = generator.generateLegalCaptures(pos, list);
+        }
+        if (ply >= MAX_PLY) {
+            return Evaluation.evaluate(pos);
+        }
+
+        scoreMoves(pos, list, scores[ply], count, Move.NONE, ply);
+        int best = inCheck ? -INFINITY : alpha;
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(list, scores[ply], i, count);
+            pos.makeMove(move);
+            int score = -quiesce(pos, -beta, -alpha, ply + 1);
+            pos.unmakeMove();
+            if (stopped && rootDepth > 1) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private void scoreMoves(Position pos, int[] list, int[] out, int count, int ttMove, int ply) {
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            if (move == ttMove) {
+                out[i] = TT_MOVE_SCORE;
+                continue;
+            }
+            int victim = pos.pieceAt(Move.to(move));
+            if (victim != Position.NO_PIECE || Move.flag(move) == Move.EN_PASSANT
+                    || Move.flag(move) == Move.PROMOTION) {
+                // MVV-LVA: most valuable victim first, cheapest attacker breaks ties
+                int victimValue = victim != Position.NO_PIECE ? Evaluation.PIECE_VALUES[Position.pieceType(victim)]
+                        : Evaluation.PIECE_VALUES[Position.PAWN];
+                if (Move.flag(move) == Move.PROMOTION) {
+                    victimValue += Evaluation.PIECE_VALUES[Move.promotionType(move)];
+                }
+                int attacker = Position.pieceType(pos.pieceAt(Move.from(move)));
+                out[i] = CAPTURE_SCORE + victimValue * 8 - attacker;
+            } else if (move == killers[ply][0]) {
+                out[i] = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                out[i] = KILLER_SCORE;
+            } else {
+                out[i] = Math.min(history[Move.from(move)][Move.to(move)], KILLER_SCORE - 1);
+            }
+        }
+    }
+
+    // Selection sort step: bring the best remaining move to index i
+    private static int pickNext(int[] list, int[] scoreList, int i, int count) {
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (scoreList[j] > scoreList[best]) {
+                best = j;
+            }
+        }
+        int move = list[best];
+        list[best] = list[i];
+        list[i] = move;
+        int score = scoreList[best];
+        scoreList[best] = scoreList[i];
+        scoreList[i] = score;
+        return move;
+    }
+
+    private static boolean isQuiet(Position pos, int move) {
+        return pos.pieceAt(Move.to(move)) == Position.NO_PIECE && Move.flag(move) != Move.EN_PASSANT
+                && Move.flag(move) != Move.PROMOTION;
+    }
+
+    // Third occurrence, counting the game's positions before the root
+    private boolean repeatsGame(Position pos) {
+        return gameHistory != null && gameHistory.count(pos.key()) >= 2;
+    }
+
+    private void checkTime() {
+        if (System.currentTimeMillis() >= deadline || (cancelled != null && cancelled.get())) {
+            stopped = true;
+        }
+    }
+
+    // Mate scores are stored relative to the node, not the root
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.IndiChessBackend.engine;
+
+/**
+ * Outcome of a search: best move, its score and how much work it took
+ */
+public final class SearchResult {
+
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Centipawns from the side to move's point of view; mate scores are
+     * beyond {@link Search#MATE_BOUND}
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Deepest fully completed iteration
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return timeMillis > 0 ? nodes * 1000 / timeMillis : nodes;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.IndiChessBackend.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, direct-mapped transposition table that can be shared by any
+ * number of search threads without locks.
+ * Each slot is two atomic longs: the data word and the Zobrist key XOR-ed with
+ * the data. A reader only accepts a slot whose two words XOR back to its key,
+ * so a slot torn by concurrent writers reads as a miss instead of returning
+ * another position's data.
+ * Data word: move (16 bits) | score + 32768 (16) | depth (8) | bound (2).
+ */
+public final class TranspositionTable {
+
+    public static final int BOUND_NONE = 0;
+    public static final int BOUND_UPPER = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_EXACT = 3;
+
+    // [2 * i] = key ^ data, [2 * i + 1] = data
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    public TranspositionTable(int megabytes) {
+        long entries = Math.max(1024, (long) megabytes * 1024 * 1024 / 16);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 29));
+        this.slots = new AtomicLongArray(size * 2);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Packed data for the key, or 0 if the position is not stored
+     */
+    public long probe(long key) {
+        int index = ((int) key & mask) << 1;
+        long data = slots.getOpaque(index + 1);
+        long check = slots.getOpaque(index);
+        return (check ^ data) == key ? data : 0;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = ((int) key & mask) << 1;
+        long existing = slots.getOpaque(index + 1);
+        if ((slots.getOpaque(index) ^ existing) == key && existing != 0) {
+            // Keep the deeper result unless the new one is exact
+            if (bound != BOUND_EXACT && depth < depth(existing)) {
+                return;
+            }
+            if (move == Move.NONE) {
+                move = move(existing);
+            }
+        }
+        long data = pack(move, score, depth, bound);
+        slots.setOpaque(index + 1, data);
+        slots.setOpaque(index, key ^ data);
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.setOpaque(i, 0);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    static long pack(int move, int score, int depth, int bound) {
+        return (move & 0xFFFFL)
+                | ((long) (score + 32768) & 0xFFFFL) << 16
+                | ((long) Math.max(0, Math.min(depth, 255))) << 32
+                | ((long) bound) << 40;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (int) ((data >>> 16) & 0xFFFF) - 32768;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 0x3);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.IndiChessBackend.engine;
+
+/**
+ * 64-bit Zobrist keys used to hash positions.
+ * Generated from a fixed seed so keys are stable across restarts and nodes.
+ */
+public final class Zobrist {
+
+    // [piece][square]
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    // Indexed by the 4-bit castling rights mask
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT_FILE = new long[8];
+    static final long SIDE_TO_MOVE;
+
+    static {
+        long state = 0x5EED5EED0BADC0DEL;
+        for (int piece = 0; piece < 12; piece++) {
+            for (int sq = 0; sq < 64; sq++) {
+                state += 0x9E3779B97F4A7C15L;
+                PIECE_SQUARE[piece][sq] = mix(state);
+            }
+        }
+        long[] rights = new long[4];
+        for (int i = 0; i < 4; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            rights[i] = mix(state);
+        }
+        // Combined rights hash as the XOR of their individual keys
+        for (int mask = 0; mask < 16; mask++) {
+            for (int i = 0; i < 4; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    CASTLING[mask] ^= rights[i];
+                }
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_FILE[file] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        SIDE_TO_MOVE = mix(state);
+    }
+
+    private Zobrist() {
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
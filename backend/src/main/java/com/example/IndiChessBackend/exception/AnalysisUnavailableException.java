@@ -0,0 +1,12 @@
+package com.example.IndiChessBackend.exception;
+
+/**
+ * Exception thrown when the engine analysis pool is full and a search
+ * cannot be queued
+ */
+public class AnalysisUnavailableException extends CustomException {
+
+    public AnalysisUnavailableException(String message) {
+        super(message);
+    }
+}
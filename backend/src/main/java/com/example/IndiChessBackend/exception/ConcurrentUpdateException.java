@@ -0,0 +1,12 @@
+package com.example.IndiChessBackend.exception;
+
+/**
+ * Exception thrown when a game kept changing under an operation (e.g., another
+ * server node wrote the same game row) and the retry budget ran out
+ */
+public class ConcurrentUpdateException extends CustomException {
+
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
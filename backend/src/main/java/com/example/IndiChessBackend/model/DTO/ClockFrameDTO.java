@@ -0,0 +1,19 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Periodic clock sync sent on /topic/game/{id} between moves, so clients
+ * can correct their local countdowns
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClockFrameDTO {
+    private String type; // "CLOCK"
+    private String currentTurn; // Side whose clock is running
+    private long whiteClockMillis; // As of the moment the frame was built
+    private long blackClockMillis;
+}
@@ -1,20 +1,63 @@
 package com.example.IndiChessBackend.model.DTO;
 
+import com.example.IndiChessBackend.engine.Move;
+import com.example.IndiChessBackend.engine.MoveList;
+import com.example.IndiChessBackend.model.Game;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class GameStateDTO {
-    private String type; // "MOVE", "GAME_OVER", "ERROR"
+    private String type; // "MOVE", "SYNC", "GAME_OVER", "ERROR"
     private String fen;
-    private String pgn;
+    private String pgn; // Space-separated UCI moves of the whole game; PGN with tags is at /game/{id}/pgn
     private String currentTurn; // "WHITE", "BLACK"
-    private String lastMove; // "e4", "Nf3"
+    private String lastMove; // UCI, e.g. "e2e4"
     private Long whiteTimeLeft;
     private Long blackTimeLeft;
+    private Long whiteClockMillis; // Same clocks to the millisecond
+    private Long blackClockMillis;
+    private Long lagCreditMillis; // Network delay given back to the mover of this step
     private String status;
     private String message;
+    private String openingEco; // e.g. "C60"
+    private String openingName; // e.g. "Ruy Lopez"
+    private LegalMovesDTO legalMoves; // null once the game is over
+    private List<String> moves; // UCI moves applied in this step, oldest first (a move and a premove reply)
+
+    public static GameStateDTO of(String type, Game game) {
+        int last = MoveList.last(game.getMoves());
+        return new GameStateDTO(
+                type,
+                game.getFen(),
+                game.getPgn(),
+                game.getCurrentTurn(),
+                last != Move.NONE ? Move.toUci(last) : null,
+                game.getWhiteTimeRemaining(),
+                game.getBlackTimeRemaining(),
+                game.getWhiteClockMillis(),
+                game.getBlackClockMillis(),
+                game.getLagCreditMillis(),
+                game.getStatus().toString(),
+                game.getStatusMessage(),
+                game.getOpeningEco(),
+                game.getOpeningName(),
+                game.getLegalMoves(),
+                lastMoves(game.getMoves(), game.getLastMoveCount()));
+    }
+
+    private static List<String> lastMoves(byte[] moves, int count) {
+        int total = moves != null ? moves.length / 2 : 0;
+        List<String> batch = new ArrayList<>();
+        for (int i = Math.max(0, total - count); i < total; i++) {
+            batch.add(Move.toUci(MoveList.decode(moves, i)));
+        }
+        return batch;
+    }
 }
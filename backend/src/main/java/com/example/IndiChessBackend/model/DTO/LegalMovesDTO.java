@@ -0,0 +1,41 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import com.example.IndiChessBackend.engine.Move;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Legal moves of the side to move as bitboards (a1 = bit 0, h8 = bit 63),
+ * written as 16-digit hex strings because JSON numbers lose bits past 2^53.
+ * from has a bit for every square with a legal move; to holds the
+ * destination bitboard of each of those squares, in ascending square order.
+ * Promotions are implied by a pawn reaching the last rank.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LegalMovesDTO {
+    private String from;
+    private String[] to;
+
+    public static LegalMovesDTO of(int[] moves) {
+        long fromMask = 0;
+        long[] destinations = new long[64];
+        for (int move : moves) {
+            fromMask |= 1L << Move.from(move);
+            destinations[Move.from(move)] |= 1L << Move.to(move);
+        }
+        String[] to = new String[Long.bitCount(fromMask)];
+        int i = 0;
+        for (long squares = fromMask; squares != 0; squares &= squares - 1) {
+            to[i++] = hex(destinations[Long.numberOfTrailingZeros(squares)]);
+        }
+        return new LegalMovesDTO(hex(fromMask), to);
+    }
+
+    private static String hex(long bitboard) {
+        String digits = Long.toHexString(bitboard);
+        return "0".repeat(16 - digits.length()) + digits;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import com.example.IndiChessBackend.model.TimeControl;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RatingDTO {
+    private TimeControl timeControl;
+    private int rating;
+    private int deviation;
+    private double volatility;
+    private int gamesPlayed;
+}
@@ -1,5 +1,7 @@
 package com.example.IndiChessBackend.model;
 
+import com.example.IndiChessBackend.engine.MoveList;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -25,8 +27,19 @@ public class Game {
 
     private String fen; // Board state
 
+    // Move history: 16-bit encoded moves, 2 bytes each, set only by the live-state
+    // write (see GameRepoCustom.writeLiveStates). MySQL rewrites a BLOB whole, so
+    // every write still costs the full list, though at two bytes a ply; the
+    // append-only record of the plies is the game_moves table
+    @Column(name = "moves", columnDefinition = "BLOB", updatable = false)
+    @JsonIgnore
+    private byte[] moves;
+
+    // Space-separated UCI moves of games stored before the binary move list
     @Lob
-    private String pgn; // Move history
+    @Column(name = "pgn", insertable = false, updatable = false)
+    @JsonIgnore
+    private String legacyPgn;
 
     @Enumerated(EnumType.STRING)
     private GameStatus status;
@@ -37,10 +50,78 @@ public class Game {
     @Column(name = "time_control")
     private TimeControl timeControl; // STANDARD, RAPID, BLITZ
 
-    private Long whiteTimeRemaining; // Seconds
+    private Long whiteTimeRemaining; // Seconds, rounded down from the millisecond clock
     private Long blackTimeRemaining; // Seconds
+    // Rows from before the millisecond clocks only have the seconds columns
+    private Long whiteClockMillis;
+    private Long blackClockMillis;
     private Long lastMoveTime; // Timestamp in millis
 
     private String statusMessage; // e.g. "White Wins by Checkmate"
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private GameResult result; // Set with COMPLETED; null while the game runs
+
     private String previousFen; // For single-step Undo
+
+    // Zobrist keys since the last capture or pawn move, 8 bytes each
+    @Column(name = "repetition_keys", columnDefinition = "VARBINARY(2048)")
+    private byte[] repetitionKeys;
+
+    // Deepest named opening the game has passed through
+    @Column(length = 3)
+    private String openingEco;
+    private String openingName;
+
+    // Optimistic lock: a write based on an older row fails instead of overwriting it
+    @Version
+    @JsonIgnore
+    private long version;
+
+    // Legal moves of the side to move, sent with every state; not stored
+    @Transient
+    private com.example.IndiChessBackend.model.DTO.LegalMovesDTO legalMoves;
+
+    // Plies applied by the request that produced this state: 2 when a premove answered at once
+    @Transient
+    @JsonIgnore
+    private int lastMoveCount;
+
+    // Network lag credited back to the clock of the last move; not stored
+    @Transient
+    @JsonIgnore
+    private long lagCreditMillis;
+
+    /**
+     * Remaining time of one side in milliseconds, falling back to the seconds column
+     */
+    public long getClockMillis(boolean white) {
+        Long millis = white ? whiteClockMillis : blackClockMillis;
+        if (millis != null) {
+            return millis;
+        }
+        Long seconds = white ? whiteTimeRemaining : blackTimeRemaining;
+        return seconds != null ? seconds * 1000 : 0;
+    }
+
+    /**
+     * Set one side's clock, keeping the seconds column in step
+     */
+    public void setClockMillis(boolean white, long millis) {
+        if (white) {
+            whiteClockMillis = millis;
+            whiteTimeRemaining = millis / 1000;
+        } else {
+            blackClockMillis = millis;
+            blackTimeRemaining = millis / 1000;
+        }
+    }
+
+    /**
+     * Space-separated UCI move history, built on demand from the binary list
+     */
+    public String getPgn() {
+        return moves != null || legacyPgn == null ? MoveList.toUci(moves) : legacyPgn;
+    }
 }
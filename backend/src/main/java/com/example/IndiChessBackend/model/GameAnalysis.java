@@ -0,0 +1,44 @@
+package com.example.IndiChessBackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Post-game engine analysis, one row per game
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "game_analysis")
+public class GameAnalysis {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "game_id", unique = true, nullable = false)
+    private Long gameId;
+
+    private int depth; // Search depth per position
+
+    private double whiteAccuracy; // 0-100
+    private double blackAccuracy;
+    private int whiteBlunders;
+    private int blackBlunders;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "game_analysis_moves", joinColumns = @JoinColumn(name = "analysis_id"))
+    @OrderBy("ply")
+    private List<MoveEvaluation> moves = new ArrayList<>();
+
+    @UpdateTimestamp
+    @Column(name = "analyzed_at")
+    private LocalDateTime analyzedAt;
+}
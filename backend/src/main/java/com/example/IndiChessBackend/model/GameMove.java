@@ -0,0 +1,48 @@
+package com.example.IndiChessBackend.model;
+
+import com.example.IndiChessBackend.engine.Move;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One ply of a game in the append-only game_moves table, with the mover's
+ * clock after the move and when it was played. The primary key (game_id, ply)
+ * is the index for "moves since ply N" reads.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "game_moves")
+@IdClass(GameMove.Key.class)
+public class GameMove {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long gameId;
+        private int ply;
+    }
+
+    @Id
+    @Column(name = "game_id")
+    private Long gameId;
+
+    @Id
+    private int ply; // 0 = White's first move
+
+    private int move; // 16-bit engine encoding
+
+    private Long clockMillis; // Mover's remaining time after the move and increment
+
+    private long playedAt; // Epoch millis
+
+    public String getUci() {
+        return Move.toUci(move);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.IndiChessBackend.model;
+
+/**
+ * Final result of a completed game, stored with it so statistics and ratings
+ * never have to interpret the status message
+ */
+public enum GameResult {
+    WHITE_WINS,
+    BLACK_WINS,
+    DRAW
+}
@@ -0,0 +1,31 @@
+package com.example.IndiChessBackend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Engine verdict on one ply of a finished game
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveEvaluation {
+
+    private int ply; // 1 = White's first move
+
+    @Column(length = 5)
+    private String move; // UCI, as played
+
+    @Column(length = 5)
+    private String bestMove; // UCI, engine's choice
+
+    private int score; // Centipawns from White's side after the move, mates clamped
+
+    private int centipawnLoss;
+
+    private boolean blunder;
+}
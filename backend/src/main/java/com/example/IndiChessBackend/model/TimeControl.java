@@ -30,6 +30,13 @@ public enum TimeControl {
         return description;
     }
 
+    /**
+     * False for STANDARD, which has no clock to run out
+     */
+    public boolean isTimed() {
+        return initialTimeSeconds > 0;
+    }
+
     /**
      * Get TimeControl from string (case-insensitive)
      */
@@ -0,0 +1,47 @@
+package com.example.IndiChessBackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Glicko-2 rating of a user in one time control. updatedAt is when the row
+ * last went through a rating period: a rated game, or a period without games.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_ratings", indexes = @Index(name = "idx_user_ratings_time_control",
+        columnList = "time_control, user_id"))
+@IdClass(UserRating.Key.class)
+public class UserRating {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private TimeControl timeControl;
+    }
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "time_control", length = 10)
+    private TimeControl timeControl;
+
+    private double rating;
+    private double deviation;
+    private double volatility;
+    private int gamesPlayed;
+
+    @Column(name = "updated_at")
+    private long updatedAt; // Epoch millis
+}
@@ -0,0 +1,26 @@
+package com.example.IndiChessBackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running totals of a user's finished games, one row per user, incremented
+ * in the transaction that writes each game's final state
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_stats")
+public class UserStats {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private int gamesPlayed;
+    private int wins;
+    private int losses;
+    private int draws;
+}
@@ -0,0 +1,11 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.GameAnalysis;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GameAnalysisRepo extends JpaRepository<GameAnalysis, Long> {
+    Optional<GameAnalysis> findByGameId(Long gameId);
+}
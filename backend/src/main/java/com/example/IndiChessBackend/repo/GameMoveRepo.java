@@ -0,0 +1,12 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.GameMove;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GameMoveRepo extends JpaRepository<GameMove, GameMove.Key> {
+    // Tail read for reconnecting clients; a range scan on the primary key
+    List<GameMove> findByGameIdAndPlyGreaterThanEqualOrderByPly(Long gameId, int ply);
+}
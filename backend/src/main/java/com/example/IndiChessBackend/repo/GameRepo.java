@@ -1,12 +1,48 @@
 package com.example.IndiChessBackend.repo;
 
 import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameStatus;
+import com.example.IndiChessBackend.model.TimeControl;
 import com.example.IndiChessBackend.model.User;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface GameRepo extends JpaRepository<Game, Long> {
+public interface GameRepo extends JpaRepository<Game, Long>, GameRepoCustom {
     List<Game> findByWhitePlayerOrBlackPlayer(User whitePlayer, User blackPlayer);
+
+    // Classify games finished before the result column existed, from their status message
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE games SET result = CASE "
+            + "WHEN LOWER(status_message) LIKE '%draw%' OR LOWER(status_message) LIKE '%stalemate%' THEN 'DRAW' "
+            + "WHEN LOWER(status_message) LIKE '%white wins%' THEN 'WHITE_WINS' "
+            + "WHEN LOWER(status_message) LIKE '%black wins%' THEN 'BLACK_WINS' "
+            + "END WHERE result IS NULL AND status IN ('COMPLETED', 'FINISHED')", nativeQuery = true)
+    int classifyLegacyResults();
+
+    // Newest first, for post-game analysis backfill
+    @Query("SELECT g.id FROM Game g WHERE g.status IN :statuses "
+            + "AND NOT EXISTS (SELECT a.id FROM GameAnalysis a WHERE a.gameId = g.id) ORDER BY g.id DESC")
+    List<Long> findUnanalyzedGameIds(@Param("statuses") Collection<GameStatus> statuses, Pageable pageable);
+
+    // Running clocks to re-arm after a restart: id, currentTurn, white and black millis, lastMoveTime
+    @Query("SELECT g.id, g.currentTurn, COALESCE(g.whiteClockMillis, g.whiteTimeRemaining * 1000), "
+            + "COALESCE(g.blackClockMillis, g.blackTimeRemaining * 1000), g.lastMoveTime FROM Game g "
+            + "WHERE g.status = :status AND g.timeControl IN :timeControls AND g.lastMoveTime IS NOT NULL")
+    List<Object[]> findClocks(@Param("status") GameStatus status,
+            @Param("timeControls") Collection<TimeControl> timeControls);
+
+    // Moves of a game that is not resident; live games write them with writeLiveStates
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE games SET moves = :bytes WHERE id = :id", nativeQuery = true)
+    int replaceMoves(@Param("id") Long id, @Param("bytes") byte[] bytes);
 }
@@ -0,0 +1,23 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.Game;
+
+import java.util.List;
+
+public interface GameRepoCustom {
+
+    /**
+     * Insert games that start now as one JDBC batch (games use IDENTITY ids,
+     * which Hibernate never batches) and set their generated ids, in order.
+     * Only the columns a game has at its start are written.
+     */
+    void insertGames(List<Game> games);
+
+    /**
+     * Write the state of many live games as one JDBC batch in one transaction,
+     * followed by one batch insert of their new game_moves rows.
+     * Returns the update count per write, in order; 0 means the row's version
+     * had moved on (another writer got there first) and nothing was written.
+     */
+    int[] writeLiveStates(List<GameStateWrite> writes);
+}
@@ -0,0 +1,134 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameMove;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class GameRepoCustomImpl implements GameRepoCustom {
+
+    // Only the columns a live game changes; players and time control are fixed once it starts.
+    // moves keeps its stored prefix and adds the new plies, but MySQL still writes the whole
+    // BLOB value back; game_moves is where plies are only ever appended
+    private static final String UPDATE_LIVE_STATE = "UPDATE games SET fen = ?, status = ?, current_turn = ?, "
+            + "white_time_remaining = ?, black_time_remaining = ?, white_clock_millis = ?, black_clock_millis = ?, "
+            + "last_move_time = ?, status_message = ?, result = ?, previous_fen = ?, repetition_keys = ?, "
+            + "opening_eco = ?, opening_name = ?, "
+            + "moves = CONCAT(SUBSTRING(COALESCE(moves, ''), 1, ?), ?), version = version + 1 "
+            + "WHERE id = ? AND version = ?";
+
+    private static final String INSERT_GAME = "INSERT INTO games (white_player_id, black_player_id, fen, status, "
+            + "current_turn, time_control, white_time_remaining, black_time_remaining, white_clock_millis, "
+            + "black_clock_millis, last_move_time, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String DELETE_MOVES_FROM = "DELETE FROM game_moves WHERE game_id = ? AND ply >= ?";
+
+    private static final String INSERT_MOVE = "INSERT INTO game_moves (game_id, ply, move, clock_millis, played_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void insertGames(List<Game> games) {
+        if (games.isEmpty()) {
+            return;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_GAME, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Game game = games.get(i);
+                        ps.setObject(1, game.getWhitePlayer() != null ? game.getWhitePlayer().getUserId() : null);
+                        ps.setObject(2, game.getBlackPlayer() != null ? game.getBlackPlayer().getUserId() : null);
+                        ps.setString(3, game.getFen());
+                        ps.setString(4, game.getStatus() != null ? game.getStatus().name() : null);
+                        ps.setString(5, game.getCurrentTurn());
+                        ps.setString(6, game.getTimeControl() != null ? game.getTimeControl().name() : null);
+                        ps.setObject(7, game.getWhiteTimeRemaining());
+                        ps.setObject(8, game.getBlackTimeRemaining());
+                        ps.setObject(9, game.getWhiteClockMillis());
+                        ps.setObject(10, game.getBlackClockMillis());
+                        ps.setObject(11, game.getLastMoveTime());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return games.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != games.size()) {
+            throw new IllegalStateException("Expected " + games.size() + " game ids, got " + generated.size());
+        }
+        for (int i = 0; i < games.size(); i++) {
+            games.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    @Override
+    @Transactional
+    public int[] writeLiveStates(List<GameStateWrite> writes) {
+        List<Object[]> rows = new ArrayList<>(writes.size());
+        for (GameStateWrite write : writes) {
+            Game game = write.snapshot();
+            rows.add(new Object[] {
+                    game.getFen(),
+                    game.getStatus() != null ? game.getStatus().name() : null,
+                    game.getCurrentTurn(),
+                    game.getWhiteTimeRemaining(),
+                    game.getBlackTimeRemaining(),
+                    game.getWhiteClockMillis(),
+                    game.getBlackClockMillis(),
+                    game.getLastMoveTime(),
+                    game.getStatusMessage(),
+                    game.getResult() != null ? game.getResult().name() : null,
+                    game.getPreviousFen(),
+                    game.getRepetitionKeys(),
+                    game.getOpeningEco(),
+                    game.getOpeningName(),
+                    write.keepMoveBytes(),
+                    write.appendedMoves(),
+                    game.getId(),
+                    write.expectedVersion() });
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_LIVE_STATE, rows);
+
+        // Only for games whose state was written; a conflicting game keeps its row as the other writer left it
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < writes.size(); i++) {
+            GameStateWrite write = writes.get(i);
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (write.rewound()) {
+                deletes.add(new Object[] { write.snapshot().getId(), write.keepMoveBytes() / 2 });
+            }
+            for (GameMove move : write.newMoves()) {
+                inserts.add(new Object[] { move.getGameId(), move.getPly(), move.getMove(), move.getClockMillis(),
+                        move.getPlayedAt() });
+            }
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_MOVES_FROM, deletes);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MOVE, inserts);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameMove;
+
+import java.util.List;
+
+/**
+ * One live game's pending state for a batched write: the row must still be at
+ * expectedVersion, and its moves column keeps its first keepMoveBytes bytes
+ * followed by appendedMoves (an append after moves, a truncation after undo).
+ * newMoves are the game_moves rows for the appended plies; when rewound, rows
+ * from ply keepMoveBytes / 2 on are deleted first.
+ */
+public record GameStateWrite(Game snapshot, long expectedVersion, int keepMoveBytes, byte[] appendedMoves,
+        boolean rewound, List<GameMove> newMoves) {
+}
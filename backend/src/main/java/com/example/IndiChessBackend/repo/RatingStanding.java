@@ -0,0 +1,9 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.TimeControl;
+
+/**
+ * A user's rating in one time control as the leaderboard shows it
+ */
+public record RatingStanding(Long userId, String username, TimeControl timeControl, double rating, long updatedAt) {
+}
@@ -0,0 +1,22 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.UserRating;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserRatingRepo extends JpaRepository<UserRating, UserRating.Key>, UserRatingRepoCustom {
+
+    List<UserRating> findByUserId(Long userId);
+
+    // Row locks in primary-key order, so two writers rating the same players cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM UserRating r WHERE r.userId IN :userIds ORDER BY r.userId, r.timeControl")
+    List<UserRating> lockByUserIds(@Param("userIds") Collection<Long> userIds);
+}
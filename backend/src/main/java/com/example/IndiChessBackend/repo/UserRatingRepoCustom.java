@@ -0,0 +1,28 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.UserRating;
+
+import java.util.List;
+
+public interface UserRatingRepoCustom {
+
+    /**
+     * Keyset page of ratings in one time control with no rating period since
+     * idleSince and a deviation still below maxDeviation, ordered by user id
+     */
+    List<UserRating> findIdle(TimeControl timeControl, long afterUserId, long idleSince, double maxDeviation,
+            int limit);
+
+    /**
+     * Store the new deviations of ratings read by {@link #findIdle} as one
+     * JDBC batch and stamp them with periodAt. A row rated by a game since it
+     * was read is left alone and counts 0.
+     */
+    int[] closeIdlePeriods(List<UserRating> ratings, long periodAt);
+
+    /**
+     * Keyset page of the standings in one time control, ordered by user id
+     */
+    List<RatingStanding> findStandings(TimeControl timeControl, long afterUserId, int limit);
+}
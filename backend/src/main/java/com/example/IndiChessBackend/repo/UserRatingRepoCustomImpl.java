@@ -0,0 +1,51 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.UserRating;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class UserRatingRepoCustomImpl implements UserRatingRepoCustom {
+
+    // Range scan on idx_user_ratings_time_control; rows already at the deviation cap have nothing to close
+    private static final String FIND_IDLE = "SELECT user_id, rating, deviation, volatility, games_played, updated_at "
+            + "FROM user_ratings WHERE time_control = ? AND user_id > ? AND updated_at < ? AND deviation < ? "
+            + "ORDER BY user_id LIMIT ?";
+
+    private static final String CLOSE_IDLE_PERIOD = "UPDATE user_ratings SET deviation = ?, updated_at = ? "
+            + "WHERE user_id = ? AND time_control = ? AND updated_at = ?";
+
+    private static final String FIND_STANDINGS = "SELECT r.user_id, u.user_name, r.rating, r.updated_at "
+            + "FROM user_ratings r JOIN users u ON u.user_id = r.user_id "
+            + "WHERE r.time_control = ? AND r.user_id > ? ORDER BY r.user_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<UserRating> findIdle(TimeControl timeControl, long afterUserId, long idleSince, double maxDeviation,
+            int limit) {
+        return jdbcTemplate.query(FIND_IDLE, (rs, i) -> new UserRating(rs.getLong(1), timeControl, rs.getDouble(2),
+                rs.getDouble(3), rs.getDouble(4), rs.getInt(5), rs.getLong(6)),
+                timeControl.name(), afterUserId, idleSince, maxDeviation, limit);
+    }
+
+    @Override
+    public int[] closeIdlePeriods(List<UserRating> ratings, long periodAt) {
+        List<Object[]> rows = new ArrayList<>(ratings.size());
+        for (UserRating rating : ratings) {
+            rows.add(new Object[] { rating.getDeviation(), periodAt, rating.getUserId(),
+                    rating.getTimeControl().name(), rating.getUpdatedAt() });
+        }
+        return jdbcTemplate.batchUpdate(CLOSE_IDLE_PERIOD, rows);
+    }
+
+    @Override
+    public List<RatingStanding> findStandings(TimeControl timeControl, long afterUserId, int limit) {
+        return jdbcTemplate.query(FIND_STANDINGS, (rs, i) -> new RatingStanding(rs.getLong(1), rs.getString(2),
+                timeControl, rs.getDouble(3), rs.getLong(4)), timeControl.name(), afterUserId, limit);
+    }
+}
@@ -4,6 +4,8 @@ import com.example.IndiChessBackend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +16,6 @@ public interface UserRepo extends JpaRepository<User, Long> {
     Optional<User> getUserByUsername(String username);
 
     Optional<User> findByEmailId(String emailId);
-}
\ No newline at end of file
+
+    List<User> findByUsernameIn(Collection<String> usernames);
+}
@@ -0,0 +1,38 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.UserStats;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserStatsRepo extends JpaRepository<UserStats, Long> {
+
+    // Unique-index lookup of the user, then a primary-key read of the stats
+    @Query("SELECT s FROM UserStats s, User u WHERE u.username = :username AND s.userId = u.userId")
+    Optional<UserStats> findByUsername(@Param("username") String username);
+
+    // Atomic increment; creates the row on a user's first finished game
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, games_played, wins, losses, draws) "
+            + "VALUES (:userId, 1, :wins, :losses, :draws) ON DUPLICATE KEY UPDATE "
+            + "games_played = games_played + 1, wins = wins + :wins, losses = losses + :losses, "
+            + "draws = draws + :draws", nativeQuery = true)
+    int addResult(@Param("userId") Long userId, @Param("wins") int wins, @Param("losses") int losses,
+            @Param("draws") int draws);
+
+    // One-time fill from games finished before the table existed
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, games_played, wins, losses, draws) "
+            + "SELECT player, COUNT(*), SUM(won), SUM(lost), SUM(drawn) FROM ("
+            + "SELECT white_player_id AS player, result = 'WHITE_WINS' AS won, result = 'BLACK_WINS' AS lost, "
+            + "result = 'DRAW' AS drawn FROM games WHERE result IS NOT NULL "
+            + "UNION ALL "
+            + "SELECT black_player_id, result = 'BLACK_WINS', result = 'WHITE_WINS', result = 'DRAW' "
+            + "FROM games WHERE result IS NOT NULL AND black_player_id IS NOT NULL"
+            + ") finished GROUP BY player", nativeQuery = true)
+    int rebuildFromGames();
+}
@@ -0,0 +1,100 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.engine.ParallelSearch;
+import com.example.IndiChessBackend.engine.Position;
+import com.example.IndiChessBackend.engine.SearchResult;
+import com.example.IndiChessBackend.engine.TranspositionTable;
+import com.example.IndiChessBackend.exception.AnalysisUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads and the shared transposition table behind engine analysis.
+ * Main searches run on their own bounded executor (max-concurrent at a time,
+ * queue-capacity waiting), never on a request thread; their Lazy SMP helpers
+ * run on a second one. When the helper pool is saturated extra helpers are
+ * dropped and the search simply runs with fewer threads.
+ */
+@Component
+public class AnalysisPool {
+
+    private final int maxThreads;
+    private final long maxMillis;
+    private final TranspositionTable table;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor mainExecutor;
+    private final ParallelSearch search;
+
+    public AnalysisPool(@Value("${indichess.analysis.max-threads:0}") int maxThreads,
+            @Value("${indichess.analysis.hash-mb:64}") int hashMegabytes,
+            @Value("${indichess.analysis.max-millis:10000}") long maxMillis,
+            @Value("${indichess.analysis.max-concurrent:2}") int maxConcurrent,
+            @Value("${indichess.analysis.queue-capacity:16}") int queueCapacity) {
+        // 0 means one thread per core
+        this.maxThreads = maxThreads > 0 ? maxThreads : Runtime.getRuntime().availableProcessors();
+        this.maxMillis = maxMillis;
+        this.table = new TranspositionTable(hashMegabytes);
+
+        int helpers = Math.max(1, this.maxThreads - 1);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(helpers, helpers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(helpers * 4),
+                r -> {
+                    Thread thread = new Thread(r, "analysis-helper-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        this.search = new ParallelSearch(table, executor);
+
+        int mains = Math.max(1, maxConcurrent);
+        AtomicInteger mainCount = new AtomicInteger();
+        this.mainExecutor = new ThreadPoolExecutor(mains, mains, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread thread = new Thread(r, "analysis-main-" + mainCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public ParallelSearch getSearch() {
+        return search;
+    }
+
+    /**
+     * Search on the pool's own threads; the future fails with
+     * {@link AnalysisUnavailableException} when the queue is full
+     */
+    public CompletableFuture<SearchResult> submit(Position position, int threads, int maxDepth, long budgetMillis) {
+        try {
+            return CompletableFuture.supplyAsync(() -> search.search(position, threads, maxDepth, budgetMillis),
+                    mainExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new AnalysisUnavailableException("Engine analysis is busy, try again shortly"));
+        }
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mainExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -4,6 +4,7 @@ import com.example.IndiChessBackend.exception.UserAlreadyExistsException;
 import com.example.IndiChessBackend.model.User;
 import com.example.IndiChessBackend.repo.UserRepo;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -17,9 +18,14 @@ public class AuthService {
     private final UserRepo userRepo;
     private final PasswordEncoder passwordEncoder;
 
+    // Reserved for the computer opponent's account, see BotService
+    @Value("${indichess.bot.username:IndiBot}")
+    private String botUsername;
+
     public User save(User user) {
-        // Check for duplicate username
-        if (userRepo.findByUsername(user.getUsername()).isPresent()) {
+        // Check for duplicate username; the bot's name is taken even before its account exists
+        if (botUsername.equalsIgnoreCase(user.getUsername())
+                || userRepo.findByUsername(user.getUsername()).isPresent()) {
             throw new UserAlreadyExistsException("username", user.getUsername());
         }
 
@@ -0,0 +1,229 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.engine.Move;
+import com.example.IndiChessBackend.engine.Position;
+import com.example.IndiChessBackend.engine.RepetitionHistory;
+import com.example.IndiChessBackend.engine.Search;
+import com.example.IndiChessBackend.engine.SearchResult;
+import com.example.IndiChessBackend.engine.TranspositionTable;
+import com.example.IndiChessBackend.model.DTO.GameStateDTO;
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameStatus;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.UserRepo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computer opponent. Replies are searched on a dedicated bounded pool and
+ * broadcast on /topic/game/{id} like any other move, so a bot game never
+ * holds a STOMP inbound or HTTP request thread while thinking. When the
+ * pool is full the reply is retried shortly from a timer thread; if it stays
+ * full the player is told the computer could not move.
+ */
+@Service
+public class BotService {
+
+    private static final String BOT_PROVIDER = "BOT";
+    private static final int MAX_DEPTH = 64;
+    private static final long MIN_MOVE_MILLIS = 50;
+    private static final long RETRY_MILLIS = 250;
+    private static final int MAX_RETRIES = 20;
+
+    private final GameService gameService;
+    private final UserRepo userRepo;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final OpeningBookService openingBookService;
+    private final String botUsername;
+    private final long untimedMoveMillis;
+    private final long maxMoveMillis;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "bot-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // One search (and transposition table) per pool thread
+    private final ThreadLocal<Search> searches;
+
+    public BotService(GameService gameService,
+            UserRepo userRepo,
+            SimpMessagingTemplate messagingTemplate,
+            OpeningBookService openingBookService,
+            @Value("${indichess.bot.username:IndiBot}") String botUsername,
+            @Value("${indichess.bot.threads:2}") int threads,
+            @Value("${indichess.bot.queue-capacity:64}") int queueCapacity,
+            @Value("${indichess.bot.hash-mb:16}") int hashMegabytes,
+            @Value("${indichess.bot.untimed-move-millis:1500}") long untimedMoveMillis,
+            @Value("${indichess.bot.max-move-millis:5000}") long maxMoveMillis) {
+        this.gameService = gameService;
+        this.userRepo = userRepo;
+        this.messagingTemplate = messagingTemplate;
+        this.openingBookService = openingBookService;
+        this.botUsername = botUsername;
+        this.untimedMoveMillis = untimedMoveMillis;
+        this.maxMoveMillis = maxMoveMillis;
+        this.searches = ThreadLocal.withInitial(() -> new Search(new TranspositionTable(hashMegabytes)));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "bot-search-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Start a game against the computer. color is the human's color
+     * ("WHITE", "BLACK"); anything else picks one at random.
+     */
+    public Game createBotGame(String username, TimeControl timeControl, String color) {
+        String bot = botUsername;
+        boolean humanIsWhite;
+        if ("WHITE".equalsIgnoreCase(color)) {
+            humanIsWhite = true;
+        } else if ("BLACK".equalsIgnoreCase(color)) {
+            humanIsWhite = false;
+        } else {
+            humanIsWhite = Math.random() < 0.5;
+        }
+
+        Game game = gameService.createGame(humanIsWhite ? username : bot, timeControl);
+        game = gameService.joinGame(game.getId(), humanIsWhite ? bot : username);
+
+        System.out.println("🤖 Bot game created! Game ID: " + game.getId() + " | " + username + " vs " + bot);
+
+        // Bot has the white pieces and opens
+        onMoveMade(game);
+        return game;
+    }
+
+    /**
+     * Called after every move; schedules a reply if it is now the bot's turn
+     */
+    public void onMoveMade(Game game) {
+        if (game.getStatus() != GameStatus.IN_PROGRESS || !isBotTurn(game)) {
+            return;
+        }
+        submit(game, moveBudgetMillis(game), 0);
+    }
+
+    // Never searches on the caller's thread, which may be a STOMP inbound or HTTP thread
+    private void submit(Game game, long budgetMillis, int attempt) {
+        try {
+            executor.execute(() -> reply(game, budgetMillis));
+        } catch (RejectedExecutionException e) {
+            if (executor.isShutdown()) {
+                return;
+            }
+            if (attempt >= MAX_RETRIES) {
+                System.err.println("❌ Bot pool saturated, no reply in game " + game.getId());
+                messagingTemplate.convertAndSend("/topic/game/" + game.getId(),
+                        new GameStateDTO("ERROR", null, null, null, null, 0L, 0L, null, null, 0L, "ERROR",
+                                "The computer is overloaded and could not move", null, null, null, null));
+                return;
+            }
+            // The wait comes off the bot's own clock, so its budget shrinks with it
+            long budget = Math.max(MIN_MOVE_MILLIS, budgetMillis - RETRY_MILLIS);
+            try {
+                retries.schedule(() -> submit(game, budget, attempt + 1), RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shuttingDown) {
+                // Shutting down; the reply is dropped with the pool
+            }
+        }
+    }
+
+    public boolean isBotTurn(Game game) {
+        User toMove = "WHITE".equals(game.getCurrentTurn()) ? game.getWhitePlayer() : game.getBlackPlayer();
+        return toMove != null && botUsername.equals(toMove.getUsername());
+    }
+
+    /**
+     * Time to spend on the next move: a slice of the remaining clock plus most of
+     * the increment, or a fixed budget for untimed games
+     */
+    long moveBudgetMillis(Game game) {
+        TimeControl timeControl = game.getTimeControl();
+        if (timeControl == null || !timeControl.isTimed()) {
+            return untimedMoveMillis;
+        }
+        long remaining = Math.max(0, game.getClockMillis("WHITE".equals(game.getCurrentTurn())));
+        long budget = remaining / 30 + timeControl.getIncrementSeconds() * 800;
+        return Math.max(MIN_MOVE_MILLIS, Math.min(Math.min(budget, maxMoveMillis), remaining / 2));
+    }
+
+    private void reply(Game game, long budgetMillis) {
+        try {
+            Position position = new Position(game.getFen());
+            // In book the reply is instant and no search runs at all
+            int move = openingBookService.bookMove(position);
+            SearchResult result = null;
+            if (move == Move.NONE) {
+                // The game's earlier positions, so the bot sees a threefold repetition coming
+                RepetitionHistory history = RepetitionHistory.fromBytes(game.getRepetitionKeys());
+                result = searches.get().search(position, history, MAX_DEPTH, budgetMillis);
+                move = result.getBestMove();
+            }
+            if (move == Move.NONE) {
+                return;
+            }
+
+            String uci = Move.toUci(move);
+            Game updated = gameService.makeMove(game.getId(), botUsername,
+                    uci.substring(0, 2), uci.substring(2, 4), uci.length() > 4 ? uci.substring(4) : null);
+
+            System.out.println("🤖 Bot played " + uci + " in game " + game.getId() + (result == null ? " (book)"
+                    : " (depth " + result.getDepth() + ", " + result.getNodes() + " nodes, "
+                            + result.getTimeMillis() + " ms)"));
+
+            messagingTemplate.convertAndSend("/topic/game/" + game.getId(), GameStateDTO.of("MOVE", updated));
+            // A premove answered at once hands the turn straight back
+            onMoveMade(updated);
+        } catch (Exception e) {
+            System.err.println("❌ Bot failed to move in game " + game.getId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Claim the bot's account at startup, before anyone can register its name
+     * (AuthService refuses it too). A player who already owns the configured
+     * name stops startup: the bot would otherwise play and be rated as them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureBotUser() {
+        User bot = userRepo.findByUsername(botUsername).orElseGet(() -> {
+            User created = new User();
+            created.setUsername(botUsername);
+            created.setEmailId(botUsername.toLowerCase() + "@bot.indichess.local");
+            created.setProvider(BOT_PROVIDER); // No password, so the account can never log in
+            return userRepo.save(created);
+        });
+        if (!BOT_PROVIDER.equals(bot.getProvider())) {
+            throw new IllegalStateException("indichess.bot.username '" + botUsername + "' belongs to a "
+                    + bot.getProvider() + " account; configure a name no player uses");
+        }
+        System.out.println("🤖 Bot account ready: " + bot.getUsername());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retries.shutdownNow();
+        executor.shutdownNow();
+    }
+}
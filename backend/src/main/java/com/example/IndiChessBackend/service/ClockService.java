@@ -0,0 +1,136 @@
+package com.example.IndiChessBackend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * Flag deadlines of running clocks on one {@link TimingWheel}, driven by a
+ * single ticker thread instead of a scheduled task per game. Callers only
+ * queue schedule/cancel commands; the ticker applies them and advances the
+ * wheel every tick-millis, so a tick costs the commands and expiries since
+ * the last one, however many games are running. Expired games go to the
+ * expiry handler on a small separate pool, never on the ticker. Time is
+ * read from System.nanoTime(), so a wall-clock step neither flags games
+ * early nor holds their flags back.
+ */
+@Service
+public class ClockService {
+
+    private static final long CANCEL = Long.MIN_VALUE;
+
+    private record Command(long gameId, long deadlineNanos) {
+    }
+
+    private final long tickMillis;
+    private final long tickNanos;
+    private final long origin = System.nanoTime(); // Tick 0
+    private final TimingWheel wheel; // Ticker thread only
+    private final Map<Long, TimingWheel.Timer> timers = new HashMap<>(); // Ticker thread only
+    private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService expiries;
+    private volatile LongConsumer expiryHandler = gameId -> {
+    };
+
+    public ClockService(MeterRegistry meterRegistry,
+            @Value("${indichess.clock.tick-millis:100}") long tickMillis,
+            @Value("${indichess.clock.expiry-threads:2}") int expiryThreads) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.tickNanos = this.tickMillis * 1_000_000;
+        this.wheel = new TimingWheel(0);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "game-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger ids = new AtomicInteger();
+        this.expiries = Executors.newFixedThreadPool(Math.max(1, expiryThreads), r -> {
+            Thread thread = new Thread(r, "game-clock-expiry-" + ids.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("game.clock.timers", wheel, TimingWheel::size);
+        ticker.scheduleAtFixedRate(this::tick, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Called with the id of each game whose flag deadline passed; it must
+     * check the game itself, since a move may have raced the expiry
+     */
+    public void onExpiry(LongConsumer handler) {
+        this.expiryHandler = handler;
+    }
+
+    /**
+     * Flag the game once remainingMillis from now have passed, replacing its
+     * previous deadline
+     */
+    public void schedule(Long gameId, long remainingMillis) {
+        commands.add(new Command(gameId, System.nanoTime() - origin + Math.max(0, remainingMillis) * 1_000_000));
+    }
+
+    public void cancel(Long gameId) {
+        commands.add(new Command(gameId, CANCEL));
+    }
+
+    private void tick() {
+        try {
+            for (Command command = commands.poll(); command != null; command = commands.poll()) {
+                TimingWheel.Timer previous = timers.remove(command.gameId());
+                if (previous != null) {
+                    wheel.cancel(previous);
+                }
+                if (command.deadlineNanos() != CANCEL) {
+                    // Round up: a flag never falls before the time is actually gone
+                    long deadlineTick = (command.deadlineNanos() + tickNanos - 1) / tickNanos;
+                    timers.put(command.gameId(), wheel.schedule(command.gameId(), deadlineTick));
+                }
+            }
+            wheel.advance((System.nanoTime() - origin) / tickNanos, this::expire);
+        } catch (RuntimeException e) {
+            // Keep ticking; a dead ticker would stop every clock
+            System.err.println("❌ Clock tick failed: " + e.getMessage());
+        }
+    }
+
+    private void expire(long gameId) {
+        timers.remove(gameId);
+        try {
+            expiries.execute(() -> {
+                try {
+                    expiryHandler.accept(gameId);
+                } catch (RuntimeException e) {
+                    System.err.println("❌ Flag check failed for game " + gameId + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the next start reschedules running clocks
+        }
+    }
+
+    /**
+     * Number of running clocks (for monitoring)
+     */
+    public int size() {
+        return wheel.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        expiries.shutdown();
+    }
+}
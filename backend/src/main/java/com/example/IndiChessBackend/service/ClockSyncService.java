@@ -0,0 +1,149 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.ClockFrameDTO;
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends every running timed game a {@link ClockFrameDTO} on /topic/game/{id}
+ * each period-millis, from one sweeper thread rather than a task per game.
+ * The sweep reads each resident game's clocks once and hands the frames out
+ * in batches of batch-size to a small outbound pool with a bounded queue; if
+ * the broker falls behind, whole batches are dropped, since the next sweep
+ * carries fresher clocks anyway.
+ */
+@Service
+public class ClockSyncService {
+
+    private record Frame(Long gameId, ClockFrameDTO clock) {
+    }
+
+    private final LiveGameRegistry liveGameRegistry;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int batchSize;
+    private final ScheduledExecutorService sweeper;
+    private final ThreadPoolExecutor outbound;
+    private final Timer sweepTimer;
+    private final Counter framesSent;
+    private final Counter framesDropped;
+
+    public ClockSyncService(LiveGameRegistry liveGameRegistry, SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${indichess.clock-sync.period-millis:1000}") long periodMillis,
+            @Value("${indichess.clock-sync.batch-size:500}") int batchSize,
+            @Value("${indichess.clock-sync.send-threads:2}") int sendThreads,
+            @Value("${indichess.clock-sync.queued-batches:256}") int queuedBatches) {
+        this.liveGameRegistry = liveGameRegistry;
+        this.messagingTemplate = messagingTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        AtomicInteger ids = new AtomicInteger();
+        this.outbound = new ThreadPoolExecutor(Math.max(1, sendThreads), Math.max(1, sendThreads),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queuedBatches)), r -> {
+                    Thread thread = new Thread(r, "clock-sync-send-" + ids.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.sweepTimer = Timer.builder("game.clock.sync.sweep").register(meterRegistry);
+        this.framesSent = Counter.builder("game.clock.sync.frames").tag("outcome", "sent").register(meterRegistry);
+        this.framesDropped = Counter.builder("game.clock.sync.frames").tag("outcome", "dropped")
+                .register(meterRegistry);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "clock-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 0 turns the broadcasts off; frames then only go out with moves
+        if (periodMillis > 0) {
+            sweeper.scheduleWithFixedDelay(this::sweepSafely, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            // Keep sweeping; one bad pass must not silence every clock
+            System.err.println("❌ Clock sync sweep failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Build a frame for every running timed game and queue them for sending.
+     * Returns the number of frames queued.
+     */
+    public int sweep() {
+        long start = System.nanoTime();
+        int queued = 0;
+        List<Frame> batch = new ArrayList<>(batchSize);
+        for (LiveGame live : liveGameRegistry.sessions()) {
+            Frame frame = frame(live);
+            if (frame == null) {
+                continue;
+            }
+            batch.add(frame);
+            if (batch.size() == batchSize) {
+                queued += send(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            queued += send(batch);
+        }
+        sweepTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return queued;
+    }
+
+    // Clocks as of now; the side to move's clock has been running since its turn began
+    private static Frame frame(LiveGame live) {
+        synchronized (live) {
+            Game game = live.getGame();
+            if (live.isStale() || game.getStatus() != GameStatus.IN_PROGRESS || game.getTimeControl() == null
+                    || !game.getTimeControl().isTimed() || game.getLastMoveTime() == null) {
+                return null;
+            }
+            boolean whiteToMove = "WHITE".equals(game.getCurrentTurn());
+            long running = Math.max(0, game.getClockMillis(whiteToMove) - live.elapsedMillis(System.nanoTime()));
+            return new Frame(game.getId(), new ClockFrameDTO("CLOCK", game.getCurrentTurn(),
+                    whiteToMove ? running : game.getClockMillis(true),
+                    whiteToMove ? game.getClockMillis(false) : running));
+        }
+    }
+
+    private int send(List<Frame> batch) {
+        try {
+            outbound.execute(() -> {
+                for (Frame frame : batch) {
+                    messagingTemplate.convertAndSend("/topic/game/" + frame.gameId(), frame.clock());
+                }
+                framesSent.increment(batch.size());
+            });
+            return batch.size();
+        } catch (RejectedExecutionException e) {
+            framesDropped.increment(batch.size());
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        outbound.shutdownNow();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.engine.EndgameBitbaseGenerator;
+import com.example.IndiChessBackend.engine.EndgameBitbases;
+import com.example.IndiChessBackend.engine.Position;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Maps the KPK/KRK/KQK bitbases from indichess.bitbases.path and makes them
+ * available to game adjudication and every server-side search. The file is
+ * normally generated offline with EndgameBitbaseGenerator; if it is missing
+ * it is generated once at startup (about two seconds). An empty path turns
+ * the bitbases off.
+ */
+@Component
+public class EndgameBitbaseService {
+
+    private final EndgameBitbases bitbases;
+
+    public EndgameBitbaseService(@Value("${indichess.bitbases.path:bitbases.bin}") String path) {
+        this.bitbases = load(path);
+        EndgameBitbases.install(bitbases);
+    }
+
+    /**
+     * EndgameBitbases.WIN, LOSS or DRAW for the side to move, UNKNOWN if not covered
+     */
+    public int probe(Position position) {
+        return bitbases.probe(position);
+    }
+
+    private static EndgameBitbases load(String path) {
+        if (path == null || path.isBlank()) {
+            return EndgameBitbases.empty();
+        }
+        try {
+            Path file = Path.of(path);
+            if (!Files.exists(file)) {
+                System.out.println("♟️ No endgame bitbases at " + file.toAbsolutePath() + ", generating them");
+                EndgameBitbaseGenerator.write(file);
+            }
+            EndgameBitbases opened = EndgameBitbases.open(file);
+            System.out.println("♟️ Endgame bitbases mapped: " + file.toAbsolutePath());
+            return opened;
+        } catch (IOException e) {
+            System.err.println("⚠️ Endgame bitbases unavailable: " + e.getMessage());
+            return EndgameBitbases.empty();
+        }
+    }
+}
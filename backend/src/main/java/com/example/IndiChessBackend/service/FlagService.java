@@ -0,0 +1,63 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.GameStateDTO;
+import com.example.IndiChessBackend.model.GameStatus;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.repo.GameRepo;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ends games whose clock runs out while the player is thinking. The
+ * {@link ClockService} fires at the deadline; the game is then flagged and
+ * both players get a GAME_OVER on /topic/game/{id}, without waiting for
+ * either of them to move.
+ */
+@Service
+public class FlagService {
+
+    private final GameService gameService;
+    private final GameRepo gameRepo;
+    private final ClockService clockService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public FlagService(GameService gameService, GameRepo gameRepo, ClockService clockService,
+            SimpMessagingTemplate messagingTemplate) {
+        this.gameService = gameService;
+        this.gameRepo = gameRepo;
+        this.clockService = clockService;
+        this.messagingTemplate = messagingTemplate;
+        clockService.onExpiry(this::flag);
+    }
+
+    private void flag(long gameId) {
+        gameService.flag(gameId).ifPresent(game -> {
+            System.out.println("⏰ Game " + gameId + ": " + game.getStatusMessage());
+            messagingTemplate.convertAndSend("/topic/game/" + gameId, GameStateDTO.of("GAME_OVER", game));
+        });
+    }
+
+    /**
+     * Re-arm the clocks of games that were running when the server stopped;
+     * any that ran out meanwhile are flagged on the first tick
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rearm() {
+        List<TimeControl> timed = Arrays.stream(TimeControl.values()).filter(TimeControl::isTimed).toList();
+        List<Object[]> clocks = gameRepo.findClocks(GameStatus.IN_PROGRESS, timed);
+        long now = System.currentTimeMillis();
+        for (Object[] clock : clocks) {
+            Long remaining = (Long) ("WHITE".equals(clock[1]) ? clock[2] : clock[3]);
+            if (remaining != null) {
+                // Stopped servers keep no monotonic time; the stored move time is all there is
+                clockService.schedule((Long) clock[0], remaining - Math.max(0, now - (Long) clock[4]));
+            }
+        }
+        System.out.println("⏰ Re-armed " + clocks.size() + " running clocks");
+    }
+}
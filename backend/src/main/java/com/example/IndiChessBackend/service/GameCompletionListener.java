@@ -0,0 +1,16 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.Game;
+
+import java.util.List;
+
+/**
+ * Called with a game whose final state has just been committed, in a
+ * transaction of its own shared by all listeners. If a listener throws, that
+ * transaction rolls back and the game is reported again later, a bounded
+ * number of times; other games are not affected.
+ */
+public interface GameCompletionListener {
+
+    void gamesCompleted(List<Game> games);
+}
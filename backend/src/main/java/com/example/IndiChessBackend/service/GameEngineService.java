@@ -1,76 +1,104 @@
 package com.example.IndiChessBackend.service;
 
-import com.github.bhlangonijr.chesslib.Board;
-import com.github.bhlangonijr.chesslib.Square;
-import com.github.bhlangonijr.chesslib.move.Move;
-import com.github.bhlangonijr.chesslib.move.MoveGenerator;
-import com.github.bhlangonijr.chesslib.move.MoveGeneratorException;
+import com.example.IndiChessBackend.engine.BitboardMoveGenerator;
+import com.example.IndiChessBackend.engine.EndgameBitbases;
+import com.example.IndiChessBackend.engine.Move;
+import com.example.IndiChessBackend.engine.MoveGenerator;
+import com.example.IndiChessBackend.engine.Position;
+import com.example.IndiChessBackend.engine.RepetitionHistory;
+import com.example.IndiChessBackend.engine.Search;
+import com.example.IndiChessBackend.engine.SearchResult;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+
 @Service
+@RequiredArgsConstructor
 public class GameEngineService {
 
-    public boolean isValidMove(String fen, String from, String to) {
-        Board board = new Board();
-        board.loadFromFen(fen);
+    private final MoveGenerator moveGenerator = BitboardMoveGenerator.INSTANCE;
+    private final PositionCache positionCache;
+    private final AnalysisPool analysisPool;
+    private final EndgameBitbaseService endgameBitbases;
 
-        Square fromSquare = Square.fromValue(from.toUpperCase());
-        Square toSquare = Square.fromValue(to.toUpperCase());
+    // Reused per request thread so generating moves on a cache miss does not allocate
+    private static final ThreadLocal<int[]> MOVE_BUFFER = ThreadLocal
+            .withInitial(() -> new int[MoveGenerator.MAX_MOVES]);
 
-        try {
-            // Generate legal moves
-            for (Move move : MoveGenerator.generateLegalMoves(board)) {
-                if (move.getFrom() == fromSquare && move.getTo() == toSquare) {
-                    return true;
-                }
+    public boolean isValidMove(String fen, String from, String to) {
+        Position position = new Position(fen);
+        int fromSquare = Move.parseSquare(from);
+        int toSquare = Move.parseSquare(to);
+
+        int[] moves = analyze(position).getLegalMoves();
+        for (int i = 0; i < moves.length; i++) {
+            if (Move.from(moves[i]) == fromSquare && Move.to(moves[i]) == toSquare) {
+                return true;
             }
-        } catch (MoveGeneratorException e) {
-            e.printStackTrace();
-            return false;
         }
         return false;
     }
 
     public String makeMove(String fen, String from, String to) {
-        Board board = new Board();
-        board.loadFromFen(fen);
-
-        Square fromSquare = Square.fromValue(from.toUpperCase());
-        Square toSquare = Square.fromValue(to.toUpperCase());
-        Move move = new Move(fromSquare, toSquare); // Simplification, need to handle promotion
-
-        board.doMove(move);
-        return board.getFen();
+        Position position = new Position(fen);
+        // Default to a queen when the caller does not say what to promote to
+        int move = findMove(position, from, to, (char) 0, true);
+        if (move == Move.NONE) {
+            throw new IllegalArgumentException("Illegal move: " + from + to);
+        }
+        position.makeMove(move);
+        return position.toFen();
     }
 
     // Improved implementation with proper robust Move creation
     public String applyMove(String fen, String from, String to, String promotion) {
-        Board board = new Board();
-        board.loadFromFen(fen);
+        Position position = new Position(fen);
+        position.makeMove(findLegalMove(position, from, to, promotion));
+        return position.toFen();
+    }
 
-        // Construct move string like "e2e4" or "a7a8q"
-        String moveStr = from.toLowerCase() + to.toLowerCase();
-        if (promotion != null && !promotion.isEmpty()) {
-            moveStr += promotion.toLowerCase();
+    /**
+     * Find the legal move matching from/to/promotion on an already loaded position.
+     * Throws IllegalArgumentException if the move is not legal.
+     */
+    public int findLegalMove(Position position, String from, String to, String promotion) {
+        char promotionChar = promotion != null && !promotion.isEmpty() ? promotion.charAt(0) : 0;
+        int move = findMove(position, from, to, promotionChar, false);
+        if (move == Move.NONE) {
+            throw new IllegalArgumentException(
+                    "Illegal move: " + from + to + (promotion != null ? promotion : ""));
         }
+        return move;
+    }
 
-        // Find matching legal move
-        try {
-            for (Move legal : MoveGenerator.generateLegalMoves(board)) {
-                if (legal.toString().equals(moveStr)) {
-                    board.doMove(legal);
-                    return board.getFen();
-                }
-            }
-        } catch (MoveGeneratorException e) {
-            throw new IllegalArgumentException("Error generating moves: " + e.getMessage());
+    private int findMove(Position position, String from, String to, char promotion, boolean defaultToQueen) {
+        int fromSquare = Move.parseSquare(from);
+        int toSquare = Move.parseSquare(to);
+        if (fromSquare < 0 || toSquare < 0) {
+            return Move.NONE;
+        }
+        int promotionType = promotion != 0 ? Move.promotionTypeOf(promotion) : -1;
+        if (promotionType < 0 && defaultToQueen) {
+            promotionType = Position.QUEEN;
         }
 
-        throw new IllegalArgumentException("Illegal move: " + moveStr);
+        // Find matching legal move; a promotion suffix on a non-promotion move is ignored
+        int[] moves = analyze(position).getLegalMoves();
+        for (int i = 0; i < moves.length; i++) {
+            int move = moves[i];
+            if (Move.from(move) != fromSquare || Move.to(move) != toSquare) {
+                continue;
+            }
+            if (Move.flag(move) != Move.PROMOTION || Move.promotionType(move) == promotionType) {
+                return move;
+            }
+        }
+        return Move.NONE;
     }
 
     public String getInitialFen() {
-        return new Board().getFen();
+        return Position.START_FEN;
     }
 
     public enum GameResult {
@@ -81,8 +109,7 @@ public class GameEngineService {
     }
 
     public GameResult getGameResult(String fen) {
-        // Robust check for missing Kings in FEN string to avoid library parsing errors
-        // where loadFromFen might throw exception
+        // Robust check for missing Kings in FEN string to avoid parsing errors
         if (fen != null) {
             String piecePlacement = fen.split(" ")[0];
             if (!piecePlacement.contains("K"))
@@ -91,34 +118,129 @@ public class GameEngineService {
                 return GameResult.WHITE_WINS;
         }
 
-        Board board = new Board();
+        Position position;
         try {
-            board.loadFromFen(fen);
+            position = new Position(fen);
         } catch (Exception e) {
             // Check failsafe again just in case, though string check should cover it
             return GameResult.IN_PROGRESS;
         }
+        return getGameResult(position);
+    }
+
+    /**
+     * Game result of an already loaded position, avoids parsing the FEN again
+     */
+    public GameResult getGameResult(Position position) {
+        if (position.kingSquare(Position.WHITE) < 0) {
+            return GameResult.BLACK_WINS;
+        }
+        if (position.kingSquare(Position.BLACK) < 0) {
+            return GameResult.WHITE_WINS;
+        }
+
+        GameResult terminal = analyze(position).getTerminalResult();
+        if (terminal != GameResult.IN_PROGRESS) {
+            return terminal;
+        }
+        // History dependent, so never cached
+        if (position.halfmoveClock() >= 100 || position.repetitionCount() >= 3) {
+            return GameResult.DRAW;
+        }
+        return GameResult.IN_PROGRESS;
+    }
 
-        // Standard checks using library logic
-        if (board.getKingSquare(
-                com.github.bhlangonijr.chesslib.Side.WHITE) == com.github.bhlangonijr.chesslib.Square.NONE) {
+    /**
+     * Game result of a live game: repetitions come from the game's incremental
+     * history, so threefold repetition is detected in constant time even when
+     * the position was loaded from a FEN
+     */
+    public GameResult getGameResult(Position position, RepetitionHistory history) {
+        if (position.kingSquare(Position.WHITE) < 0) {
             return GameResult.BLACK_WINS;
         }
-        if (board.getKingSquare(
-                com.github.bhlangonijr.chesslib.Side.BLACK) == com.github.bhlangonijr.chesslib.Square.NONE) {
+        if (position.kingSquare(Position.BLACK) < 0) {
             return GameResult.WHITE_WINS;
         }
 
-        if (board.isMated()) {
-            return board.getSideToMove() == com.github.bhlangonijr.chesslib.Side.WHITE ? GameResult.BLACK_WINS
-                    : GameResult.WHITE_WINS;
-        } else if (board.isStaleMate() || board.isDraw() || board.isInsufficientMaterial()) {
+        GameResult terminal = analyze(position).getTerminalResult();
+        if (terminal != GameResult.IN_PROGRESS) {
+            return terminal;
+        }
+        if (position.halfmoveClock() >= 100 || history.count(position.key()) >= 3) {
             return GameResult.DRAW;
         }
         return GameResult.IN_PROGRESS;
     }
 
+    /**
+     * Theoretical result of a covered endgame (K + P/R/Q vs K) from the
+     * bitbases; IN_PROGRESS for anything else. Not part of getGameResult:
+     * only a game without a clock may be settled this way, since on the clock
+     * a won ending still has to be converted in time.
+     */
+    public GameResult adjudicate(Position position) {
+        int result = endgameBitbases.probe(position);
+        if (result == EndgameBitbases.DRAW) {
+            return GameResult.DRAW;
+        }
+        if (result == EndgameBitbases.UNKNOWN) {
+            return GameResult.IN_PROGRESS;
+        }
+        boolean whiteToMove = position.sideToMove() == Position.WHITE;
+        return (result == EndgameBitbases.WIN) == whiteToMove ? GameResult.WHITE_WINS : GameResult.BLACK_WINS;
+    }
+
+    /**
+     * Legal moves and terminal status of a position, served from the Zobrist
+     * keyed cache when another game has already been through it
+     */
+    public PositionCache.Entry analyze(Position position) {
+        long key = position.key();
+        PositionCache.Entry entry = positionCache.get(key);
+        if (entry != null) {
+            return entry;
+        }
+
+        int[] moves = MOVE_BUFFER.get();
+        int count = moveGenerator.generateLegalMoves(position, moves);
+        GameResult terminal = GameResult.IN_PROGRESS;
+        if (count == 0) {
+            if (position.inCheck()) {
+                terminal = position.sideToMove() == Position.WHITE ? GameResult.BLACK_WINS : GameResult.WHITE_WINS;
+            } else {
+                terminal = GameResult.DRAW; // Stalemate
+            }
+        } else if (position.isInsufficientMaterial()) {
+            terminal = GameResult.DRAW;
+        }
+        return positionCache.put(key, Arrays.copyOf(moves, count), terminal);
+    }
+
+    /**
+     * Search a position with Lazy SMP on up to the requested number of threads
+     * (capped by indichess.analysis.max-threads). The time budget is capped by
+     * indichess.analysis.max-millis; maxDepth <= 0 means no depth limit.
+     * The search runs on the {@link AnalysisPool}; an invalid FEN is rejected
+     * at once, on the calling thread.
+     */
+    public java.util.concurrent.CompletableFuture<SearchResult> search(String fen, int threads, int maxDepth,
+            long timeMillis) {
+        Position position = new Position(fen);
+        int threadCount = analysisThreads(threads);
+        int depth = maxDepth > 0 ? Math.min(maxDepth, Search.MAX_PLY - 1) : Search.MAX_PLY - 1;
+        long budget = Math.max(1, Math.min(timeMillis, analysisPool.getMaxMillis()));
+        return analysisPool.submit(position, threadCount, depth, budget);
+    }
+
+    /**
+     * Number of threads a search asking for the given count will actually use
+     */
+    public int analysisThreads(int requested) {
+        return Math.max(1, Math.min(requested, analysisPool.getMaxThreads()));
+    }
+
     public boolean isGameOver(String fen) {
         return getGameResult(fen) != GameResult.IN_PROGRESS;
     }
-}
\ No newline at end of file
+}
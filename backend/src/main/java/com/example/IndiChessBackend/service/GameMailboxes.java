@@ -0,0 +1,125 @@
+package com.example.IndiChessBackend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer execution for live games. Every state change of a game runs
+ * as a task in that game's {@link Mailbox}: one at a time and in submission
+ * order, while the mailboxes of different games drain in parallel on a pool
+ * sized to the cores. Dispatch is lock-free; the submitter that raises a
+ * mailbox's pending count from zero schedules it on the pool.
+ */
+@Component
+public class GameMailboxes {
+
+    // Tasks run per turn on the pool before a busy mailbox yields to others
+    private static final int BATCH = 32;
+
+    private static final ThreadLocal<Mailbox> DRAINING = new ThreadLocal<>();
+
+    /**
+     * Task queue of one game; holds no thread while idle
+     */
+    public static final class Mailbox {
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        public int pending() {
+            return pending.get();
+        }
+    }
+
+    private final ExecutorService pool;
+
+    public GameMailboxes(@Value("${indichess.game-mailbox.threads:0}") int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger ids = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(size, r -> {
+            Thread thread = new Thread(r, "game-mailbox-" + ids.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        System.out.println("📬 Game mailboxes running on " + size + " threads");
+    }
+
+    /**
+     * Run the task in the mailbox and wait for its result. Exceptions thrown
+     * by the task are rethrown to the caller unchanged. A task already running
+     * in this mailbox runs nested calls inline.
+     */
+    public <T> T call(Mailbox mailbox, Supplier<T> task) {
+        if (DRAINING.get() == mailbox) {
+            return task.get();
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        mailbox.tasks.add(() -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        if (mailbox.pending.getAndIncrement() == 0) {
+            pool.execute(() -> drain(mailbox));
+        }
+
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            // The task still runs; only this caller stops waiting for it
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the game", e);
+        }
+    }
+
+    // A task is always queued before it is counted, so poll() cannot come back empty here
+    private void drain(Mailbox mailbox) {
+        DRAINING.set(mailbox);
+        try {
+            for (int run = 1; ; run++) {
+                mailbox.tasks.poll().run();
+                if (mailbox.pending.decrementAndGet() == 0) {
+                    return;
+                }
+                if (run == BATCH) {
+                    // Still owned by this drain; hand it back to the end of the pool's queue
+                    pool.execute(() -> drain(mailbox));
+                    return;
+                }
+            }
+        } finally {
+            DRAINING.remove();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.GameStateDTO;
+import com.example.IndiChessBackend.model.Game;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends both players a SYNC with the stored state of a game whose unwritten
+ * moves were dropped by the {@link LiveGameRegistry}, so their boards and
+ * clocks go back to what the database holds
+ */
+@Component
+@RequiredArgsConstructor
+public class GameResyncListener {
+
+    private final GameService gameService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @EventListener
+    public void onSessionDropped(LiveGameRegistry.SessionDropped event) {
+        Game game = gameService.resync(event.gameId());
+        System.out.println("🔁 Game " + event.gameId() + " resynced to the stored state");
+        messagingTemplate.convertAndSend("/topic/game/" + event.gameId(), GameStateDTO.of("SYNC", game));
+    }
+}
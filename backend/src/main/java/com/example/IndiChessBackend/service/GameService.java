@@ -1,11 +1,16 @@
 package com.example.IndiChessBackend.service;
 
+import com.example.IndiChessBackend.engine.Move;
+import com.example.IndiChessBackend.engine.Position;
 import com.example.IndiChessBackend.exception.GameStateException;
 import com.example.IndiChessBackend.exception.InvalidMoveException;
 import com.example.IndiChessBackend.exception.ResourceNotFoundException;
 import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameMove;
+import com.example.IndiChessBackend.model.GameResult;
 import com.example.IndiChessBackend.model.GameStatus;
 import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.GameMoveRepo;
 import com.example.IndiChessBackend.repo.GameRepo;
 import com.example.IndiChessBackend.repo.UserRepo;
 import lombok.RequiredArgsConstructor;
@@ -16,8 +21,18 @@ import org.springframework.stereotype.Service;
 public class GameService {
 
     private final GameRepo gameRepo;
+    private final GameMoveRepo gameMoveRepo;
     private final UserRepo userRepo;
     private final GameEngineService gameEngineService;
+    private final LiveGameRegistry liveGameRegistry;
+    private final PostGameAnalysisService postGameAnalysisService;
+    private final OpeningBookService openingBookService;
+    private final GameMailboxes gameMailboxes;
+    private final OptimisticRetry optimisticRetry;
+    private final ClockService clockService;
+
+    @org.springframework.beans.factory.annotation.Value("${indichess.premove.max-queued:3}")
+    private int maxPremoves = 3;
 
     public Game createGame(String username) {
         return createGame(username, com.example.IndiChessBackend.model.TimeControl.STANDARD);
@@ -32,192 +47,614 @@ public class GameService {
         game.setStatus(GameStatus.WAITING);
         game.setCurrentTurn("WHITE");
         game.setTimeControl(timeControl);
-        game.setWhiteTimeRemaining(timeControl.getInitialTimeSeconds());
-        game.setBlackTimeRemaining(timeControl.getInitialTimeSeconds());
+        game.setClockMillis(true, timeControl.getInitialTimeSeconds() * 1000);
+        game.setClockMillis(false, timeControl.getInitialTimeSeconds() * 1000);
         return gameRepo.save(game);
     }
 
-    public Game joinGame(Long gameId, String username) {
-        Game game = gameRepo.findById(java.util.Objects.requireNonNull(gameId))
-                .orElseThrow(() -> new ResourceNotFoundException("Game", gameId));
-        User player = userRepo.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", username));
+    /**
+     * Players seated by the matchmaker, white first
+     */
+    public record Pairing(String white, String black) {
+    }
 
-        if (game.getStatus() != GameStatus.WAITING) {
-            throw new GameStateException("Game is not available to join");
+    /**
+     * A game started for a pairing
+     */
+    public record Seated(Pairing pairing, Game game) {
+    }
+
+    /**
+     * Start many matched games at once: players are loaded in one query and
+     * the games inserted as one JDBC batch, already in progress with both
+     * seated. A pairing with a player who no longer exists is left out of the
+     * result; the others still start. A database error fails the whole batch.
+     */
+    public java.util.List<Seated> startGames(java.util.List<Pairing> pairings,
+            com.example.IndiChessBackend.model.TimeControl timeControl) {
+        java.util.Set<String> usernames = new java.util.HashSet<>();
+        for (Pairing pairing : pairings) {
+            usernames.add(pairing.white());
+            usernames.add(pairing.black());
+        }
+        java.util.Map<String, User> users = new java.util.HashMap<>();
+        for (User user : userRepo.findByUsernameIn(usernames)) {
+            users.put(user.getUsername(), user);
         }
 
-        if (game.getWhitePlayer().getUsername().equals(username)) {
-            throw new GameStateException("You are already in this game");
+        String fen = gameEngineService.getInitialFen();
+        long now = System.currentTimeMillis();
+        java.util.List<Seated> seated = new java.util.ArrayList<>(pairings.size());
+        java.util.List<Game> games = new java.util.ArrayList<>(pairings.size());
+        for (Pairing pairing : pairings) {
+            User white = users.get(pairing.white());
+            User black = users.get(pairing.black());
+            if (white == null || black == null) {
+                System.err.println("⚠️ Not starting " + pairing.white() + " vs " + pairing.black()
+                        + ": " + (white == null ? pairing.white() : pairing.black()) + " no longer exists");
+                continue;
+            }
+            Game game = new Game();
+            game.setWhitePlayer(white);
+            game.setBlackPlayer(black);
+            game.setFen(fen);
+            game.setStatus(GameStatus.IN_PROGRESS);
+            game.setCurrentTurn("WHITE");
+            game.setTimeControl(timeControl);
+            game.setClockMillis(true, timeControl.getInitialTimeSeconds() * 1000);
+            game.setClockMillis(false, timeControl.getInitialTimeSeconds() * 1000);
+            game.setLastMoveTime(now);
+            games.add(game);
+            seated.add(new Seated(pairing, game));
         }
 
-        game.setBlackPlayer(player);
-        game.setStatus(GameStatus.IN_PROGRESS);
-        game.setLastMoveTime(System.currentTimeMillis());
-        return gameRepo.save(game);
+        gameRepo.insertGames(games);
+        // Every game starts from the same position
+        com.example.IndiChessBackend.model.DTO.LegalMovesDTO legalMoves = gameEngineService
+                .analyze(new Position(fen)).getEncodedMoves();
+        for (Game game : games) {
+            game.setLegalMoves(legalMoves);
+            liveGameRegistry.register(game);
+            liveGameRegistry.find(game.getId()).ifPresent(this::scheduleFlag);
+        }
+        return seated;
+    }
+
+    public Game joinGame(Long gameId, String username) {
+        // Another node may be seating a different opponent at the same time
+        return optimisticRetry.run("join", () -> {
+            Game game = gameRepo.findById(java.util.Objects.requireNonNull(gameId))
+                    .orElseThrow(() -> new ResourceNotFoundException("Game", gameId));
+            User player = userRepo.findByUsername(username)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", username));
+
+            if (game.getStatus() != GameStatus.WAITING) {
+                throw new GameStateException("Game is not available to join");
+            }
+
+            if (game.getWhitePlayer().getUsername().equals(username)) {
+                throw new GameStateException("You are already in this game");
+            }
+
+            game.setBlackPlayer(player);
+            game.setStatus(GameStatus.IN_PROGRESS);
+            game.setLastMoveTime(System.currentTimeMillis());
+            Game saved = gameRepo.save(game);
+            saved.setLegalMoves(gameEngineService.analyze(new Position(saved.getFen())).getEncodedMoves());
+            liveGameRegistry.register(saved);
+            liveGameRegistry.find(saved.getId()).ifPresent(this::scheduleFlag);
+            return saved;
+        });
     }
 
     public Game makeMove(Long gameId, String username, String from, String to, String promotion) {
-        Game game = gameRepo.findById(java.util.Objects.requireNonNull(gameId))
-                .orElseThrow(() -> new ResourceNotFoundException("Game", gameId));
+        return makeMove(gameId, username, from, to, promotion, 0);
+    }
 
-        if (game.getStatus() != GameStatus.IN_PROGRESS) {
-            throw new GameStateException("Game is not in progress");
+    /**
+     * Play a move, giving lagCreditMillis of the thinking time back to the
+     * mover for the network delay of the move's way in (see LagService)
+     */
+    public Game makeMove(Long gameId, String username, String from, String to, String promotion,
+            long lagCreditMillis) {
+        return optimisticRetry.run("move", () -> {
+            LiveGame live = getLiveGame(gameId);
+            // Moves of one game apply strictly in order; other games are not held up
+            return gameMailboxes.call(live.getMailbox(),
+                    () -> applyMove(live, username, from, to, promotion, lagCreditMillis));
+        });
+    }
+
+    private Game applyMove(LiveGame live, String username, String from, String to, String promotion,
+            long lagCreditMillis) {
+        synchronized (live) {
+            requireCurrent(live);
+            Game game = live.getGame();
+            if (game.getStatus() != GameStatus.IN_PROGRESS) {
+                throw new GameStateException("Game is not in progress");
+            }
+
+            // Validate turn
+            boolean isWhite = game.getWhitePlayer().getUsername().equals(username);
+            if (isWhite && !"WHITE".equals(game.getCurrentTurn())) {
+                throw new GameStateException("Not your turn");
+            }
+            if (!isWhite && !"BLACK".equals(game.getCurrentTurn())) {
+                throw new GameStateException("Not your turn");
+            }
+
+            // Apply move using Engine on the resident position
+            int move;
+            try {
+                move = gameEngineService.findLegalMove(live.getPosition(), from, to, promotion);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidMoveException("Invalid move: " + e.getMessage());
+            }
+            play(live, move, isWhite, true, lagCreditMillis);
+            game.setLastMoveCount(1);
+
+            // The opponent's premove, if still legal, answers in the same step
+            if (game.getStatus() == GameStatus.IN_PROGRESS && playPremove(live, !isWhite)) {
+                game.setLastMoveCount(2);
+            }
+
+            // Written to the database in the background
+            Game saved = liveGameRegistry.persist(live);
+            if (saved.getStatus() == GameStatus.COMPLETED) {
+                postGameAnalysisService.submit(saved);
+            }
+            scheduleFlag(live);
+            return saved;
         }
+    }
 
-        // Validate turn
-        boolean isWhite = game.getWhitePlayer().getUsername().equals(username);
-        if (isWhite && !"WHITE".equals(game.getCurrentTurn())) {
-            throw new GameStateException("Not your turn");
+    /**
+     * Make a legal move on the resident position and update clocks, status and
+     * history. Thinking time is measured on the monotonic clock, to the
+     * millisecond, less the lag credit. A premove is not charged the time
+     * since the opponent's move.
+     */
+    private void play(LiveGame live, int move, boolean isWhite, boolean chargeClock, long lagCreditMillis) {
+        Game game = live.getGame();
+        Position position = live.getPosition();
+        position.makeMove(move);
+        live.getHistory().push(position.key(), position.halfmoveClock() == 0);
+        String newFen = position.toFen();
+        long nowNanos = System.nanoTime();
+        long now = System.currentTimeMillis();
+        boolean timed = game.getTimeControl() != null && game.getTimeControl().isTimed();
+        if (timed) {
+            long elapsed = chargeClock ? live.elapsedMillis(nowNanos) : 0;
+            long credit = Math.min(elapsed, Math.max(0, lagCreditMillis));
+            long left = game.getClockMillis(isWhite) - (elapsed - credit);
+            // The increment only saves a move made in time
+            game.setClockMillis(isWhite, left > 0 ? left + game.getTimeControl().getIncrementSeconds() * 1000 : 0);
+            if (chargeClock) {
+                game.setLagCreditMillis(credit);
+            }
         }
-        if (!isWhite && !"BLACK".equals(game.getCurrentTurn())) {
-            throw new GameStateException("Not your turn");
+        live.startTurn(nowNanos);
+        game.setLastMoveTime(now);
+
+        game.setPreviousFen(game.getFen()); // Save current state for undo
+        game.setFen(newFen);
+
+        OpeningBookService.Opening opening = openingBookService.opening(position.key());
+        if (opening != null) {
+            game.setOpeningEco(opening.getEco());
+            game.setOpeningName(opening.getName());
         }
 
-        // Apply move using Engine
-        try {
-            String newFen = gameEngineService.applyMove(game.getFen(), from, to, promotion);
-            // Calculate time elapsed and apply increment
-            long now = System.currentTimeMillis();
-            if (game.getLastMoveTime() != null) {
-                long elapsedSeconds = (now - game.getLastMoveTime()) / 1000;
-                if (isWhite) {
-                    long newTime = game.getWhiteTimeRemaining() - elapsedSeconds;
-                    // Add increment after move (if not first move)
-                    if (game.getTimeControl() != null) {
-                        newTime += game.getTimeControl().getIncrementSeconds();
-                    }
-                    game.setWhiteTimeRemaining(Math.max(0, newTime));
+        // Check Game Over
+        GameEngineService.GameResult result = gameEngineService.getGameResult(position, live.getHistory());
+        // Only untimed games are adjudicated from the bitbases: on the clock a
+        // won ending must still be converted, and a drawn one can be lost on time
+        boolean onBoard = true;
+        if (result == GameEngineService.GameResult.IN_PROGRESS && !timed) {
+            result = gameEngineService.adjudicate(position);
+            onBoard = result == GameEngineService.GameResult.IN_PROGRESS;
+        }
+        // A move made after the mover's flag fell loses on time, whatever it did on the board
+        if (timed && game.getClockMillis(true) <= 0) {
+            game.setStatus(GameStatus.COMPLETED);
+            game.setResult(GameResult.BLACK_WINS);
+            game.setStatusMessage("Black Wins by Timeout!");
+        } else if (timed && game.getClockMillis(false) <= 0) {
+            game.setStatus(GameStatus.COMPLETED);
+            game.setResult(GameResult.WHITE_WINS);
+            game.setStatusMessage("White Wins by Timeout!");
+        } else if (result != GameEngineService.GameResult.IN_PROGRESS) {
+            game.setStatus(GameStatus.COMPLETED);
+            if (result == GameEngineService.GameResult.WHITE_WINS) {
+                game.setResult(GameResult.WHITE_WINS);
+                game.setStatusMessage(onBoard ? "White Wins by Checkmate!" : "White Wins by Adjudication (won endgame)");
+            } else if (result == GameEngineService.GameResult.BLACK_WINS) {
+                game.setResult(GameResult.BLACK_WINS);
+                game.setStatusMessage(onBoard ? "Black Wins by Checkmate!" : "Black Wins by Adjudication (won endgame)");
+            } else {
+                game.setResult(GameResult.DRAW);
+                if (live.getHistory().currentCount() >= 3) {
+                    game.setStatusMessage("Draw by Threefold Repetition");
+                } else if (position.halfmoveClock() >= 100) {
+                    game.setStatusMessage("Draw by Fifty-Move Rule");
+                } else if (onBoard) {
+                    game.setStatusMessage("Draw / Stalemate");
                 } else {
-                    long newTime = game.getBlackTimeRemaining() - elapsedSeconds;
-                    // Add increment after move (if not first move)
-                    if (game.getTimeControl() != null) {
-                        newTime += game.getTimeControl().getIncrementSeconds();
-                    }
-                    game.setBlackTimeRemaining(Math.max(0, newTime));
+                    game.setStatusMessage("Draw by Adjudication (drawn endgame)");
                 }
             }
-            game.setLastMoveTime(now);
+        }
 
-            game.setPreviousFen(game.getFen()); // Save current state for undo
-            game.setFen(newFen);
+        game.setCurrentTurn(isWhite ? "BLACK" : "WHITE");
+        // Same cached entry the result check just used
+        game.setLegalMoves(game.getStatus() == GameStatus.IN_PROGRESS
+                ? gameEngineService.analyze(position).getEncodedMoves()
+                : null);
 
-            // Check Game Over
-            GameEngineService.GameResult result = gameEngineService.getGameResult(newFen);
-            if (result != GameEngineService.GameResult.IN_PROGRESS) {
-                game.setStatus(GameStatus.COMPLETED);
-                if (result == GameEngineService.GameResult.WHITE_WINS) {
-                    game.setStatusMessage("White Wins by Checkmate!");
-                } else if (result == GameEngineService.GameResult.BLACK_WINS) {
-                    game.setStatusMessage("Black Wins by Checkmate!");
-                } else {
-                    game.setStatusMessage("Draw / Stalemate");
+        // Two bytes per ply; only the new ones are written to the row
+        live.recordMove(new GameMove(game.getId(), live.getMoves().size(), move,
+                timed ? game.getClockMillis(isWhite) : null, now));
+        live.getMoves().add(move);
+    }
+
+    /**
+     * Play the side to move's first queued premove. One that turned illegal
+     * cancels the rest of that player's queue, since it was planned against
+     * a different reply.
+     */
+    private boolean playPremove(LiveGame live, boolean white) {
+        java.util.Deque<LiveGame.Premove> queue = live.getPremoves(white);
+        LiveGame.Premove premove = queue.poll();
+        if (premove == null) {
+            return false;
+        }
+        int move;
+        try {
+            move = gameEngineService.findLegalMove(live.getPosition(), premove.from(), premove.to(),
+                    premove.promotion());
+        } catch (IllegalArgumentException e) {
+            queue.clear();
+            return false;
+        }
+        play(live, move, white, false, 0);
+        return true;
+    }
+
+    /**
+     * Queue a move to be played the moment the opponent has moved. Arriving
+     * after the opponent already moved, it is played at once and returned.
+     */
+    public java.util.Optional<Game> premove(Long gameId, String username, String from, String to, String promotion,
+            long lagCreditMillis) {
+        return optimisticRetry.run("premove", () -> {
+            LiveGame live = getLiveGame(gameId);
+            return gameMailboxes.call(live.getMailbox(), () -> {
+                synchronized (live) {
+                    requireCurrent(live);
+                    Game game = live.getGame();
+                    if (game.getStatus() != GameStatus.IN_PROGRESS) {
+                        throw new GameStateException("Game is not in progress");
+                    }
+                    boolean isWhite = isPlayer(game, username);
+                    if (isWhite == "WHITE".equals(game.getCurrentTurn())) {
+                        return java.util.Optional.of(applyMove(live, username, from, to, promotion, lagCreditMillis));
+                    }
+                    java.util.Deque<LiveGame.Premove> queue = live.getPremoves(isWhite);
+                    if (queue.size() >= maxPremoves) {
+                        throw new GameStateException("At most " + maxPremoves + " premoves can be queued");
+                    }
+                    queue.add(new LiveGame.Premove(from, to, promotion));
+                    return java.util.Optional.empty();
                 }
-            } else if (game.getWhiteTimeRemaining() <= 0) {
-                game.setStatus(GameStatus.COMPLETED);
-                game.setStatusMessage("Black Wins by Timeout!");
-            } else if (game.getBlackTimeRemaining() <= 0) {
-                game.setStatus(GameStatus.COMPLETED);
-                game.setStatusMessage("White Wins by Timeout!");
+            });
+        });
+    }
+
+    public void cancelPremoves(Long gameId, String username) {
+        java.util.Optional<LiveGame> resident = liveGameRegistry.find(java.util.Objects.requireNonNull(gameId));
+        resident.ifPresent(live -> gameMailboxes.call(live.getMailbox(), () -> {
+            synchronized (live) {
+                live.getPremoves(isPlayer(live.getGame(), username)).clear();
+                return null;
             }
+        }));
+    }
 
-            game.setCurrentTurn(isWhite ? "BLACK" : "WHITE");
+    // True for White, false for Black
+    private static boolean isPlayer(Game game, String username) {
+        if (game.getWhitePlayer().getUsername().equals(username)) {
+            return true;
+        }
+        if (game.getBlackPlayer() != null && game.getBlackPlayer().getUsername().equals(username)) {
+            return false;
+        }
+        throw new GameStateException("You are not part of this game");
+    }
 
-            // Append move to PGN-like history (UCI format space separated)
-            String moveStr = from + to + (promotion != null ? promotion : "");
-            if (game.getPgn() == null || game.getPgn().isEmpty()) {
-                game.setPgn(moveStr);
-            } else {
-                game.setPgn(game.getPgn() + " " + moveStr);
-            }
+    /**
+     * Resident session of an in-progress game; only the first move after a
+     * restart (or after joining on another path) reads the row from the database
+     */
+    private LiveGame getLiveGame(Long gameId) {
+        return liveGameRegistry.find(java.util.Objects.requireNonNull(gameId)).orElseGet(() -> {
+            Game game = gameRepo.findById(gameId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Game", gameId));
+            return liveGameRegistry.attach(game)
+                    .orElseThrow(() -> new GameStateException("Game is not in progress"));
+        });
+    }
 
-            return gameRepo.save(game);
-        } catch (IllegalArgumentException e) {
-            throw new InvalidMoveException("Invalid move: " + e.getMessage());
+    /**
+     * Load a game again after its resident session was dropped for another
+     * node's change, re-arming its clock; returns the row's state, which
+     * replaces whatever the players were last shown
+     */
+    public Game resync(Long gameId) {
+        Game game = gameRepo.findById(java.util.Objects.requireNonNull(gameId))
+                .orElseThrow(() -> new ResourceNotFoundException("Game", gameId));
+        java.util.Optional<LiveGame> resident = liveGameRegistry.attach(game);
+        if (resident.isEmpty()) {
+            clockService.cancel(gameId);
+            return game;
+        }
+        LiveGame live = resident.get();
+        synchronized (live) {
+            scheduleFlag(live);
+            Game snapshot = live.snapshot();
+            snapshot.setLegalMoves(gameEngineService.analyze(live.getPosition()).getEncodedMoves());
+            snapshot.setLastMoveCount(0);
+            return snapshot;
         }
     }
 
     public Game getGame(Long gameId) {
-        return gameRepo.findById(java.util.Objects.requireNonNull(gameId))
+        // The resident session is ahead of the row while writes are pending
+        java.util.Optional<LiveGame> live = liveGameRegistry.find(java.util.Objects.requireNonNull(gameId));
+        if (live.isPresent()) {
+            synchronized (live.get()) {
+                return live.get().snapshot();
+            }
+        }
+        return gameRepo.findById(gameId)
                 .orElseThrow(() -> new ResourceNotFoundException("Game", gameId));
     }
 
     public Game resignGame(Long gameId, String username) {
-        Game game = gameRepo.findById(java.util.Objects.requireNonNull(gameId))
-                .orElseThrow(() -> new ResourceNotFoundException("Game", gameId));
+        return optimisticRetry.run("resign", () -> {
+            LiveGame live = getLiveGame(gameId);
+            return gameMailboxes.call(live.getMailbox(), () -> applyResignation(live, username));
+        });
+    }
 
-        if (game.getStatus() != GameStatus.IN_PROGRESS) {
-            throw new GameStateException("Game is not in progress");
+    private Game applyResignation(LiveGame live, String username) {
+        synchronized (live) {
+            requireCurrent(live);
+            Game game = live.getGame();
+            if (game.getStatus() != GameStatus.IN_PROGRESS) {
+                throw new GameStateException("Game is not in progress");
+            }
+
+            User white = game.getWhitePlayer();
+            User black = game.getBlackPlayer();
+
+            if (white.getUsername().equals(username)) {
+                game.setStatus(GameStatus.COMPLETED);
+                game.setResult(GameResult.BLACK_WINS);
+                game.setStatusMessage("Black wins by Resignation");
+            } else if (black != null && black.getUsername().equals(username)) {
+                game.setStatus(GameStatus.COMPLETED);
+                game.setResult(GameResult.WHITE_WINS);
+                game.setStatusMessage("White wins by Resignation");
+            } else {
+                throw new GameStateException("You are not part of this game");
+            }
+            game.setLegalMoves(null);
+            game.setLastMoveCount(0);
+            game.setLagCreditMillis(0);
+
+            Game saved = liveGameRegistry.persist(live);
+            postGameAnalysisService.submit(saved);
+            scheduleFlag(live);
+            return saved;
         }
+    }
+
+    public Game undoLastMove(Long gameId) {
+        return optimisticRetry.run("undo", () -> {
+            java.util.Optional<LiveGame> resident = liveGameRegistry.find(java.util.Objects.requireNonNull(gameId));
+            if (resident.isPresent()) {
+                LiveGame live = resident.get();
+                return gameMailboxes.call(live.getMailbox(), () -> applyUndo(live));
+            }
 
-        User white = game.getWhitePlayer();
-        User black = game.getBlackPlayer();
+            Game game = gameRepo.findById(gameId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Game", gameId));
 
-        if (white.getUsername().equals(username)) {
-            game.setStatus(GameStatus.COMPLETED);
-            game.setStatusMessage("Black wins by Resignation");
-        } else if (black != null && black.getUsername().equals(username)) {
-            game.setStatus(GameStatus.COMPLETED);
-            game.setStatusMessage("White wins by Resignation");
-        } else {
-            throw new GameStateException("You are not part of this game");
+            if (game.getPreviousFen() == null) {
+                throw new GameStateException("No move to undo");
+            }
+
+            restorePreviousFen(game);
+            com.example.IndiChessBackend.engine.MoveList moves = LiveGame.loadMoves(game);
+            moves.removeLast();
+            game.setMoves(moves.toBytes());
+            Game saved = gameRepo.save(game);
+            // save() leaves the moves column alone
+            gameRepo.replaceMoves(saved.getId(), saved.getMoves());
+            liveGameRegistry.register(saved);
+            liveGameRegistry.find(saved.getId()).ifPresent(this::scheduleFlag);
+            return saved;
+        });
+    }
+
+    private Game applyUndo(LiveGame live) {
+        synchronized (live) {
+            requireCurrent(live);
+            Game game = live.getGame();
+            if (game.getPreviousFen() == null) {
+                throw new GameStateException("No move to undo");
+            }
+            restorePreviousFen(game);
+            game.setLastMoveCount(0);
+            game.setLagCreditMillis(0);
+            live.getMoves().removeLast();
+            live.getPremoves(true).clear();
+            live.getPremoves(false).clear();
+            live.getPosition().setFen(game.getFen());
+            game.setLegalMoves(gameEngineService.analyze(live.getPosition()).getEncodedMoves());
+            if (!live.getHistory().pop()) {
+                // The undone move was irreversible; earlier positions are gone
+                live.getHistory().push(live.getPosition().key(), true);
+            }
+            Game saved = liveGameRegistry.persist(live);
+            scheduleFlag(live);
+            return saved;
         }
+    }
 
-        return gameRepo.save(game);
+    /**
+     * Flag the side to move if its time is really gone: the clock service
+     * fires on the deadline, but a move may have got in first. Returns the
+     * finished game, or empty if the game goes on or was already over.
+     */
+    public java.util.Optional<Game> flag(Long gameId) {
+        return optimisticRetry.run("flag", () -> {
+            LiveGame live;
+            try {
+                live = getLiveGame(gameId);
+            } catch (GameStateException | ResourceNotFoundException e) {
+                return java.util.Optional.empty();
+            }
+            return gameMailboxes.call(live.getMailbox(), () -> applyFlag(live));
+        });
     }
 
-    public Game undoLastMove(Long gameId) {
-        Game game = gameRepo.findById(java.util.Objects.requireNonNull(gameId))
-                .orElseThrow(() -> new ResourceNotFoundException("Game", gameId));
+    private java.util.Optional<Game> applyFlag(LiveGame live) {
+        synchronized (live) {
+            requireCurrent(live);
+            Game game = live.getGame();
+            if (game.getStatus() != GameStatus.IN_PROGRESS || game.getTimeControl() == null
+                    || !game.getTimeControl().isTimed() || game.getLastMoveTime() == null) {
+                return java.util.Optional.empty();
+            }
+            boolean whiteToMove = "WHITE".equals(game.getCurrentTurn());
+            if (game.getClockMillis(whiteToMove) - live.elapsedMillis(System.nanoTime()) > 0) {
+                scheduleFlag(live);
+                return java.util.Optional.empty();
+            }
+
+            game.setStatus(GameStatus.COMPLETED);
+            game.setClockMillis(whiteToMove, 0);
+            if (whiteToMove) {
+                game.setResult(GameResult.BLACK_WINS);
+                game.setStatusMessage("Black Wins by Timeout!");
+            } else {
+                game.setResult(GameResult.WHITE_WINS);
+                game.setStatusMessage("White Wins by Timeout!");
+            }
+            game.setLegalMoves(null);
+            game.setLastMoveCount(0);
+            game.setLagCreditMillis(0);
+            live.getPremoves(true).clear();
+            live.getPremoves(false).clear();
+
+            Game saved = liveGameRegistry.persist(live);
+            postGameAnalysisService.submit(saved);
+            return java.util.Optional.of(saved);
+        }
+    }
 
-        if (game.getPreviousFen() == null) {
-            throw new GameStateException("No move to undo");
+    // Arm the flag of the side to move; disarm it once the game is over or untimed
+    private void scheduleFlag(LiveGame live) {
+        Game game = live.getGame();
+        if (game.getStatus() == GameStatus.IN_PROGRESS && game.getTimeControl() != null
+                && game.getTimeControl().isTimed()) {
+            boolean whiteToMove = "WHITE".equals(game.getCurrentTurn());
+            clockService.schedule(game.getId(),
+                    game.getClockMillis(whiteToMove) - live.elapsedMillis(System.nanoTime()));
+        } else {
+            clockService.cancel(game.getId());
         }
+    }
+
+    /**
+     * A session whose row was changed by another node must not be written
+     * again; failing here makes the retry reload it
+     */
+    private static void requireCurrent(LiveGame live) {
+        if (live.isStale()) {
+            throw new org.springframework.orm.ObjectOptimisticLockingFailureException(Game.class,
+                    live.getGame().getId());
+        }
+    }
 
+    private void restorePreviousFen(Game game) {
+        // A finished game's result is already counted in stats and ratings
+        if (game.getStatus() != GameStatus.IN_PROGRESS) {
+            throw new GameStateException("Only a game in progress can be taken back");
+        }
         // Restore FEN and flip turn back
         game.setFen(game.getPreviousFen());
         game.setPreviousFen(null); // Limit to 1 undo for simplicity
-        game.setStatus(GameStatus.IN_PROGRESS); // If it was checkmate, it's not anymore
         game.setStatusMessage(null);
         game.setCurrentTurn(game.getCurrentTurn().equals("WHITE") ? "BLACK" : "WHITE");
+        byte[] keys = game.getRepetitionKeys();
+        game.setRepetitionKeys(keys != null && keys.length > Long.BYTES
+                ? java.util.Arrays.copyOf(keys, keys.length - Long.BYTES)
+                : null);
+    }
 
-        return gameRepo.save(game);
+    /**
+     * Moves from ply on, with clocks and timestamps, for clients catching up
+     */
+    public java.util.List<GameMove> getMovesSince(Long gameId, int ply) {
+        if (liveGameRegistry.find(java.util.Objects.requireNonNull(gameId)).isPresent()) {
+            // The newest plies of a resident game may still be waiting for the writer
+            liveGameRegistry.flushNow();
+        }
+        return gameMoveRepo.findByGameIdAndPlyGreaterThanEqualOrderByPly(gameId, Math.max(0, ply));
     }
 
-    public com.example.IndiChessBackend.model.DTO.UserStatsDTO getUserStats(String username) {
-        User user = userRepo.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", username));
-        // Fetch all games involving the user
-        // Note: repo method usage assumes we pass the user for both arguments to get
-        // games where they are white OR black
-        java.util.List<Game> games = gameRepo.findByWhitePlayerOrBlackPlayer(user, user);
-
-        int wins = 0;
-        int losses = 0;
-        int draws = 0;
-
-        for (Game g : games) {
-            // Only count finished games
-            if (g.getStatus() == GameStatus.COMPLETED || g.getStatus() == GameStatus.FINISHED) {
-                String msg = g.getStatusMessage() != null ? g.getStatusMessage().toLowerCase() : "";
-                boolean isWhite = g.getWhitePlayer().equals(user);
-
-                if (msg.contains("draw") || msg.contains("stalemate")) {
-                    draws++;
-                } else if (msg.contains("white wins")) {
-                    if (isWhite)
-                        wins++;
-                    else
-                        losses++;
-                } else if (msg.contains("black wins")) {
-                    if (!isWhite)
-                        wins++;
-                    else
-                        losses++;
-                }
-            }
+    /**
+     * The game as PGN with SAN movetext, built from the stored move list
+     */
+    public String getPgn(Long gameId) {
+        Game game = getGame(gameId);
+        StringBuilder pgn = new StringBuilder();
+        appendTag(pgn, "Event", "IndiChess game " + game.getId());
+        appendTag(pgn, "Site", "IndiChess");
+        appendTag(pgn, "White", game.getWhitePlayer() != null ? game.getWhitePlayer().getUsername() : "?");
+        appendTag(pgn, "Black", game.getBlackPlayer() != null ? game.getBlackPlayer().getUsername() : "?");
+        String result = pgnResult(game);
+        appendTag(pgn, "Result", result);
+        if (game.getOpeningEco() != null) {
+            appendTag(pgn, "ECO", game.getOpeningEco());
+            appendTag(pgn, "Opening", game.getOpeningName());
         }
+        pgn.append('\n');
+        String movetext = com.example.IndiChessBackend.engine.Notation.movetext(
+                gameEngineService.getInitialFen(), LiveGame.loadMoves(game).toArray());
+        pgn.append(movetext.isEmpty() ? result : movetext + " " + result).append('\n');
+        return pgn.toString();
+    }
 
-        return new com.example.IndiChessBackend.model.DTO.UserStatsDTO(wins + losses + draws, wins, losses, draws);
+    private static void appendTag(StringBuilder pgn, String name, String value) {
+        pgn.append('[').append(name).append(" \"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\""))
+                .append("\"]\n");
+    }
+
+    private static String pgnResult(Game game) {
+        if (game.getResult() == null) {
+            return "*";
+        }
+        switch (game.getResult()) {
+            case WHITE_WINS:
+                return "1-0";
+            case BLACK_WINS:
+                return "0-1";
+            default:
+                return "1/2-1/2";
+        }
     }
 }
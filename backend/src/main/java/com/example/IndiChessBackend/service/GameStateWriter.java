@@ -0,0 +1,47 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.repo.GameRepo;
+import com.example.IndiChessBackend.repo.GameStateWrite;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Writes a batch of live game states in one transaction, then hands each game
+ * that finished in it to the {@link GameCompletionListener}s in a transaction
+ * of its own, so derived data that fails for one game never holds back the
+ * moves of the others
+ */
+@Component
+@RequiredArgsConstructor
+public class GameStateWriter {
+
+    private final GameRepo gameRepo;
+    private final List<GameCompletionListener> listeners;
+
+    /**
+     * Same result as {@link GameRepo#writeLiveStates}: per write, 1 if stored
+     * and 0 if the row's version had moved on
+     */
+    @Transactional
+    public int[] write(List<GameStateWrite> writes) {
+        return gameRepo.writeLiveStates(writes);
+    }
+
+    /**
+     * Run the listeners for one game whose final state has been committed.
+     * Throws if any of them fails, after rolling back what all of them did
+     * for this game, so the call can simply be made again.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void complete(Game game) {
+        List<Game> completed = List.of(game);
+        for (GameCompletionListener listener : listeners) {
+            listener.gamesCompleted(completed);
+        }
+    }
+}
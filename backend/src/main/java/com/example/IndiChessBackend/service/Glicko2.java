@@ -0,0 +1,124 @@
+package com.example.IndiChessBackend.service;
+
+/**
+ * Glicko-2 rating arithmetic (Glickman, "Example of the Glicko-2 system").
+ * Ratings are kept on the familiar Glicko scale (1500 / 350) and converted to
+ * the internal mu / phi scale only inside {@link #rate}.
+ */
+public final class Glicko2 {
+
+    public static final double DEFAULT_RATING = 1500;
+    public static final double DEFAULT_DEVIATION = 350;
+    public static final double DEFAULT_VOLATILITY = 0.06;
+
+    // Lower bound keeps long-standing ratings responsive
+    public static final double MIN_DEVIATION = 30;
+
+    private static final double SCALE = 173.7178;
+    private static final double TAU = 0.5; // Constrains volatility change
+    private static final double EPSILON = 0.000001;
+
+    public record Rating(double rating, double deviation, double volatility) {
+    }
+
+    private Glicko2() {
+    }
+
+    public static Rating initial() {
+        return new Rating(DEFAULT_RATING, DEFAULT_DEVIATION, DEFAULT_VOLATILITY);
+    }
+
+    /**
+     * New rating after a single game, scored 1, 0.5 or 0 for the player
+     */
+    public static Rating rate(Rating player, Rating opponent, double score) {
+        return rate(player, new double[] { opponent.rating() }, new double[] { opponent.deviation() },
+                new double[] { score }, 1);
+    }
+
+    /**
+     * New rating after the first count games of a rating period
+     */
+    public static Rating rate(Rating player, double[] opponentRatings, double[] opponentDeviations,
+            double[] scores, int count) {
+        if (count == 0) {
+            return new Rating(player.rating(), inflate(player.deviation(), player.volatility()), player.volatility());
+        }
+        double mu = (player.rating() - DEFAULT_RATING) / SCALE;
+        double phi = player.deviation() / SCALE;
+        double sigma = player.volatility();
+
+        double vInverse = 0;
+        double improvement = 0;
+        for (int i = 0; i < count; i++) {
+            double g = g(opponentDeviations[i] / SCALE);
+            double e = 1 / (1 + Math.exp(-g * (mu - (opponentRatings[i] - DEFAULT_RATING) / SCALE)));
+            vInverse += g * g * e * (1 - e);
+            improvement += g * (scores[i] - e);
+        }
+        double v = 1 / vInverse;
+        double delta = v * improvement;
+
+        double newSigma = volatility(phi, sigma, v, delta);
+        double phiStar = Math.sqrt(phi * phi + newSigma * newSigma);
+        double newPhi = 1 / Math.sqrt(1 / (phiStar * phiStar) + 1 / v);
+        double newMu = mu + newPhi * newPhi * improvement;
+
+        double deviation = Math.max(MIN_DEVIATION, Math.min(DEFAULT_DEVIATION, SCALE * newPhi));
+        return new Rating(SCALE * newMu + DEFAULT_RATING, deviation, newSigma);
+    }
+
+    /**
+     * Deviation after a rating period without games: uncertainty grows with
+     * the volatility, never past that of a new player
+     */
+    public static double inflate(double deviation, double volatility) {
+        double phi = deviation / SCALE;
+        return Math.min(DEFAULT_DEVIATION, SCALE * Math.sqrt(phi * phi + volatility * volatility));
+    }
+
+    private static double g(double phi) {
+        return 1 / Math.sqrt(1 + 3 * phi * phi / (Math.PI * Math.PI));
+    }
+
+    // Step 5: Illinois-algorithm root of f(x), x = ln(sigma'^2)
+    private static double volatility(double phi, double sigma, double v, double delta) {
+        double a = Math.log(sigma * sigma);
+        double phi2 = phi * phi;
+        double delta2 = delta * delta;
+
+        double lower = a;
+        double upper;
+        if (delta2 > phi2 + v) {
+            upper = Math.log(delta2 - phi2 - v);
+        } else {
+            int k = 1;
+            while (f(a - k * TAU, a, phi2, v, delta2) < 0) {
+                k++;
+            }
+            upper = a - k * TAU;
+        }
+
+        double fLower = f(lower, a, phi2, v, delta2);
+        double fUpper = f(upper, a, phi2, v, delta2);
+        while (Math.abs(upper - lower) > EPSILON) {
+            double c = lower + (lower - upper) * fLower / (fUpper - fLower);
+            double fC = f(c, a, phi2, v, delta2);
+            if (fC * fUpper <= 0) {
+                lower = upper;
+                fLower = fUpper;
+            } else {
+                fLower /= 2;
+            }
+            upper = c;
+            fUpper = fC;
+        }
+        return Math.exp(lower / 2);
+    }
+
+    private static double f(double x, double a, double phi2, double v, double delta2) {
+        double ex = Math.exp(x);
+        double d = phi2 + v + ex;
+        return ex * (delta2 - phi2 - v - ex) / (2 * d * d) - (x - a) / (TAU * TAU);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.IndiChessBackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Round-trip time of each STOMP session, measured with /app/ping and
+ * /app/pong frames on the game connection itself. A move's way in took
+ * about half the round trip, so that much of the mover's thinking time is
+ * credited back, capped at max-lag-credit-millis so a slow link cannot buy
+ * unlimited time. Ping tokens are random, remembered per session with the
+ * time they were sent, and good for one pong from that session only: the
+ * round trip is always timed from the server's own clock.
+ */
+@Service
+public class LagService {
+
+    private static final long MAX_SAMPLE_NANOS = 10_000_000_000L; // Anything slower is not a round trip
+    private static final int MAX_OUTSTANDING = 4; // Unanswered pings kept per session; older ones are given up
+
+    private final long maxCreditMillis;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Long> rttNanos = new ConcurrentHashMap<>();
+    // sessionId -> token -> System.nanoTime() it was sent, oldest first; only touched inside compute
+    private final Map<String, LinkedHashMap<String, Long>> outstanding = new ConcurrentHashMap<>();
+
+    public LagService(@Value("${indichess.clock.max-lag-credit-millis:500}") long maxCreditMillis) {
+        this.maxCreditMillis = Math.max(0, maxCreditMillis);
+    }
+
+    /**
+     * New token for a ping sent to this session; the client echoes it back
+     * in its pong
+     */
+    public String pingToken(String sessionId) {
+        String token = Long.toHexString(random.nextLong());
+        long now = System.nanoTime();
+        outstanding.compute(sessionId, (id, tokens) -> {
+            LinkedHashMap<String, Long> issued = tokens != null ? tokens : new LinkedHashMap<>();
+            issued.put(token, now);
+            if (issued.size() > MAX_OUTSTANDING) {
+                issued.remove(issued.keySet().iterator().next());
+            }
+            return issued;
+        });
+        return token;
+    }
+
+    /**
+     * Fold the round trip since the ping carrying token into the session's
+     * average (EWMA, 1/8 weight). Tokens this session was not sent, already
+     * answered, given up or older than a plausible round trip are ignored.
+     */
+    public void pong(String sessionId, String token) {
+        if (sessionId == null || token == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        Long[] sentAt = new Long[1];
+        outstanding.computeIfPresent(sessionId, (id, issued) -> {
+            sentAt[0] = issued.remove(token);
+            return issued.isEmpty() ? null : issued;
+        });
+        if (sentAt[0] == null || now - sentAt[0] > MAX_SAMPLE_NANOS) {
+            return;
+        }
+        rttNanos.merge(sessionId, now - sentAt[0], (old, next) -> (old * 7 + next) / 8);
+    }
+
+    /**
+     * Milliseconds to give back to a move that arrived on this session
+     */
+    public long creditMillis(String sessionId) {
+        Long rtt = sessionId != null ? rttNanos.get(sessionId) : null;
+        return rtt != null ? Math.min(rtt / 2 / 1_000_000, maxCreditMillis) : 0;
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        rttNanos.remove(event.getSessionId());
+        outstanding.remove(event.getSessionId());
+    }
+}
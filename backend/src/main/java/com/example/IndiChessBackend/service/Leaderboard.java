@@ -0,0 +1,177 @@
+package com.example.IndiChessBackend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Order-statistic standings of one time control. Ratings fall into 0.1-point
+ * buckets, highest first; a Fenwick tree over the bucket sizes answers "how
+ * many players rank above this bucket" and "which bucket holds rank r" in
+ * O(log buckets), and each bucket keeps its few players sorted. Reads share
+ * a read lock, so rank and page queries run in parallel.
+ */
+public final class Leaderboard {
+
+    private static final int SCALE = 10; // Buckets per rating point
+    private static final int BUCKETS = 4000 * SCALE; // Ratings 0 up to 4000
+
+    public record Entry(Long userId, String username, double rating, long updatedAt) {
+    }
+
+    public record Ranked(int rank, Entry entry) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::rating).reversed()
+            .thenComparing(Entry::userId);
+
+    private final int[] tree = new int[BUCKETS + 1]; // Fenwick tree, 1-based
+    @SuppressWarnings("unchecked")
+    private final TreeSet<Entry>[] buckets = new TreeSet[BUCKETS];
+    private final Map<Long, Entry> byUser = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Insert or move a player. An entry older than the one held is ignored,
+     * so a rebuild from the database never undoes a newer game's update.
+     */
+    public void put(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            Entry old = byUser.get(entry.userId());
+            if (old != null) {
+                if (old.updatedAt() > entry.updatedAt()) {
+                    return;
+                }
+                int index = bucket(old.rating());
+                buckets[index].remove(old);
+                add(index, -1);
+            }
+            byUser.put(entry.userId(), entry);
+            int index = bucket(entry.rating());
+            if (buckets[index] == null) {
+                buckets[index] = new TreeSet<>(ORDER);
+            }
+            buckets[index].add(entry);
+            add(index, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 1-based rank of the player, or 0 if not ranked
+     */
+    public int rank(Long userId) {
+        lock.readLock().lock();
+        try {
+            return rankOf(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit players from the given 0-based offset, best first
+     */
+    public List<Ranked> page(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return pageFrom(offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Ranked> pageFrom(int offset, int limit) {
+        List<Ranked> page = new ArrayList<>(Math.max(0, Math.min(limit, byUser.size() - offset)));
+        int rank = offset;
+        while (page.size() < limit && rank < byUser.size()) {
+            // Bucket holding this rank, then its players from there on
+            int index = find(rank);
+            Iterator<Entry> players = buckets[index].iterator();
+            for (int skip = rank - prefix(index); skip > 0; skip--) {
+                players.next();
+            }
+            while (players.hasNext() && page.size() < limit) {
+                page.add(new Ranked(++rank, players.next()));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * The player and up to count neighbours on either side; empty if not ranked
+     */
+    public List<Ranked> around(Long userId, int count) {
+        lock.readLock().lock();
+        try {
+            int rank = rankOf(userId);
+            if (rank == 0) {
+                return List.of();
+            }
+            int from = Math.max(0, rank - 1 - count);
+            return pageFrom(from, rank - from + count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int rankOf(Long userId) {
+        Entry entry = byUser.get(userId);
+        if (entry == null) {
+            return 0;
+        }
+        int index = bucket(entry.rating());
+        return prefix(index) + buckets[index].headSet(entry).size() + 1;
+    }
+
+    // Highest ratings first; anything outside the range shares the end buckets
+    private static int bucket(double rating) {
+        int scaled = (int) Math.floor(rating * SCALE);
+        return BUCKETS - 1 - Math.max(0, Math.min(BUCKETS - 1, scaled));
+    }
+
+    private void add(int index, int delta) {
+        for (int i = index + 1; i <= BUCKETS; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Players in buckets before index
+    private int prefix(int index) {
+        int sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Bucket of the player at 0-based rank: the longest prefix holding at most rank players ends just before it
+    private int find(int rank) {
+        int position = 0;
+        int remaining = rank;
+        for (int step = Integer.highestOneBit(BUCKETS); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= BUCKETS && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+}
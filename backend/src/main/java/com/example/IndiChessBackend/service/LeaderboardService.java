@@ -0,0 +1,126 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.dto.LeaderboardDTO;
+import com.example.IndiChessBackend.dto.LeaderboardEntryDTO;
+import com.example.IndiChessBackend.exception.ResourceNotFoundException;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.RatingStanding;
+import com.example.IndiChessBackend.repo.UserRatingRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rating standings per time control, held in memory as {@link Leaderboard}s.
+ * Filled from user_ratings at startup and moved as games are rated, so rank
+ * and page reads never touch the database.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final UserRatingRepo userRatingRepo;
+    private final UserRepo userRepo;
+    private final int rebuildBatchSize;
+    private final Map<TimeControl, Leaderboard> boards = new EnumMap<>(TimeControl.class);
+
+    public LeaderboardService(UserRatingRepo userRatingRepo, UserRepo userRepo,
+            @Value("${indichess.leaderboard.rebuild-batch-size:5000}") int rebuildBatchSize) {
+        this.userRatingRepo = userRatingRepo;
+        this.userRepo = userRepo;
+        this.rebuildBatchSize = Math.max(1, rebuildBatchSize);
+        for (TimeControl timeControl : TimeControl.values()) {
+            boards.put(timeControl, new Leaderboard());
+        }
+    }
+
+    /**
+     * Load every stored rating. Games rated meanwhile keep their newer entry.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        int loaded = 0;
+        for (TimeControl timeControl : TimeControl.values()) {
+            long afterUserId = 0;
+            while (true) {
+                List<RatingStanding> page = userRatingRepo.findStandings(timeControl, afterUserId, rebuildBatchSize);
+                put(page);
+                loaded += page.size();
+                if (page.size() < rebuildBatchSize) {
+                    break;
+                }
+                afterUserId = page.get(page.size() - 1).userId();
+            }
+        }
+        System.out.println("🏆 Loaded " + loaded + " ratings into the leaderboards in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Move players once the transaction that rated them commits, so a rolled
+     * back rating never shows up
+     */
+    public void putAfterCommit(List<RatingStanding> standings) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(standings);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(standings);
+            }
+        });
+    }
+
+    private void put(List<RatingStanding> standings) {
+        for (RatingStanding standing : standings) {
+            boards.get(standing.timeControl()).put(new Leaderboard.Entry(standing.userId(), standing.username(),
+                    standing.rating(), standing.updatedAt()));
+        }
+    }
+
+    /**
+     * One page of the standings, best first
+     */
+    public LeaderboardDTO top(TimeControl timeControl, int page, int size) {
+        int limit = Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        Leaderboard board = boards.get(timeControl);
+        long offset = (long) Math.max(0, page) * limit;
+        List<Leaderboard.Ranked> ranked = offset < Integer.MAX_VALUE ? board.page((int) offset, limit) : List.of();
+        return dto(timeControl, board, ranked);
+    }
+
+    /**
+     * The user and up to count players either side; no entries if the user
+     * has no rated game in this time control
+     */
+    public LeaderboardDTO around(TimeControl timeControl, String username, int count) {
+        User user = userRepo.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", username));
+        Leaderboard board = boards.get(timeControl);
+        int neighbours = Math.max(0, Math.min(MAX_PAGE_SIZE / 2, count));
+        return dto(timeControl, board, board.around(user.getUserId(), neighbours));
+    }
+
+    private static LeaderboardDTO dto(TimeControl timeControl, Leaderboard board, List<Leaderboard.Ranked> ranked) {
+        List<LeaderboardEntryDTO> entries = new ArrayList<>(ranked.size());
+        for (Leaderboard.Ranked r : ranked) {
+            entries.add(new LeaderboardEntryDTO(r.rank(), r.entry().username(),
+                    (int) Math.round(r.entry().rating())));
+        }
+        return new LeaderboardDTO(timeControl.name(), board.size(), entries);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameMove;
+import com.example.IndiChessBackend.engine.Move;
+import com.example.IndiChessBackend.engine.MoveList;
+import com.example.IndiChessBackend.engine.Position;
+import com.example.IndiChessBackend.engine.RepetitionHistory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Resident state of an IN_PROGRESS game.
+ * Holds the parsed position, the clocks (on the game entity), the move list and
+ * the repetition history so a move never has to reload the row, re-parse the
+ * FEN or replay the game.
+ * Changes run one at a time in the game's mailbox (see {@link GameMailboxes});
+ * they also hold the instance monitor so readers can take consistent snapshots.
+ */
+public class LiveGame {
+
+    /**
+     * A move queued by a player before the opponent has replied; it is checked
+     * for legality only when its turn comes
+     */
+    public record Premove(String from, String to, String promotion) {
+    }
+
+    private final Game game;
+    private final Position position;
+    private final MoveList moves;
+    private final RepetitionHistory history;
+    private final GameMailboxes.Mailbox mailbox = new GameMailboxes.Mailbox();
+    private final ArrayDeque<Premove> whitePremoves = new ArrayDeque<>();
+    private final ArrayDeque<Premove> blackPremoves = new ArrayDeque<>();
+    // game_moves rows made since the last persist()
+    private List<GameMove> recordedMoves = new ArrayList<>();
+
+    // Length of the moves column and row version in the database; only touched by the registry's writer
+    int persistedMoveBytes;
+    long persistedVersion;
+
+    // Set when another writer changed the row; the session must be reloaded
+    private volatile boolean stale;
+
+    // System.nanoTime() when the side to move's clock started; immune to wall-clock jumps
+    private long turnStartedNanos;
+
+    LiveGame(Game game, Position position, MoveList moves, RepetitionHistory history, int persistedMoveBytes) {
+        this.game = game;
+        this.position = position;
+        this.moves = moves;
+        this.history = history;
+        this.persistedMoveBytes = persistedMoveBytes;
+        this.persistedVersion = game.getVersion();
+        // A loaded row's clock has been running since its last move
+        long since = game.getLastMoveTime() != null
+                ? Math.max(0, System.currentTimeMillis() - game.getLastMoveTime())
+                : 0;
+        this.turnStartedNanos = System.nanoTime() - since * 1_000_000;
+    }
+
+    static LiveGame of(Game game) {
+        Position position = new Position(game.getFen());
+
+        MoveList moves = loadMoves(game);
+        // Legacy rows have no binary column yet; the first write replaces it whole
+        int persisted = game.getMoves() != null ? game.getMoves().length : 0;
+
+        // Rows written before the history column existed start from the current position
+        RepetitionHistory history = RepetitionHistory.fromBytes(game.getRepetitionKeys());
+        if (history.size() == 0) {
+            history.push(position.key(), true);
+        }
+        return new LiveGame(game, position, moves, history, persisted);
+    }
+
+    /**
+     * Move list of a row, converting the text history of rows written before
+     * the binary column existed
+     */
+    static MoveList loadMoves(Game game) {
+        if (game.getMoves() != null) {
+            return MoveList.fromBytes(game.getMoves());
+        }
+        MoveList moves = new MoveList();
+        String pgn = game.getLegacyPgn();
+        if (pgn != null && !pgn.isBlank()) {
+            Position replay = new Position();
+            for (String uci : pgn.trim().split("\\s+")) {
+                int move = Move.parseUci(replay, uci);
+                if (move == Move.NONE) {
+                    break;
+                }
+                replay.makeMove(move);
+                moves.add(move);
+            }
+        }
+        return moves;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    public MoveList getMoves() {
+        return moves;
+    }
+
+    public RepetitionHistory getHistory() {
+        return history;
+    }
+
+    public GameMailboxes.Mailbox getMailbox() {
+        return mailbox;
+    }
+
+    /**
+     * Milliseconds the side to move has been thinking, on the monotonic clock
+     */
+    public long elapsedMillis(long nowNanos) {
+        return Math.max(0, (nowNanos - turnStartedNanos) / 1_000_000);
+    }
+
+    public void startTurn(long nowNanos) {
+        turnStartedNanos = nowNanos;
+    }
+
+    public Deque<Premove> getPremoves(boolean white) {
+        return white ? whitePremoves : blackPremoves;
+    }
+
+    public void recordMove(GameMove move) {
+        recordedMoves.add(move);
+    }
+
+    List<GameMove> drainRecordedMoves() {
+        List<GameMove> drained = recordedMoves;
+        recordedMoves = new ArrayList<>();
+        return drained;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    void markStale() {
+        stale = true;
+    }
+
+    /**
+     * Copy of the current entity state, safe to hand to other threads while
+     * this session keeps mutating.
+     */
+    public Game snapshot() {
+        return new Game(
+                game.getId(),
+                game.getWhitePlayer(),
+                game.getBlackPlayer(),
+                game.getFen(),
+                moves.toBytes(),
+                game.getLegacyPgn(),
+                game.getStatus(),
+                game.getCurrentTurn(),
+                game.getTimeControl(),
+                game.getWhiteTimeRemaining(),
+                game.getBlackTimeRemaining(),
+                game.getWhiteClockMillis(),
+                game.getBlackClockMillis(),
+                game.getLastMoveTime(),
+                game.getStatusMessage(),
+                game.getResult(),
+                game.getPreviousFen(),
+                history.toBytes(),
+                game.getOpeningEco(),
+                game.getOpeningName(),
+                game.getVersion(),
+                game.getLegalMoves(),
+                game.getLastMoveCount(),
+                game.getLagCreditMillis());
+    }
+}
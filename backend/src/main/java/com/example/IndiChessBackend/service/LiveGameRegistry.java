@@ -0,0 +1,343 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameMove;
+import com.example.IndiChessBackend.model.GameStatus;
+import com.example.IndiChessBackend.repo.GameStateWrite;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registry of live (IN_PROGRESS) game sessions.
+ * Sessions are loaded from the database once and then kept in memory; changes
+ * are written back behind the moves, in batches, on a background writer thread.
+ */
+@Component
+public class LiveGameRegistry {
+
+    /**
+     * Published when a session's unwritten changes were thrown away because
+     * another writer changed its row; the clients must be sent the row's state
+     */
+    public record SessionDropped(Long gameId) {
+    }
+
+    private static final class PendingWrite {
+        private final LiveGame live;
+        private final Game snapshot;
+        private final List<GameMove> moves; // Every ply recorded since the last write, undone ones included
+
+        PendingWrite(LiveGame live, Game snapshot, List<GameMove> moves) {
+            this.live = live;
+            this.snapshot = snapshot;
+            this.moves = moves;
+        }
+
+        // Keeps the newer state and the plies recorded by both
+        PendingWrite after(PendingWrite older) {
+            if (older == null) {
+                return this;
+            }
+            List<GameMove> all = new ArrayList<>(older.moves);
+            all.addAll(moves);
+            return new PendingWrite(live, snapshot, all);
+        }
+    }
+
+    // A game whose listeners keep failing is given up on after this many attempts
+    static final int COMPLETION_ATTEMPTS = 5;
+
+    private record Completion(Game game, int attempts) {
+    }
+
+    private final GameStateWriter stateWriter;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+
+    // gameId -> live session
+    private final ConcurrentHashMap<Long, LiveGame> sessions = new ConcurrentHashMap<>();
+
+    // gameId -> newest unwritten state; a game moving twice between flushes is written once
+    private final ConcurrentHashMap<Long, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    // Writer thread only: finished games whose completion listeners failed, retried each flush
+    private final ArrayDeque<Completion> failedCompletions = new ArrayDeque<>();
+
+    // Single writer: flushes never overlap, so a game's states are written in order
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "live-game-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LiveGameRegistry(GameStateWriter stateWriter, ApplicationEventPublisher events,
+            @Value("${indichess.write-behind.flush-millis:200}") long flushMillis,
+            @Value("${indichess.write-behind.batch-size:100}") int batchSize) {
+        this.stateWriter = stateWriter;
+        this.events = events;
+        this.batchSize = Math.max(1, batchSize);
+        writer.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the live session of a freshly loaded game, creating it if this is the
+     * first access. Returns empty if the game is not in progress.
+     */
+    public Optional<LiveGame> attach(Game game) {
+        LiveGame live = sessions.get(game.getId());
+        if (live != null) {
+            return Optional.of(live);
+        }
+        if (game.getStatus() != GameStatus.IN_PROGRESS) {
+            return Optional.empty();
+        }
+        LiveGame loaded = LiveGame.of(game);
+        LiveGame existing = sessions.putIfAbsent(game.getId(), loaded);
+        return Optional.of(existing != null ? existing : loaded);
+    }
+
+    /**
+     * Get an already resident session without touching the database
+     */
+    public Optional<LiveGame> find(Long gameId) {
+        return Optional.ofNullable(sessions.get(gameId));
+    }
+
+    /**
+     * Register a game that has just started so its first move is served from memory
+     */
+    public void register(Game game) {
+        if (game.getStatus() == GameStatus.IN_PROGRESS) {
+            sessions.putIfAbsent(game.getId(), LiveGame.of(game));
+        }
+    }
+
+    /**
+     * Queue a write of the current session state. Writes are behind and
+     * coalesced: only the newest state of each game is kept, and all pending
+     * games go to the database together as one JDBC batch, every flush-millis
+     * or as soon as batch-size games are waiting. A finished game flushes at
+     * once and is dropped from the registry after its final state is written.
+     * Must be called from the game's mailbox so the snapshot is consistent.
+     */
+    public Game persist(LiveGame live) {
+        Game snapshot = live.snapshot();
+        PendingWrite write = new PendingWrite(live, snapshot, live.drainRecordedMoves());
+        pending.compute(snapshot.getId(), (id, older) -> write.after(older));
+        if (snapshot.getStatus() != GameStatus.IN_PROGRESS || pending.size() >= batchSize) {
+            requestFlush();
+        }
+        return snapshot;
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false); // Shutting down; the final flush picks it up
+            }
+        }
+    }
+
+    /**
+     * Writer thread only. Writes carry the row version their session last
+     * wrote, so a row changed by another node is never overwritten blindly;
+     * see {@link #reconcile}.
+     */
+    private void flush() {
+        flushRequested.set(false);
+        retryCompletions();
+        while (!pending.isEmpty()) {
+            List<PendingWrite> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+            for (Long gameId : pending.keySet()) {
+                PendingWrite write = pending.remove(gameId);
+                if (write != null && !write.live.isStale()) {
+                    batch.add(write);
+                }
+                if (batch.size() == batchSize) {
+                    break;
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (!writeBatch(batch)) {
+                return; // Database trouble; retried on the next tick
+            }
+        }
+    }
+
+    private boolean writeBatch(List<PendingWrite> batch) {
+        List<GameStateWrite> writes = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            byte[] moves = write.snapshot.getMoves();
+            int keep = Math.min(write.live.persistedMoveBytes, moves.length);
+            writes.add(new GameStateWrite(write.snapshot, write.live.persistedVersion, keep,
+                    Arrays.copyOfRange(moves, keep, moves.length), keep < write.live.persistedMoveBytes,
+                    newMoves(write.moves, keep / 2, moves.length / 2)));
+        }
+
+        int[] counts;
+        try {
+            counts = stateWriter.write(writes);
+        } catch (Exception e) {
+            System.err.println("❌ Failed to persist " + batch.size() + " games: " + e.getMessage());
+            batch.forEach(this::requeue);
+            return false;
+        }
+
+        List<Game> completed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            Long gameId = write.snapshot.getId();
+            if (counts[i] == 0) {
+                reconcile(write);
+                continue;
+            }
+            write.live.persistedVersion++;
+            write.live.persistedMoveBytes = write.snapshot.getMoves().length;
+            if (write.snapshot.getStatus() != GameStatus.IN_PROGRESS) {
+                sessions.remove(gameId, write.live);
+                completed.add(write.snapshot);
+            }
+        }
+        // After the batch has committed, one game at a time: a game whose
+        // listeners fail never rolls back or holds up the others' moves
+        for (Game game : completed) {
+            complete(game, 0);
+        }
+        return true;
+    }
+
+    private void complete(Game game, int attempts) {
+        try {
+            stateWriter.complete(game);
+        } catch (Exception e) {
+            if (attempts + 1 < COMPLETION_ATTEMPTS) {
+                System.err.println("⚠️ Completion of game " + game.getId() + " failed, retrying: " + e.getMessage());
+                failedCompletions.add(new Completion(game, attempts + 1));
+            } else {
+                System.err.println("❌ Giving up on completing game " + game.getId() + " after "
+                        + COMPLETION_ATTEMPTS + " attempts: " + e.getMessage());
+            }
+        }
+    }
+
+    private void retryCompletions() {
+        for (int i = failedCompletions.size(); i > 0; i--) {
+            Completion completion = failedCompletions.poll();
+            complete(completion.game(), completion.attempts());
+        }
+    }
+
+    // Requeue behind any newer state queued meanwhile
+    private void requeue(PendingWrite write) {
+        pending.compute(write.snapshot.getId(), (id, newer) -> newer == null ? write : newer.after(write));
+    }
+
+    /**
+     * The row's version moved on under an unwritten state: another writer
+     * changed the game. Its change wins whatever columns it touched, so the
+     * unwritten state, moves included, is never written over it. The session
+     * is dropped and a {@link SessionDropped} sends the clients the row's
+     * state in place of what they were shown; play resumes from the row.
+     */
+    private void reconcile(PendingWrite write) {
+        Long gameId = write.snapshot.getId();
+        System.err.println("⚠️ Game " + gameId + " changed elsewhere, dropping its unwritten state");
+        write.live.markStale();
+        sessions.remove(gameId, write.live);
+        try {
+            events.publishEvent(new SessionDropped(gameId));
+        } catch (Exception e) {
+            System.err.println("❌ Failed to resync game " + gameId + ": " + e.getMessage());
+        }
+    }
+
+    // Rows for plies [from, to) of the stored list; a ply taken back and replayed keeps its last version
+    private static List<GameMove> newMoves(List<GameMove> recorded, int from, int to) {
+        GameMove[] byPly = new GameMove[Math.max(0, to - from)];
+        for (GameMove move : recorded) {
+            if (move.getPly() >= from && move.getPly() < to) {
+                byPly[move.getPly() - from] = move;
+            }
+        }
+        List<GameMove> rows = new ArrayList<>(byPly.length);
+        for (GameMove move : byPly) {
+            if (move != null) {
+                rows.add(move);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Write everything pending now and wait for it, so a read from the
+     * database sees the latest moves of resident games
+     */
+    public void flushNow() {
+        try {
+            writer.submit(this::flush).get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+            System.err.println("⚠️ Could not flush pending game writes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resident sessions, weakly consistent: sessions added or removed while
+     * iterating may or may not be seen
+     */
+    public java.util.Collection<LiveGame> sessions() {
+        return java.util.Collections.unmodifiableCollection(sessions.values());
+    }
+
+    /**
+     * Number of resident sessions (for monitoring)
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Number of games with unwritten changes (for monitoring)
+     */
+    public int pendingWrites() {
+        return pending.size();
+    }
+
+    /**
+     * Flush pending writes on shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        writer.execute(this::flush);
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.IndiChessBackend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Players waiting in one time-control queue, ordered by rating in a
+ * concurrent skip list. Two players may be paired when their rating gap fits
+ * the acceptable window of both; a window starts at initialWindow and widens
+ * by windowGrowthPerSecond while the player waits, up to maxWindow. The best
+ * opponent is the nearest rating either side, found in O(log n); only
+ * neighbours whose own window is still too narrow are stepped over.
+ * A player belongs to whoever removes them from the skip list, so concurrent
+ * joins, ticks and leaves never hand the same player out twice.
+ */
+public final class MatchmakingPool {
+
+    public record Seeker(String username, double rating, long queuedAt) {
+    }
+
+    public record Pair(Seeker first, Seeker second) {
+    }
+
+    /**
+     * How a tick pairs the waiting players
+     */
+    public enum Algorithm {
+        /** Each player in rating order takes its nearest acceptable opponent */
+        GREEDY,
+        /** One pairing of the whole queue with the least total cost (see pairGlobally) */
+        GLOBAL
+    }
+
+    private static final Comparator<Seeker> ORDER = Comparator.comparingDouble(Seeker::rating)
+            .thenComparingLong(Seeker::queuedAt)
+            .thenComparing(Seeker::username);
+
+    private final ConcurrentSkipListSet<Seeker> byRating = new ConcurrentSkipListSet<>(ORDER);
+    private final ConcurrentHashMap<String, Seeker> byUser = new ConcurrentHashMap<>();
+    private final double initialWindow;
+    private final double windowGrowthPerSecond;
+    private final double maxWindow;
+
+    public MatchmakingPool(double initialWindow, double windowGrowthPerSecond, double maxWindow) {
+        this.initialWindow = initialWindow;
+        this.windowGrowthPerSecond = windowGrowthPerSecond;
+        this.maxWindow = Math.max(initialWindow, maxWindow);
+    }
+
+    /**
+     * Rating gap the seeker accepts after waiting until now
+     */
+    public double window(Seeker seeker, long now) {
+        double waited = Math.max(0, now - seeker.queuedAt()) / 1000.0;
+        return Math.min(maxWindow, initialWindow + windowGrowthPerSecond * waited);
+    }
+
+    /**
+     * Start waiting; false if the player is already waiting here
+     */
+    public boolean add(Seeker seeker) {
+        if (byUser.putIfAbsent(seeker.username(), seeker) != null) {
+            return false;
+        }
+        byRating.add(seeker);
+        return true;
+    }
+
+    /**
+     * Stop waiting; null if the player was not waiting or has just been paired
+     */
+    public Seeker remove(String username) {
+        Seeker seeker = byUser.remove(username);
+        return seeker != null && byRating.remove(seeker) ? seeker : null;
+    }
+
+    public boolean contains(String username) {
+        return byUser.containsKey(username);
+    }
+
+    public Seeker get(String username) {
+        return byUser.get(username);
+    }
+
+    public int size() {
+        return byUser.size();
+    }
+
+    /**
+     * Take the best opponent for a seeker who is not waiting (a player just
+     * joining), or null if nobody acceptable is waiting
+     */
+    public Seeker claimOpponent(Seeker seeker, long now) {
+        for (Seeker opponent = best(seeker, now); opponent != null; opponent = best(seeker, now)) {
+            if (claim(opponent)) {
+                return opponent;
+            }
+            // Taken by someone else meanwhile; look again
+        }
+        return null;
+    }
+
+    public List<Pair> pair(Algorithm algorithm, long now) {
+        return algorithm == Algorithm.GLOBAL ? pairGlobally(now) : pairWaiting(now);
+    }
+
+    /**
+     * Pair up waiting players whose windows have grown to accept each other,
+     * lowest rating first. O(n log n) for the whole queue.
+     */
+    public List<Pair> pairWaiting(long now) {
+        List<Pair> pairs = new ArrayList<>();
+        for (Seeker seeker : byRating) {
+            Seeker opponent = best(seeker, now);
+            if (opponent != null && claimPair(seeker, opponent)) {
+                pairs.add(new Pair(seeker, opponent));
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Pair a snapshot of the queue as a whole. The cost of a pairing is the
+     * sum of its rating gaps plus, for each player left waiting, their
+     * current window, which grows with their wait. Pairs are limited to
+     * rating neighbours, which is exact for the gaps alone and near-optimal
+     * with the waits, so a dynamic program over the sorted snapshot finds
+     * the cheapest in O(n): each player either waits or pairs with the one
+     * before. Unlike the greedy pass it will not take a close pair that
+     * strands a long waiter; the newcomer waits instead.
+     */
+    public List<Pair> pairGlobally(long now) {
+        List<Seeker> snapshot = new ArrayList<>(byRating);
+        int n = snapshot.size();
+        double[] cost = new double[n + 1];
+        boolean[] pairedWithPrevious = new boolean[n + 1];
+        for (int i = 1; i <= n; i++) {
+            Seeker seeker = snapshot.get(i - 1);
+            cost[i] = cost[i - 1] + window(seeker, now);
+            if (i >= 2) {
+                Seeker previous = snapshot.get(i - 2);
+                double gap = seeker.rating() - previous.rating();
+                if (gap <= window(seeker, now) && gap <= window(previous, now) && cost[i - 2] + gap < cost[i]) {
+                    cost[i] = cost[i - 2] + gap;
+                    pairedWithPrevious[i] = true;
+                }
+            }
+        }
+
+        List<Pair> pairs = new ArrayList<>();
+        for (int i = n; i >= 2;) {
+            if (!pairedWithPrevious[i]) {
+                i--;
+                continue;
+            }
+            Seeker first = snapshot.get(i - 2);
+            Seeker second = snapshot.get(i - 1);
+            // Players who left or were taken since the snapshot are skipped
+            if (claimPair(first, second)) {
+                pairs.add(new Pair(first, second));
+            }
+            i -= 2;
+        }
+        return pairs;
+    }
+
+    // Nearest acceptable rating on either side, not counting the seeker itself
+    private Seeker best(Seeker seeker, long now) {
+        double window = window(seeker, now);
+        Seeker up = byRating.higher(seeker);
+        Seeker down = byRating.lower(seeker);
+        while (up != null || down != null) {
+            double upGap = up != null ? up.rating() - seeker.rating() : Double.MAX_VALUE;
+            double downGap = down != null ? seeker.rating() - down.rating() : Double.MAX_VALUE;
+            boolean takeUp = upGap <= downGap;
+            Seeker candidate = takeUp ? up : down;
+            double gap = Math.min(upGap, downGap);
+            if (gap > window) {
+                return null;
+            }
+            if (gap <= window(candidate, now)) {
+                return candidate;
+            }
+            if (takeUp) {
+                up = byRating.higher(up);
+            } else {
+                down = byRating.lower(down);
+            }
+        }
+        return null;
+    }
+
+    // Take both or neither; the seeker is held out of the index while taking the opponent
+    private boolean claimPair(Seeker seeker, Seeker opponent) {
+        if (!byRating.remove(seeker)) {
+            return false;
+        }
+        if (claim(opponent)) {
+            byUser.remove(seeker.username(), seeker);
+            return true;
+        }
+        byRating.add(seeker);
+        if (byUser.get(seeker.username()) != seeker) {
+            byRating.remove(seeker); // Left while held out
+        }
+        return false;
+    }
+
+    private boolean claim(Seeker seeker) {
+        if (!byRating.remove(seeker)) {
+            return false;
+        }
+        byUser.remove(seeker.username(), seeker);
+        return true;
+    }
+}
@@ -3,39 +3,81 @@ package com.example.IndiChessBackend.service;
 import com.example.IndiChessBackend.dto.MatchFoundDTO;
 import com.example.IndiChessBackend.dto.QueueStatusDTO;
 import com.example.IndiChessBackend.model.Game;
-import lombok.RequiredArgsConstructor;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.UserRating;
+import com.example.IndiChessBackend.repo.UserRatingRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 
 /**
- * Service for managing matchmaking queue and pairing players
+ * Service for managing matchmaking queue and pairing players. Each time
+ * control's queue is a {@link MatchmakingPool} ordered by the players'
+ * ratings in that time control. A tick every tick-millis pairs each queue
+ * with the configured algorithm and starts the games in bulk. In INSTANT
+ * mode a joining player also gets the nearest rating within reach at once;
+ * in BATCH mode joining only queues, and all pairing happens on the tick.
  */
 @Service
-@RequiredArgsConstructor
 public class MatchmakingService {
 
-    private final GameService gameService;
-    private final SimpMessagingTemplate messagingTemplate;
+    public enum Mode {
+        INSTANT, BATCH
+    }
 
-    // Queue: timeControl -> (username -> queueEntry)
-    private final Map<String, ConcurrentHashMap<String, QueueEntry>> queues = new ConcurrentHashMap<>();
+    private static final long QUEUE_TIMEOUT_MILLIS = 90_000;
 
-    // Scheduled executor for timeout handling
+    private final GameService gameService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final UserRepo userRepo;
+    private final UserRatingRepo userRatingRepo;
+    private final double initialWindow;
+    private final double windowGrowthPerSecond;
+    private final double maxWindow;
+    private final Mode mode;
+    private final MatchmakingPool.Algorithm algorithm;
+    private final MeterRegistry meterRegistry;
+
+    // Queue: timeControl -> players waiting by rating
+    private final Map<String, MatchmakingPool> queues = new ConcurrentHashMap<>();
+
+    // username -> 90-second timeout of a waiting player
+    private final Map<String, ScheduledFuture<?>> timeouts = new ConcurrentHashMap<>();
+
+    // Scheduled executor for timeout handling and the matching tick
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
 
-    /**
-     * Queue entry containing user info and queue time
-     */
-    private static class QueueEntry {
-        long queuedAt;
-        ScheduledFuture<?> timeoutTask;
-
-        QueueEntry(long queuedAt, ScheduledFuture<?> timeoutTask) {
-            this.queuedAt = queuedAt;
-            this.timeoutTask = timeoutTask;
+    public MatchmakingService(GameService gameService, SimpMessagingTemplate messagingTemplate, UserRepo userRepo,
+            UserRatingRepo userRatingRepo, MeterRegistry meterRegistry,
+            @Value("${indichess.matchmaking.initial-window:100}") double initialWindow,
+            @Value("${indichess.matchmaking.window-growth-per-second:10}") double windowGrowthPerSecond,
+            @Value("${indichess.matchmaking.max-window:600}") double maxWindow,
+            @Value("${indichess.matchmaking.mode:INSTANT}") Mode mode,
+            @Value("${indichess.matchmaking.algorithm:GLOBAL}") MatchmakingPool.Algorithm algorithm,
+            @Value("${indichess.matchmaking.tick-millis:1000}") long tickMillis) {
+        this.gameService = gameService;
+        this.messagingTemplate = messagingTemplate;
+        this.userRepo = userRepo;
+        this.userRatingRepo = userRatingRepo;
+        this.meterRegistry = meterRegistry;
+        this.initialWindow = initialWindow;
+        this.windowGrowthPerSecond = windowGrowthPerSecond;
+        this.maxWindow = maxWindow;
+        this.mode = mode;
+        this.algorithm = algorithm;
+        if (tickMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
         }
     }
 
@@ -52,29 +94,23 @@ public class MatchmakingService {
         }
 
         // Get or create queue for this time control
-        ConcurrentHashMap<String, QueueEntry> queue = queues.computeIfAbsent(
-                finalTimeControl,
-                k -> new ConcurrentHashMap<>());
+        MatchmakingPool queue = queues.computeIfAbsent(finalTimeControl, this::newQueue);
 
-        // Try to find a match immediately
-        String opponent = findOpponent(queue, username);
+        // Try to find a match immediately: the nearest rating within reach
+        long queuedAt = System.currentTimeMillis();
+        MatchmakingPool.Seeker seeker = new MatchmakingPool.Seeker(username, ratingOf(username, finalTimeControl),
+                queuedAt);
+        MatchmakingPool.Seeker opponent = mode == Mode.INSTANT ? queue.claimOpponent(seeker, queuedAt) : null;
 
         if (opponent != null) {
             // Match found! Create game
-            return createMatch(username, opponent, finalTimeControl, queue);
+            return createMatch(seeker, opponent, finalTimeControl, queue);
         }
 
         // No match found, add to queue
-        long queuedAt = System.currentTimeMillis();
-
         // Schedule timeout task (90 seconds)
-        ScheduledFuture<?> timeoutTask = scheduler.schedule(
-                () -> handleTimeout(username, finalTimeControl),
-                90,
-                TimeUnit.SECONDS);
-
-        QueueEntry entry = new QueueEntry(queuedAt, timeoutTask);
-        queue.put(username, entry);
+        armTimeout(username, finalTimeControl, QUEUE_TIMEOUT_MILLIS);
+        queue.add(seeker);
 
         System.out.println("✅ " + username + " joined " + finalTimeControl + " queue. Queue size: " + queue.size());
 
@@ -90,15 +126,13 @@ public class MatchmakingService {
      * Remove a player from the matchmaking queue
      */
     public QueueStatusDTO leaveQueue(String username) {
-        for (Map.Entry<String, ConcurrentHashMap<String, QueueEntry>> queueEntry : queues.entrySet()) {
-            ConcurrentHashMap<String, QueueEntry> queue = queueEntry.getValue();
-            QueueEntry entry = queue.remove(username);
+        for (Map.Entry<String, MatchmakingPool> queueEntry : queues.entrySet()) {
+            MatchmakingPool queue = queueEntry.getValue();
+            MatchmakingPool.Seeker entry = queue.remove(username);
 
             if (entry != null) {
                 // Cancel timeout task
-                if (entry.timeoutTask != null) {
-                    entry.timeoutTask.cancel(false);
-                }
+                cancelTimeout(username);
 
                 System.out.println("❌ " + username + " left " + queueEntry.getKey() + " queue");
                 return new QueueStatusDTO(false, "Left queue");
@@ -112,17 +146,17 @@ public class MatchmakingService {
      * Get queue status for a user
      */
     public QueueStatusDTO getQueueStatus(String username) {
-        for (Map.Entry<String, ConcurrentHashMap<String, QueueEntry>> queueEntry : queues.entrySet()) {
-            QueueEntry entry = queueEntry.getValue().get(username);
+        for (Map.Entry<String, MatchmakingPool> queueEntry : queues.entrySet()) {
+            MatchmakingPool.Seeker entry = queueEntry.getValue().get(username);
 
             if (entry != null) {
-                long waitTime = (System.currentTimeMillis() - entry.queuedAt) / 1000;
+                long waitTime = (System.currentTimeMillis() - entry.queuedAt()) / 1000;
                 int remainingTime = Math.max(0, 90 - (int) waitTime);
 
                 return new QueueStatusDTO(
                         true,
                         queueEntry.getKey(),
-                        entry.queuedAt,
+                        entry.queuedAt(),
                         remainingTime,
                         "Searching for opponent... (" + remainingTime + "s remaining)");
             }
@@ -132,87 +166,158 @@ public class MatchmakingService {
     }
 
     /**
-     * Find an opponent in the queue (excluding self)
+     * Rating in the queue's time control; a new player's default where none is stored yet
      */
-    private String findOpponent(ConcurrentHashMap<String, QueueEntry> queue, String username) {
-        for (String potentialOpponent : queue.keySet()) {
-            if (!potentialOpponent.equals(username)) {
-                return potentialOpponent;
+    private double ratingOf(String username, String timeControl) {
+        TimeControl tc = TimeControl.fromString(timeControl);
+        return userRepo.findByUsername(username)
+                .flatMap(user -> userRatingRepo.findById(new UserRating.Key(user.getUserId(), tc)))
+                .map(UserRating::getRating)
+                .orElse(Glicko2.DEFAULT_RATING);
+    }
+
+    private MatchmakingPool newQueue(String timeControl) {
+        MatchmakingPool queue = new MatchmakingPool(initialWindow, windowGrowthPerSecond, maxWindow);
+        meterRegistry.gauge("matchmaking.pool.size", Tags.of("queue", timeControl), queue, MatchmakingPool::size);
+        return queue;
+    }
+
+    /**
+     * Pair every queue as it stands and start the games in one batch per
+     * queue, recording how long the pairing took and what it produced
+     */
+    private void tick() {
+        for (Map.Entry<String, MatchmakingPool> queueEntry : queues.entrySet()) {
+            String timeControl = queueEntry.getKey();
+            MatchmakingPool queue = queueEntry.getValue();
+            try {
+                long start = System.nanoTime();
+                List<MatchmakingPool.Pair> pairs = queue.pair(algorithm, System.currentTimeMillis());
+                Timer.builder("matchmaking.tick.latency").tag("queue", timeControl).register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                DistributionSummary.builder("matchmaking.tick.pairings").tag("queue", timeControl)
+                        .register(meterRegistry).record(pairs.size());
+                if (!pairs.isEmpty()) {
+                    startMatches(pairs, timeControl, queue);
+                }
+            } catch (RuntimeException e) {
+                // Keep ticking; the next pass retries
+                System.err.println("❌ Matchmaking tick failed for " + timeControl + ": " + e.getMessage());
             }
         }
-        return null;
     }
 
     /**
      * Create a match between two players
      */
     private QueueStatusDTO createMatch(
-            String player1,
-            String player2,
+            MatchmakingPool.Seeker seeker1,
+            MatchmakingPool.Seeker seeker2,
             String timeControl,
-            ConcurrentHashMap<String, QueueEntry> queue) {
-        try {
-            // Remove both players from queue
-            QueueEntry entry1 = queue.remove(player1);
-            QueueEntry entry2 = queue.remove(player2);
-
-            // Cancel timeout tasks
-            if (entry1 != null && entry1.timeoutTask != null) {
-                entry1.timeoutTask.cancel(false);
-            }
-            if (entry2 != null && entry2.timeoutTask != null) {
-                entry2.timeoutTask.cancel(false);
-            }
+            MatchmakingPool queue) {
+        List<Game> games = startMatches(List.of(new MatchmakingPool.Pair(seeker1, seeker2)), timeControl, queue);
+        if (games.isEmpty()) {
+            return new QueueStatusDTO(true, "Match creation failed, back in queue");
+        }
+        return new QueueStatusDTO(false, "Match found! Game ID: " + games.get(0).getId());
+    }
 
+    /**
+     * Start the games of players already taken out of the queue, all in one
+     * batch, and tell each player their opponent and colour. If the batch
+     * fails, each pairing is retried on its own so one bad pairing cannot
+     * hold up the rest. Players of a pairing that still cannot start go back
+     * in the queue with their place and timeout; one who no longer exists is
+     * dropped.
+     */
+    private List<Game> startMatches(List<MatchmakingPool.Pair> pairs, String timeControl, MatchmakingPool queue) {
+        TimeControl tc = TimeControl.fromString(timeControl);
+        Map<GameService.Pairing, MatchmakingPool.Pair> byPairing = new LinkedHashMap<>();
+        for (MatchmakingPool.Pair pair : pairs) {
             // Randomly assign colors
-            boolean player1IsWhite = Math.random() < 0.5;
-            String whitePlayer = player1IsWhite ? player1 : player2;
-            String blackPlayer = player1IsWhite ? player2 : player1;
+            boolean firstIsWhite = ThreadLocalRandom.current().nextBoolean();
+            byPairing.put(firstIsWhite
+                    ? new GameService.Pairing(pair.first().username(), pair.second().username())
+                    : new GameService.Pairing(pair.second().username(), pair.first().username()), pair);
+        }
+
+        List<GameService.Seated> started = new ArrayList<>(pairs.size());
+        try {
+            started.addAll(gameService.startGames(new ArrayList<>(byPairing.keySet()), tc));
+        } catch (Exception e) {
+            System.err.println("❌ Error creating " + pairs.size() + " matches, starting them one by one: "
+                    + e.getMessage());
+            for (GameService.Pairing pairing : byPairing.keySet()) {
+                try {
+                    started.addAll(gameService.startGames(List.of(pairing), tc));
+                } catch (Exception single) {
+                    System.err.println("❌ Error creating match " + pairing.white() + " vs " + pairing.black()
+                            + ": " + single.getMessage());
+                }
+            }
+        }
 
-            // Create game with time control
-            com.example.IndiChessBackend.model.TimeControl tc = com.example.IndiChessBackend.model.TimeControl
-                    .fromString(timeControl);
-            Game game = gameService.createGame(whitePlayer, tc);
-            game = gameService.joinGame(game.getId(), blackPlayer);
+        List<Game> games = new ArrayList<>(started.size());
+        for (GameService.Seated seated : started) {
+            Game game = seated.game();
+            String whitePlayer = seated.pairing().white();
+            String blackPlayer = seated.pairing().black();
+            byPairing.remove(seated.pairing());
+            cancelTimeout(whitePlayer);
+            cancelTimeout(blackPlayer);
+            games.add(game);
 
             System.out.println("🎮 Match created! Game ID: " + game.getId() +
                     " | White: " + whitePlayer + " | Black: " + blackPlayer);
 
             // Notify both players via WebSocket
-            MatchFoundDTO player1Notification = new MatchFoundDTO(
-                    game.getId(),
-                    player2,
-                    player1IsWhite ? "WHITE" : "BLACK",
-                    timeControl);
-
-            MatchFoundDTO player2Notification = new MatchFoundDTO(
-                    game.getId(),
-                    player1,
-                    player1IsWhite ? "BLACK" : "WHITE",
-                    timeControl);
-
             messagingTemplate.convertAndSendToUser(
-                    player1,
+                    whitePlayer,
                     "/queue/match-found",
-                    player1Notification);
+                    new MatchFoundDTO(game.getId(), blackPlayer, "WHITE", timeControl));
 
             messagingTemplate.convertAndSendToUser(
-                    player2,
+                    blackPlayer,
                     "/queue/match-found",
-                    player2Notification);
+                    new MatchFoundDTO(game.getId(), whitePlayer, "BLACK", timeControl));
+        }
 
-            return new QueueStatusDTO(false, "Match found! Game ID: " + game.getId());
+        // Whatever is left did not start
+        for (MatchmakingPool.Pair pair : byPairing.values()) {
+            requeue(pair.first(), timeControl, queue);
+            requeue(pair.second(), timeControl, queue);
+        }
+        return games;
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Error creating match: " + e.getMessage());
-            e.printStackTrace();
+    // Back in the queue where they were, with the rest of their timeout; unknown users are dropped
+    private void requeue(MatchmakingPool.Seeker seeker, String timeControl, MatchmakingPool queue) {
+        String username = seeker.username();
+        if (userRepo.findByUsername(username).isEmpty()) {
+            cancelTimeout(username);
+            return;
+        }
+        if (!isUserInAnyQueue(username) && queue.add(seeker)) {
+            long waited = System.currentTimeMillis() - seeker.queuedAt();
+            armTimeout(username, timeControl, Math.max(0, QUEUE_TIMEOUT_MILLIS - waited));
+        }
+    }
 
-            // Re-add players to queue if match creation failed
-            long now = System.currentTimeMillis();
-            queue.put(player1, new QueueEntry(now, null));
-            queue.put(player2, new QueueEntry(now, null));
+    private void armTimeout(String username, String timeControl, long delayMillis) {
+        ScheduledFuture<?> timeoutTask = scheduler.schedule(
+                () -> handleTimeout(username, timeControl),
+                delayMillis,
+                TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous = timeouts.put(username, timeoutTask);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
 
-            return new QueueStatusDTO(true, "Match creation failed, back in queue");
+    private void cancelTimeout(String username) {
+        ScheduledFuture<?> timeoutTask = timeouts.remove(username);
+        if (timeoutTask != null) {
+            timeoutTask.cancel(false);
         }
     }
 
@@ -220,12 +325,13 @@ public class MatchmakingService {
      * Handle queue timeout (90 seconds elapsed)
      */
     private void handleTimeout(String username, String timeControl) {
-        ConcurrentHashMap<String, QueueEntry> queue = queues.get(timeControl);
+        MatchmakingPool queue = queues.get(timeControl);
 
         if (queue != null) {
-            QueueEntry entry = queue.remove(username);
+            MatchmakingPool.Seeker entry = queue.remove(username);
 
             if (entry != null) {
+                timeouts.remove(username);
                 System.out.println("⏰ Timeout for " + username + " in " + timeControl + " queue");
 
                 // Notify user via WebSocket
@@ -241,8 +347,8 @@ public class MatchmakingService {
      * Check if user is in any queue
      */
     private boolean isUserInAnyQueue(String username) {
-        for (ConcurrentHashMap<String, QueueEntry> queue : queues.values()) {
-            if (queue.containsKey(username)) {
+        for (MatchmakingPool queue : queues.values()) {
+            if (queue.contains(username)) {
                 return true;
             }
         }
@@ -254,7 +360,7 @@ public class MatchmakingService {
      */
     public int getTotalPlayersInQueue() {
         return queues.values().stream()
-                .mapToInt(ConcurrentHashMap::size)
+                .mapToInt(MatchmakingPool::size)
                 .sum();
     }
 
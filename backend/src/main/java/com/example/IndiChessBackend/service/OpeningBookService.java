@@ -0,0 +1,150 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.engine.Move;
+import com.example.IndiChessBackend.engine.OpeningBook;
+import com.example.IndiChessBackend.engine.OpeningBookBuilder;
+import com.example.IndiChessBackend.engine.Position;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Book moves for server-side engines and ECO names for positions.
+ * The book is memory-mapped from indichess.book.path; when none is configured
+ * a small book is built from openings.tsv into a temporary file at startup.
+ * A configured book that cannot be read or is not keyed for this engine
+ * (e.g. a standard Polyglot file) stops the startup rather than never
+ * matching a position.
+ * Opening names (a few KB) are kept in a map keyed by Zobrist key, so naming
+ * the position after every move is a single lookup.
+ */
+@Service
+public class OpeningBookService {
+
+    private static final String OPENINGS = "openings.tsv";
+
+    public static class Opening {
+        private final String eco;
+        private final String name;
+
+        Opening(String eco, String name) {
+            this.eco = eco;
+            this.name = name;
+        }
+
+        public String getEco() {
+            return eco;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final OpeningBook book;
+    private final Map<Long, Opening> openings = new HashMap<>();
+
+    public OpeningBookService(@Value("${indichess.book.path:}") String bookPath) {
+        loadOpenings();
+        this.book = openBook(bookPath);
+    }
+
+    /**
+     * A weighted random book move, or {@link Move#NONE} when out of book
+     */
+    public int bookMove(Position position) {
+        return book.probe(position);
+    }
+
+    /**
+     * Opening whose main line reaches this position, or null
+     */
+    public Opening opening(long key) {
+        return openings.get(key);
+    }
+
+    public int size() {
+        return book.size();
+    }
+
+    private void loadOpenings() {
+        try (BufferedReader reader = openingsReader()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t");
+                if (line.startsWith("#") || columns.length < 3) {
+                    continue;
+                }
+                Position position = new Position();
+                boolean legal = true;
+                for (String uci : columns[2].trim().split("\\s+")) {
+                    int move = Move.parseUci(position, uci);
+                    if (move == Move.NONE) {
+                        legal = false;
+                        break;
+                    }
+                    position.makeMove(move);
+                }
+                if (legal) {
+                    openings.put(position.key(), new Opening(columns[0], columns[1]));
+                } else {
+                    System.err.println("⚠️ Skipping opening with an illegal line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not read " + OPENINGS + ": " + e.getMessage());
+        }
+    }
+
+    private OpeningBook openBook(String bookPath) {
+        boolean configured = bookPath != null && !bookPath.isBlank();
+        try {
+            Path path;
+            if (configured) {
+                path = Path.of(bookPath);
+            } else {
+                path = Files.createTempFile("indichess-book", ".bin");
+                path.toFile().deleteOnExit();
+                OpeningBookBuilder builder = new OpeningBookBuilder();
+                try (Reader reader = openingsReader();
+                        OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+                    builder.addLines(reader);
+                    builder.write(out);
+                }
+            }
+            OpeningBook opened = OpeningBook.open(path);
+            if (configured) {
+                try {
+                    opened.requireEngineKeys();
+                } catch (IllegalStateException e) {
+                    throw new IllegalStateException("Unusable opening book " + path + ": " + e.getMessage(), e);
+                }
+            }
+            System.out.println("📖 Opening book mapped: " + path + " (" + opened.size() + " entries)");
+            return opened;
+        } catch (IOException e) {
+            if (configured) {
+                throw new IllegalStateException("Cannot read opening book " + bookPath + ": " + e.getMessage(), e);
+            }
+            System.err.println("⚠️ Opening book unavailable, engines will search from move one: " + e.getMessage());
+            return OpeningBook.empty();
+        }
+    }
+
+    private static BufferedReader openingsReader() throws IOException {
+        return new BufferedReader(new InputStreamReader(new ClassPathResource(OPENINGS).getInputStream(),
+                StandardCharsets.UTF_8));
+    }
+}
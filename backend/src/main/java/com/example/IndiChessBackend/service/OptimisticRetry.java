@@ -0,0 +1,65 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry of game operations that lose an optimistic-lock race on the
+ * versioned games row. Every attempt re-reads the game, so a retry applies the
+ * operation on top of whatever the other writer stored.
+ * Metrics per operation: game.optimistic.attempts, .conflicts and .exhausted;
+ * conflicts / attempts is the conflict rate, conflicts minus exhausted the retries.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public OptimisticRetry(MeterRegistry meterRegistry,
+            @Value("${indichess.optimistic-retry.max-attempts:3}") int maxAttempts) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    public <T> T run(String operation, Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            counter("game.optimistic.attempts", operation).increment();
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                counter("game.optimistic.conflicts", operation).increment();
+                if (i >= maxAttempts) {
+                    counter("game.optimistic.exhausted", operation).increment();
+                    System.err.println("⚠️ " + operation + " gave up after " + i + " conflicting attempts");
+                    throw new ConcurrentUpdateException("The game was changed by another request, please retry");
+                }
+                backOff(i);
+            }
+        }
+    }
+
+    // A few milliseconds with jitter so two nodes do not collide again in lockstep
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L << attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+        return counters.computeIfAbsent(name + "|" + operation,
+                k -> Counter.builder(name).tag("operation", operation).register(meterRegistry));
+    }
+}
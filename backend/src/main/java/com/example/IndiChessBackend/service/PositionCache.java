@@ -0,0 +1,87 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.DTO.LegalMovesDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, concurrent cache of per-position engine results keyed by the
+ * 64-bit Zobrist hash. Caffeine's W-TinyLFU policy keeps the positions that
+ * thousands of games share (openings) resident while one-off middlegame
+ * positions are evicted first.
+ * Hit rate, size and evictions are published as cache.* metrics with
+ * cache=positions.
+ */
+@Component
+public class PositionCache {
+
+    /**
+     * Cached facts that depend only on the position, never on the game history
+     */
+    public static class Entry {
+        private final int[] legalMoves;
+        private final GameEngineService.GameResult terminalResult;
+        // Built on first use and shared by every game that reaches the position
+        private volatile LegalMovesDTO encodedMoves;
+
+        Entry(int[] legalMoves, GameEngineService.GameResult terminalResult) {
+            this.legalMoves = legalMoves;
+            this.terminalResult = terminalResult;
+        }
+
+        /**
+         * Legal moves of the side to move; shared, must not be modified
+         */
+        public int[] getLegalMoves() {
+            return legalMoves;
+        }
+
+        /**
+         * Checkmate, stalemate or insufficient material; IN_PROGRESS otherwise
+         */
+        public GameEngineService.GameResult getTerminalResult() {
+            return terminalResult;
+        }
+
+        /**
+         * Legal moves in the bitboard form sent to clients
+         */
+        public LegalMovesDTO getEncodedMoves() {
+            LegalMovesDTO encoded = encodedMoves;
+            if (encoded == null) {
+                encoded = LegalMovesDTO.of(legalMoves);
+                encodedMoves = encoded;
+            }
+            return encoded;
+        }
+    }
+
+    private final Cache<Long, Entry> cache;
+
+    public PositionCache(MeterRegistry meterRegistry,
+            @Value("${indichess.position-cache.max-size:200000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "positions");
+    }
+
+    public Entry get(long key) {
+        return cache.getIfPresent(key);
+    }
+
+    public Entry put(long key, int[] legalMoves, GameEngineService.GameResult terminalResult) {
+        Entry entry = new Entry(legalMoves, terminalResult);
+        cache.put(key, entry);
+        return entry;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.engine.Move;
+import com.example.IndiChessBackend.engine.Position;
+import com.example.IndiChessBackend.engine.Search;
+import com.example.IndiChessBackend.engine.SearchResult;
+import com.example.IndiChessBackend.engine.TranspositionTable;
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameAnalysis;
+import com.example.IndiChessBackend.model.GameStatus;
+import com.example.IndiChessBackend.model.MoveEvaluation;
+import com.example.IndiChessBackend.repo.GameAnalysisRepo;
+import com.example.IndiChessBackend.repo.GameRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Engine analysis of finished games. Jobs wait in a priority queue (games
+ * that just finished before backfill) and a single dispatcher thread takes
+ * them one at a time; the positions of a game are then searched in parallel
+ * on a dedicated fork-join pool. Nothing here runs on request threads.
+ */
+@Service
+public class PostGameAnalysisService {
+
+    public enum Priority {
+        RECENT,
+        BACKFILL
+    }
+
+    private static final int SCORE_CLAMP = 1000;
+    private static final int BLUNDER_CENTIPAWNS = 300;
+
+    private record Job(Long gameId, String pgn, Priority priority, long sequence) implements Comparable<Job> {
+        @Override
+        public int compareTo(Job other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final GameRepo gameRepo;
+    private final GameAnalysisRepo gameAnalysisRepo;
+    private final GameEngineService gameEngineService;
+    private final int depth;
+    private final long positionMillis;
+    private final int backfillBatch;
+    private final boolean backfillOnStartup;
+
+    private final PriorityBlockingQueue<Job> queue = new PriorityBlockingQueue<>();
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ForkJoinPool pool;
+    private final Thread dispatcher;
+
+    // Searches are reused per pool worker; all of them share one lock-free table
+    private final TranspositionTable table;
+    private final ThreadLocal<Search> searches;
+
+    public PostGameAnalysisService(GameRepo gameRepo,
+            GameAnalysisRepo gameAnalysisRepo,
+            GameEngineService gameEngineService,
+            MeterRegistry meterRegistry,
+            @Value("${indichess.post-game-analysis.parallelism:0}") int parallelism,
+            @Value("${indichess.post-game-analysis.depth:8}") int depth,
+            @Value("${indichess.post-game-analysis.position-millis:500}") long positionMillis,
+            @Value("${indichess.post-game-analysis.hash-mb:32}") int hashMegabytes,
+            @Value("${indichess.post-game-analysis.backfill-batch:500}") int backfillBatch,
+            @Value("${indichess.post-game-analysis.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.gameRepo = gameRepo;
+        this.gameAnalysisRepo = gameAnalysisRepo;
+        this.gameEngineService = gameEngineService;
+        this.depth = depth;
+        this.positionMillis = positionMillis;
+        this.backfillBatch = backfillBatch;
+        this.backfillOnStartup = backfillOnStartup;
+        this.table = new TranspositionTable(hashMegabytes);
+        this.searches = ThreadLocal.withInitial(() -> new Search(table));
+
+        // 0 means half the cores, so live games keep the rest
+        int threads = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("post-game-analysis-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }, null, false);
+
+        meterRegistry.gaugeCollectionSize("post.game.analysis.queue", Tags.empty(), queued);
+
+        this.dispatcher = new Thread(this::dispatch, "post-game-analysis-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Queue a game that has just finished; its moves are passed along so the
+     * job does not depend on the asynchronous database write
+     */
+    public void submit(Game game) {
+        enqueue(game.getId(), game.getPgn(), Priority.RECENT);
+    }
+
+    /**
+     * Startup job: queue the newest backfill-batch finished games that have
+     * no analysis yet, behind any recent game. Not exposed over HTTP; each
+     * start picks up where the last one stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            backfill();
+        }
+    }
+
+    /**
+     * Queue the newest finished games that have no analysis yet, behind any
+     * recent game. Games already analyzed or already queued are skipped, so
+     * repeating it queues nothing twice. Returns how many were queued.
+     */
+    public int backfill() {
+        List<Long> ids = gameRepo.findUnanalyzedGameIds(List.of(GameStatus.COMPLETED, GameStatus.FINISHED),
+                PageRequest.of(0, backfillBatch));
+        int count = 0;
+        for (Long id : ids) {
+            if (enqueue(id, null, Priority.BACKFILL)) {
+                count++;
+            }
+        }
+        System.out.println("🔬 Queued " + count + " games for analysis backfill");
+        return count;
+    }
+
+    public Optional<GameAnalysis> find(Long gameId) {
+        return gameAnalysisRepo.findByGameId(gameId);
+    }
+
+    public int queueSize() {
+        return queued.size();
+    }
+
+    private boolean enqueue(Long gameId, String pgn, Priority priority) {
+        if (gameId == null || !queued.add(gameId)) {
+            return false;
+        }
+        queue.add(new Job(gameId, pgn, priority, sequence.incrementAndGet()));
+        return true;
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Job job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                analyze(job);
+            } catch (Exception e) {
+                System.err.println("❌ Analysis failed for game " + job.gameId() + ": " + e.getMessage());
+            } finally {
+                queued.remove(job.gameId());
+            }
+        }
+    }
+
+    private void analyze(Job job) {
+        // Analyzed since the backfill query ran
+        if (job.priority() == Priority.BACKFILL && gameAnalysisRepo.findByGameId(job.gameId()).isPresent()) {
+            return;
+        }
+        String pgn = job.pgn();
+        if (pgn == null) {
+            Optional<Game> game = gameRepo.findById(job.gameId());
+            if (game.isEmpty()) {
+                return;
+            }
+            pgn = game.get().getPgn();
+        }
+        String[] moves = pgn == null || pgn.isBlank() ? new String[0] : pgn.trim().split("\\s+");
+
+        // Replay the game; fens[i] is the position before ply i + 1
+        Position position = new Position(gameEngineService.getInitialFen());
+        String[] fens = new String[moves.length + 1];
+        fens[0] = position.toFen();
+        for (int i = 0; i < moves.length; i++) {
+            String uci = moves[i];
+            int move = gameEngineService.findLegalMove(position, uci.substring(0, 2), uci.substring(2, 4),
+                    uci.length() > 4 ? uci.substring(4) : null);
+            position.makeMove(move);
+            fens[i + 1] = position.toFen();
+        }
+
+        long start = System.currentTimeMillis();
+        int[] scores = new int[fens.length];
+        int[] bestMoves = new int[fens.length];
+        pool.invoke(new EvaluatePositions(fens, scores, bestMoves, 0, fens.length));
+
+        GameAnalysis analysis = gameAnalysisRepo.findByGameId(job.gameId()).orElseGet(GameAnalysis::new);
+        analysis.setGameId(job.gameId());
+        analysis.setDepth(depth);
+        summarize(analysis, moves, scores, bestMoves);
+        gameAnalysisRepo.save(analysis);
+
+        System.out.println("🔬 Analyzed game " + job.gameId() + " (" + moves.length + " plies, "
+                + (System.currentTimeMillis() - start) + " ms, " + job.priority() + ")");
+    }
+
+    /**
+     * Score every position from its side to move; a move's loss is how much
+     * worse the position after it is than the best line from before it
+     */
+    private static void summarize(GameAnalysis analysis, String[] moves, int[] scores, int[] bestMoves) {
+        List<MoveEvaluation> evaluations = new ArrayList<>(moves.length);
+        double[] accuracySum = new double[2];
+        int[] blunders = new int[2];
+        for (int i = 0; i < moves.length; i++) {
+            int side = i & 1; // 0 = White
+            int before = scores[i];
+            int after = -scores[i + 1]; // Same point of view as before
+            int loss = Math.max(0, before - after);
+            boolean blunder = loss >= BLUNDER_CENTIPAWNS;
+            if (blunder) {
+                blunders[side]++;
+            }
+            accuracySum[side] += moveAccuracy(before, after);
+
+            int whiteScore = side == 0 ? after : -after;
+            String best = bestMoves[i] != Move.NONE ? Move.toUci(bestMoves[i]) : null;
+            evaluations.add(new MoveEvaluation(i + 1, moves[i], best, whiteScore, loss, blunder));
+        }
+
+        int whiteMoves = (moves.length + 1) / 2;
+        int blackMoves = moves.length / 2;
+        analysis.setMoves(evaluations);
+        analysis.setWhiteAccuracy(whiteMoves > 0 ? accuracySum[0] / whiteMoves : 100);
+        analysis.setBlackAccuracy(blackMoves > 0 ? accuracySum[1] / blackMoves : 100);
+        analysis.setWhiteBlunders(blunders[0]);
+        analysis.setBlackBlunders(blunders[1]);
+    }
+
+    // Accuracy from the drop in winning chances, the curve lichess uses
+    private static double moveAccuracy(int before, int after) {
+        double drop = Math.max(0, winPercent(before) - winPercent(after));
+        return Math.max(0, Math.min(100, 103.1668 * Math.exp(-0.04354 * drop) - 3.1669));
+    }
+
+    private static double winPercent(int centipawns) {
+        return 50 + 50 * (2 / (1 + Math.exp(-0.00368208 * centipawns)) - 1);
+    }
+
+    private int evaluate(String fen, int[] bestMove) {
+        SearchResult result = searches.get().search(new Position(fen), depth, positionMillis);
+        bestMove[0] = result.getBestMove();
+        int score = result.getScore();
+        if (result.getBestMove() == Move.NONE) {
+            // Game over on the board: mated or stalemated
+            score = new Position(fen).inCheck() ? -SCORE_CLAMP : 0;
+        }
+        return Math.max(-SCORE_CLAMP, Math.min(SCORE_CLAMP, score));
+    }
+
+    /**
+     * Splits the positions of one game across the pool
+     */
+    private final class EvaluatePositions extends RecursiveAction {
+        private final String[] fens;
+        private final int[] scores;
+        private final int[] bestMoves;
+        private final int from;
+        private final int to;
+
+        EvaluatePositions(String[] fens, int[] scores, int[] bestMoves, int from, int to) {
+            this.fens = fens;
+            this.scores = scores;
+            this.bestMoves = bestMoves;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int[] best = new int[1];
+                scores[from] = evaluate(fens[from], best);
+                bestMoves[from] = best[0];
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new EvaluatePositions(fens, scores, bestMoves, from, middle),
+                    new EvaluatePositions(fens, scores, bestMoves, middle, to));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.interrupt();
+        pool.shutdownNow();
+    }
+}
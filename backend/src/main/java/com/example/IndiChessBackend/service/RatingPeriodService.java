@@ -0,0 +1,102 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.UserRating;
+import com.example.IndiChessBackend.repo.UserRatingRepo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes Glicko-2 rating periods for players who did not play in them: their
+ * deviation grows with their volatility, so a returning player's rating moves
+ * faster again. Ratings are swept in keyset pages of batch-size rows, each
+ * page written back as one JDBC batch. A row is closed at most once per
+ * period-millis however often the sweep runs.
+ */
+@Service
+public class RatingPeriodService {
+
+    private final UserRatingRepo userRatingRepo;
+    private final long periodMillis;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+
+    public RatingPeriodService(UserRatingRepo userRatingRepo,
+            @Value("${indichess.rating.period-millis:86400000}") long periodMillis,
+            @Value("${indichess.rating.sweep-millis:3600000}") long sweepMillis,
+            @Value("${indichess.rating.batch-size:1000}") int batchSize) {
+        this.userRatingRepo = userRatingRepo;
+        this.periodMillis = periodMillis;
+        this.batchSize = Math.max(1, batchSize);
+        if (sweepMillis > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "rating-period");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::sweep, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null; // Sweeps only when called
+        }
+    }
+
+    private void sweep() {
+        try {
+            long start = System.currentTimeMillis();
+            int closed = closePeriods(start);
+            if (closed > 0) {
+                System.out.println("📉 Closed idle rating periods of " + closed + " ratings in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            }
+        } catch (Exception e) {
+            // Rows not reached stay idle and are picked up by the next sweep
+            System.err.println("❌ Rating period sweep failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Close the period of every rating idle for a full period before now.
+     * Ratings whose deviation has reached a new player's are skipped: the
+     * period would change nothing. Returns how many were closed.
+     */
+    public int closePeriods(long now) {
+        long idleSince = now - periodMillis;
+        int closed = 0;
+        for (TimeControl timeControl : TimeControl.values()) {
+            long afterUserId = 0;
+            while (true) {
+                List<UserRating> page = userRatingRepo.findIdle(timeControl, afterUserId, idleSince,
+                        Glicko2.DEFAULT_DEVIATION, batchSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (UserRating rating : page) {
+                    rating.setDeviation(Glicko2.inflate(rating.getDeviation(), rating.getVolatility()));
+                }
+                for (int count : userRatingRepo.closeIdlePeriods(page, now)) {
+                    if (count != 0) {
+                        closed++;
+                    }
+                }
+                if (page.size() < batchSize) {
+                    break;
+                }
+                afterUserId = page.get(page.size() - 1).getUserId();
+            }
+        }
+        return closed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
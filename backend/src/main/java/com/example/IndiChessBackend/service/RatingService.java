@@ -0,0 +1,131 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.exception.ResourceNotFoundException;
+import com.example.IndiChessBackend.model.DTO.RatingDTO;
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameResult;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.model.UserRating;
+import com.example.IndiChessBackend.repo.RatingStanding;
+import com.example.IndiChessBackend.repo.UserRatingRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Glicko-2 ratings per user and time control. Every finished game is its own
+ * rating period for both players, applied once the game's final state is
+ * written; {@link RatingPeriodService} closes the periods of players who did
+ * not play.
+ */
+@Service
+@RequiredArgsConstructor
+public class RatingService implements GameCompletionListener {
+
+    private final UserRatingRepo userRatingRepo;
+    private final UserRepo userRepo;
+    private final LeaderboardService leaderboardService;
+
+    /**
+     * Ratings in every time control; a new player's default where none is stored yet
+     */
+    public List<RatingDTO> getRatings(String username) {
+        User user = userRepo.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", username));
+        Map<TimeControl, UserRating> stored = new EnumMap<>(TimeControl.class);
+        for (UserRating rating : userRatingRepo.findByUserId(user.getUserId())) {
+            stored.put(rating.getTimeControl(), rating);
+        }
+        List<RatingDTO> ratings = new ArrayList<>();
+        for (TimeControl timeControl : TimeControl.values()) {
+            UserRating rating = stored.getOrDefault(timeControl, initial(user.getUserId(), timeControl));
+            ratings.add(new RatingDTO(timeControl, (int) Math.round(rating.getRating()),
+                    (int) Math.round(rating.getDeviation()), rating.getVolatility(), rating.getGamesPlayed()));
+        }
+        return ratings;
+    }
+
+    /**
+     * Runs in the completion transaction of the finished game; the players' rows stay
+     * locked until it commits
+     */
+    @Override
+    public void gamesCompleted(List<Game> games) {
+        List<Game> rated = new ArrayList<>();
+        TreeSet<Long> userIds = new TreeSet<>();
+        for (Game game : games) {
+            // A game nobody joined was never played
+            if (game.getResult() != null && game.getBlackPlayer() != null) {
+                rated.add(game);
+                userIds.add(game.getWhitePlayer().getUserId());
+                userIds.add(game.getBlackPlayer().getUserId());
+            }
+        }
+        if (rated.isEmpty()) {
+            return;
+        }
+
+        Map<UserRating.Key, UserRating> ratings = new HashMap<>();
+        for (UserRating rating : userRatingRepo.lockByUserIds(userIds)) {
+            ratings.put(new UserRating.Key(rating.getUserId(), rating.getTimeControl()), rating);
+        }
+
+        // In batch order, so a player finishing two games here is rated after each
+        Map<UserRating.Key, UserRating> changed = new HashMap<>();
+        Map<Long, String> usernames = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (Game game : rated) {
+            TimeControl timeControl = game.getTimeControl() != null ? game.getTimeControl() : TimeControl.STANDARD;
+            UserRating white = rating(ratings, game.getWhitePlayer().getUserId(), timeControl);
+            UserRating black = rating(ratings, game.getBlackPlayer().getUserId(), timeControl);
+            double score = game.getResult() == GameResult.WHITE_WINS ? 1
+                    : game.getResult() == GameResult.DRAW ? 0.5 : 0;
+
+            Glicko2.Rating whiteBefore = glicko(white);
+            Glicko2.Rating blackBefore = glicko(black);
+            apply(white, Glicko2.rate(whiteBefore, blackBefore, score), now);
+            apply(black, Glicko2.rate(blackBefore, whiteBefore, 1 - score), now);
+            changed.put(new UserRating.Key(white.getUserId(), timeControl), white);
+            changed.put(new UserRating.Key(black.getUserId(), timeControl), black);
+            usernames.put(white.getUserId(), game.getWhitePlayer().getUsername());
+            usernames.put(black.getUserId(), game.getBlackPlayer().getUsername());
+        }
+        userRatingRepo.saveAll(changed.values());
+
+        List<RatingStanding> standings = new ArrayList<>(changed.size());
+        for (UserRating rating : changed.values()) {
+            standings.add(new RatingStanding(rating.getUserId(), usernames.get(rating.getUserId()),
+                    rating.getTimeControl(), rating.getRating(), rating.getUpdatedAt()));
+        }
+        leaderboardService.putAfterCommit(standings);
+    }
+
+    private static UserRating rating(Map<UserRating.Key, UserRating> ratings, Long userId, TimeControl timeControl) {
+        return ratings.computeIfAbsent(new UserRating.Key(userId, timeControl), k -> initial(userId, timeControl));
+    }
+
+    private static UserRating initial(Long userId, TimeControl timeControl) {
+        Glicko2.Rating rating = Glicko2.initial();
+        return new UserRating(userId, timeControl, rating.rating(), rating.deviation(), rating.volatility(), 0, 0);
+    }
+
+    private static Glicko2.Rating glicko(UserRating rating) {
+        return new Glicko2.Rating(rating.getRating(), rating.getDeviation(), rating.getVolatility());
+    }
+
+    private static void apply(UserRating rating, Glicko2.Rating next, long now) {
+        rating.setRating(next.rating());
+        rating.setDeviation(next.deviation());
+        rating.setVolatility(next.volatility());
+        rating.setGamesPlayed(rating.getGamesPlayed() + 1);
+        rating.setUpdatedAt(now);
+    }
+}
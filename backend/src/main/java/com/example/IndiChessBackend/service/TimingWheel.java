@@ -0,0 +1,138 @@
+package com.example.IndiChessBackend.service;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel: four levels of 256 slots, each level's slot
+ * spanning a whole turn of the level below, so deadlines up to 2^32 ticks
+ * ahead fit without a sorted structure. Scheduling and cancelling are O(1);
+ * a tick touches only the timers due in it, plus once per 256 ticks the
+ * timers of one upper slot, which drop a level. Not thread-safe: one thread
+ * owns the wheel.
+ */
+public final class TimingWheel {
+
+    private static final int LEVELS = 4;
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+
+    /**
+     * A scheduled deadline, linked into the slot it waits in
+     */
+    public static final class Timer {
+        private final long key;
+        private final long deadline;
+        private Timer prev;
+        private Timer next;
+
+        private Timer(long key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+
+        public long key() {
+            return key;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+    }
+
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS]; // Circular lists with sentinel heads
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long startTick) {
+        this.currentTick = startTick;
+        for (Timer[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer head = new Timer(-1, -1);
+                head.prev = head;
+                head.next = head;
+                level[i] = head;
+            }
+        }
+    }
+
+    /**
+     * Fire key at deadlineTick; a deadline already reached fires on the next tick
+     */
+    public Timer schedule(long key, long deadlineTick) {
+        Timer timer = new Timer(key, Math.max(deadlineTick, currentTick + 1));
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    public void cancel(Timer timer) {
+        if (timer.next != null) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    /**
+     * Move time forward to tick, handing the key of every timer that came due
+     * to expired, earliest tick first
+     */
+    public void advance(long tick, LongConsumer expired) {
+        while (currentTick < tick) {
+            currentTick++;
+            // Entering a new turn of a level pulls its next slot down; highest level first,
+            // since what it drops may land in the slot the level below pulls next
+            int top = 0;
+            while (top < LEVELS - 1 && (currentTick & ((1L << (BITS * (top + 1))) - 1)) == 0) {
+                top++;
+            }
+            for (int level = top; level > 0; level--) {
+                cascade(slots[level][(int) (currentTick >>> (BITS * level)) & MASK]);
+            }
+            Timer head = slots[0][(int) currentTick & MASK];
+            while (head.next != head) {
+                Timer timer = head.next;
+                unlink(timer);
+                size--;
+                expired.accept(timer.key);
+            }
+        }
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade(Timer head) {
+        while (head.next != head) {
+            Timer timer = head.next;
+            unlink(timer);
+            place(timer);
+        }
+    }
+
+    // Lowest level whose span still reaches the deadline
+    private void place(Timer timer) {
+        long delta = timer.deadline - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        Timer head = slots[level][(int) (timer.deadline >>> (BITS * level)) & MASK];
+        timer.prev = head.prev;
+        timer.next = head;
+        head.prev.next = timer;
+        head.prev = timer;
+    }
+
+    private static void unlink(Timer timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.exception.ResourceNotFoundException;
+import com.example.IndiChessBackend.model.DTO.UserStatsDTO;
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameResult;
+import com.example.IndiChessBackend.repo.GameRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import com.example.IndiChessBackend.repo.UserStatsRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Per-user win/loss/draw totals kept in user_stats. Rows are incremented as
+ * games finish, so reading them never touches the games table.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserStatsService implements GameCompletionListener {
+
+    private final UserStatsRepo userStatsRepo;
+    private final UserRepo userRepo;
+    private final GameRepo gameRepo;
+
+    public UserStatsDTO getUserStats(String username) {
+        return userStatsRepo.findByUsername(username)
+                .map(s -> new UserStatsDTO(s.getGamesPlayed(), s.getWins(), s.getLosses(), s.getDraws()))
+                .orElseGet(() -> {
+                    // No finished game yet
+                    if (userRepo.findByUsername(username).isEmpty()) {
+                        throw new ResourceNotFoundException("User", username);
+                    }
+                    return new UserStatsDTO(0, 0, 0, 0);
+                });
+    }
+
+    /**
+     * Runs after the final game write, in the completion transaction of that game
+     */
+    @Override
+    public void gamesCompleted(List<Game> games) {
+        for (Game game : games) {
+            // A game nobody joined has no opponent to count against
+            if (game.getResult() == null || game.getBlackPlayer() == null) {
+                continue;
+            }
+            GameResult result = game.getResult();
+            addResult(game.getWhitePlayer().getUserId(), result == GameResult.WHITE_WINS,
+                    result == GameResult.BLACK_WINS, result == GameResult.DRAW);
+            addResult(game.getBlackPlayer().getUserId(), result == GameResult.BLACK_WINS,
+                    result == GameResult.WHITE_WINS, result == GameResult.DRAW);
+        }
+    }
+
+    private void addResult(Long userId, boolean won, boolean lost, boolean drawn) {
+        userStatsRepo.addResult(userId, won ? 1 : 0, lost ? 1 : 0, drawn ? 1 : 0);
+    }
+
+    /**
+     * First start with the table: classify games finished before the result
+     * column existed, then total them up. Later starts find rows and skip this.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (userStatsRepo.count() > 0) {
+            return;
+        }
+        int classified = gameRepo.classifyLegacyResults();
+        int users = userStatsRepo.rebuildFromGames();
+        System.out.println("📊 Classified " + classified + " old game results, built stats for " + users + " users");
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.IndiChessBackend.engine;
+
+import com.github.bhlangonijr.chesslib.Board;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Perft suite for the bitboard move generator, checked against published
+ * node counts and against chesslib on the same positions.
+ */
+class BitboardMoveGeneratorTest {
+
+    private final BitboardMoveGenerator generator = BitboardMoveGenerator.INSTANCE;
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1; 5; 4865609",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1; 4; 4085603",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1; 6; 11030083",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1; 5; 15833292",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8; 4; 2103487",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10; 4; 3894594"
+    })
+    void perftMatchesReferenceCounts(String fen, int depth, long expected) {
+        Position position = new Position(fen);
+        assertEquals(expected, generator.perft(position, depth));
+        // make/unmake must leave the position untouched
+        assertEquals(fen, position.toFen());
+        assertEquals(position.computeKey(), position.key());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1; 4",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1; 3",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1; 4",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1; 3",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8; 3"
+    })
+    void perftMatchesChesslib(String fen, int depth) throws Exception {
+        Board board = new Board();
+        board.loadFromFen(fen);
+        assertEquals(chesslibPerft(board, depth), generator.perft(new Position(fen), depth));
+    }
+
+    @Test
+    void legalMovesMatchChesslibAlongRandomGames() throws Exception {
+        Random random = new Random(42);
+        int[] moves = new int[BitboardMoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 200; game++) {
+            Position position = new Position();
+            for (int ply = 0; ply < 150; ply++) {
+                Board board = new Board();
+                board.loadFromFen(position.toFen());
+                Set<String> expected = new TreeSet<>();
+                for (com.github.bhlangonijr.chesslib.move.Move move : chesslibLegalMoves(board)) {
+                    expected.add(move.toString());
+                }
+
+                int count = generator.generateLegalMoves(position, moves);
+                Set<String> actual = new TreeSet<>();
+                for (int i = 0; i < count; i++) {
+                    actual.add(Move.toUci(moves[i]));
+                }
+                assertEquals(expected, actual, position.toFen());
+                if (count == 0) {
+                    break;
+                }
+                position.makeMove(moves[random.nextInt(count)]);
+                assertEquals(position.computeKey(), position.key());
+            }
+        }
+    }
+
+    private static long chesslibPerft(Board board, int depth) throws Exception {
+        if (depth == 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for (com.github.bhlangonijr.chesslib.move.Move move : chesslibLegalMoves(board)) {
+            board.doMove(move);
+            nodes += chesslibPerft(board, depth - 1);
+            board.undoMove();
+        }
+        return nodes;
+    }
+
+    // Fully qualified: the engine has its own MoveGenerator in this package
+    private static java.util.List<com.github.bhlangonijr.chesslib.move.Move> chesslibLegalMoves(Board board)
+            throws Exception {
+        return com.github.bhlangonijr.chesslib.move.MoveGenerator.generateLegalMoves(board);
+    }
+}
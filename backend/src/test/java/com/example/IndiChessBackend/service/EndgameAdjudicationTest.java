@@ -0,0 +1,142 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.engine.EndgameBitbaseGenerator;
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameResult;
+import com.example.IndiChessBackend.model.GameStatus;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.GameMoveRepo;
+import com.example.IndiChessBackend.repo.GameRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bitbase adjudication settles untimed games only. On the clock a won KQK
+ * still has to be mated in time, and a mover whose flag has already fallen
+ * loses on time rather than being awarded the theoretical win.
+ */
+class EndgameAdjudicationTest {
+
+    // White: Ka1, Qd1; Black: Kh8. Qd2 is quiet and leaves a won KQK
+    private static final String KQK = "7k/8/8/8/8/8/8/K2Q4 w - - 0 1";
+
+    @TempDir
+    static Path dir;
+    private static Path bitbases;
+
+    private AnalysisPool analysisPool;
+    private GameMailboxes gameMailboxes;
+    private ClockService clockService;
+    private LiveGameRegistry liveGameRegistry;
+    private GameService gameService;
+
+    @BeforeAll
+    static void generateBitbases() throws Exception {
+        bitbases = dir.resolve("bitbases.bin");
+        EndgameBitbaseGenerator.write(bitbases);
+    }
+
+    @BeforeEach
+    void setUp() {
+        GameRepo gameRepo = mock(GameRepo.class);
+        when(gameRepo.writeLiveStates(anyList())).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<?>>getArgument(0).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+
+        analysisPool = new AnalysisPool(1, 1, 1_000, 1, 1);
+        GameEngineService engine = new GameEngineService(new PositionCache(new SimpleMeterRegistry(), 100_000),
+                analysisPool, new EndgameBitbaseService(bitbases.toString()));
+        gameMailboxes = new GameMailboxes(0);
+        clockService = new ClockService(new SimpleMeterRegistry(), 100, 1);
+        // The states under test are the ones returned to the players
+        liveGameRegistry = new LiveGameRegistry(new GameStateWriter(gameRepo, List.of()), event -> { },
+                60_000, 100);
+        gameService = new GameService(gameRepo, mock(GameMoveRepo.class), mock(UserRepo.class), engine,
+                liveGameRegistry, mock(PostGameAnalysisService.class), mock(OpeningBookService.class),
+                gameMailboxes, new OptimisticRetry(new SimpleMeterRegistry(), 3), clockService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameMailboxes.shutdown();
+        clockService.shutdown();
+        liveGameRegistry.shutdown();
+        analysisPool.shutdown();
+        new EndgameBitbaseService(""); // Other tests search without bitbases
+    }
+
+    @Test
+    void untimedWonEndingIsAdjudicated() {
+        liveGameRegistry.register(game(1L, TimeControl.STANDARD));
+
+        Game after = gameService.makeMove(1L, "white", "d1", "d2", null);
+
+        assertEquals(GameStatus.COMPLETED, after.getStatus());
+        assertEquals(GameResult.WHITE_WINS, after.getResult());
+    }
+
+    @Test
+    void timedWonEndingIsPlayedOut() {
+        liveGameRegistry.register(game(1L, TimeControl.BLITZ));
+
+        Game after = gameService.makeMove(1L, "white", "d1", "d2", null);
+
+        assertEquals(GameStatus.IN_PROGRESS, after.getStatus());
+        assertEquals("BLACK", after.getCurrentTurn());
+    }
+
+    @Test
+    void moveAfterTheFlagFellLosesOnTime() {
+        Game game = game(1L, TimeControl.BLITZ);
+        // White's last second ran out well before the move arrives
+        game.setClockMillis(true, 1_000);
+        game.setLastMoveTime(System.currentTimeMillis() - 5_000);
+        liveGameRegistry.register(game);
+
+        Game after = gameService.makeMove(1L, "white", "d1", "d2", null);
+
+        assertEquals(GameStatus.COMPLETED, after.getStatus());
+        assertEquals(GameResult.BLACK_WINS, after.getResult());
+    }
+
+    private static Game game(long id, TimeControl timeControl) {
+        Game game = new Game();
+        game.setId(id);
+        game.setWhitePlayer(user("white"));
+        game.setBlackPlayer(user("black"));
+        game.setFen(KQK);
+        game.setMoves(new byte[0]);
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setCurrentTurn("WHITE");
+        game.setTimeControl(timeControl);
+        if (timeControl.isTimed()) {
+            game.setClockMillis(true, timeControl.getInitialTimeSeconds() * 1000L);
+            game.setClockMillis(false, timeControl.getInitialTimeSeconds() * 1000L);
+        }
+        game.setLastMoveTime(System.currentTimeMillis());
+        return game;
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.engine.Position;
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameStatus;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.GameMoveRepo;
+import com.example.IndiChessBackend.repo.GameRepo;
+import com.example.IndiChessBackend.repo.GameStateWrite;
+import com.example.IndiChessBackend.repo.UserRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A completion listener that always fails for one game, as a duplicate
+ * ratings row would. The other games in the same flush are still written and
+ * completed, later moves keep being written, and the failing game is retried
+ * a bounded number of times rather than forever.
+ */
+class GameCompletionIsolationTest {
+
+    private static final long POISONED = 1L;
+
+    private final Map<Long, Game> rows = new ConcurrentHashMap<>();
+    private final List<Long> completed = new CopyOnWriteArrayList<>();
+    private final AtomicInteger poisonedAttempts = new AtomicInteger();
+    private AnalysisPool analysisPool;
+    private GameMailboxes gameMailboxes;
+    private ClockService clockService;
+    private LiveGameRegistry liveGameRegistry;
+    private GameService gameService;
+
+    @BeforeEach
+    void setUp() {
+        GameRepo gameRepo = mock(GameRepo.class);
+        when(gameRepo.writeLiveStates(anyList())).thenAnswer(invocation -> {
+            List<GameStateWrite> writes = invocation.getArgument(0);
+            writes.forEach(write -> rows.put(write.snapshot().getId(), write.snapshot()));
+            int[] counts = new int[writes.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+        when(gameRepo.findById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(rows.get(invocation.<Long>getArgument(0))));
+
+        GameCompletionListener listener = games -> {
+            for (Game game : games) {
+                if (game.getId() == POISONED) {
+                    poisonedAttempts.incrementAndGet();
+                    throw new IllegalStateException("Duplicate entry for user_ratings");
+                }
+                completed.add(game.getId());
+            }
+        };
+
+        analysisPool = new AnalysisPool(1, 1, 1_000, 1, 1);
+        GameEngineService engine = new GameEngineService(new PositionCache(new SimpleMeterRegistry(), 100_000),
+                analysisPool, new EndgameBitbaseService(""));
+        gameMailboxes = new GameMailboxes(0);
+        clockService = new ClockService(new SimpleMeterRegistry(), 100, 1);
+        // Flushed by hand only
+        liveGameRegistry = new LiveGameRegistry(new GameStateWriter(gameRepo, List.of(listener)), event -> { },
+                60_000, 100);
+        gameService = new GameService(gameRepo, mock(GameMoveRepo.class), mock(UserRepo.class), engine,
+                liveGameRegistry, mock(PostGameAnalysisService.class), mock(OpeningBookService.class),
+                gameMailboxes, new OptimisticRetry(new SimpleMeterRegistry(), 3), clockService);
+
+        for (long id = 1; id <= 3; id++) {
+            Game game = newGame(id);
+            rows.put(id, game);
+            liveGameRegistry.register(game);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameMailboxes.shutdown();
+        clockService.shutdown();
+        liveGameRegistry.shutdown();
+        analysisPool.shutdown();
+    }
+
+    @Test
+    void failingListenerDoesNotHoldBackOtherGames() {
+        gameService.resignGame(POISONED, "white");
+        gameService.resignGame(2L, "white");
+        gameService.makeMove(3L, "white", "e2", "e4", null);
+        liveGameRegistry.flushNow();
+
+        // Every state of the batch is written, and only the poisoned game misses its completion
+        assertEquals(GameStatus.COMPLETED, rows.get(POISONED).getStatus());
+        assertEquals(GameStatus.COMPLETED, rows.get(2L).getStatus());
+        assertEquals("e2e4", rows.get(3L).getPgn());
+        assertEquals(List.of(2L), completed);
+
+        // Later moves still reach the row while the poisoned game is retried
+        gameService.makeMove(3L, "black", "e7", "e5", null);
+        liveGameRegistry.flushNow();
+        assertEquals("e2e4 e7e5", rows.get(3L).getPgn());
+
+        for (int i = 0; i < 2 * LiveGameRegistry.COMPLETION_ATTEMPTS; i++) {
+            liveGameRegistry.flushNow();
+        }
+        assertEquals(LiveGameRegistry.COMPLETION_ATTEMPTS, poisonedAttempts.get());
+        assertEquals(List.of(2L), completed);
+    }
+
+    private static Game newGame(long id) {
+        Game game = new Game();
+        game.setId(id);
+        game.setWhitePlayer(user("white"));
+        game.setBlackPlayer(user("black"));
+        game.setFen(new Position().toFen());
+        game.setMoves(new byte[0]);
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setCurrentTurn("WHITE");
+        game.setTimeControl(TimeControl.RAPID);
+        game.setWhiteTimeRemaining(TimeControl.RAPID.getInitialTimeSeconds());
+        game.setBlackTimeRemaining(TimeControl.RAPID.getInitialTimeSeconds());
+        game.setLastMoveTime(System.currentTimeMillis());
+        return game;
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+}
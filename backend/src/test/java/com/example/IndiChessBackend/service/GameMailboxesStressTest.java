@@ -0,0 +1,174 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.engine.Move;
+import com.example.IndiChessBackend.engine.Position;
+import com.example.IndiChessBackend.exception.GameStateException;
+import com.example.IndiChessBackend.exception.InvalidMoveException;
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameStatus;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.GameMoveRepo;
+import com.example.IndiChessBackend.repo.GameRepo;
+import com.example.IndiChessBackend.repo.GameStateWrite;
+import com.example.IndiChessBackend.repo.UserRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Thousands of moves fired in parallel: in many games at once, several clients
+ * race to play the same next move. With moves serialized per game exactly one
+ * attempt per ply wins, and every game ends with the scripted moves and position.
+ */
+class GameMailboxesStressTest {
+
+    // The Opera Game, ending in mate
+    private static final String[] LINE = ("e2e4 e7e5 g1f3 d7d6 d2d4 c8g4 d4e5 g4f3 d1f3 d6e5 f1c4 g8f6 "
+            + "f3b3 d8e7 b1c3 c7c6 c1g5 b7b5 c3b5 c6b5 c4b5 b8d7 e1c1 a8d8 d1d7 d8d7 h1d1 e7e6 "
+            + "b5d7 f6d7 b3b8 d7b8 d1d8").split(" ");
+
+    private static final int GAMES = 32;
+    private static final int CLIENTS_PER_GAME = 8;
+
+    private final Map<Long, Game> rows = new ConcurrentHashMap<>();
+    private AnalysisPool analysisPool;
+    private GameMailboxes gameMailboxes;
+    private ClockService clockService;
+    private LiveGameRegistry liveGameRegistry;
+    private GameService gameService;
+
+    @BeforeEach
+    void setUp() {
+        GameRepo gameRepo = mock(GameRepo.class);
+        when(gameRepo.save(any(Game.class))).thenAnswer(invocation -> {
+            Game game = invocation.getArgument(0);
+            rows.put(game.getId(), game);
+            return game;
+        });
+        when(gameRepo.writeLiveStates(anyList())).thenAnswer(invocation -> {
+            List<GameStateWrite> writes = invocation.getArgument(0);
+            writes.forEach(write -> rows.put(write.snapshot().getId(), write.snapshot()));
+            int[] counts = new int[writes.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+        when(gameRepo.findById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(rows.get(invocation.<Long>getArgument(0))));
+
+        analysisPool = new AnalysisPool(1, 1, 1_000, 1, 1);
+        GameEngineService engine = new GameEngineService(new PositionCache(new SimpleMeterRegistry(), 100_000),
+                analysisPool, new EndgameBitbaseService(""));
+        gameMailboxes = new GameMailboxes(0);
+        clockService = new ClockService(new SimpleMeterRegistry(), 100, 1);
+        liveGameRegistry = new LiveGameRegistry(new GameStateWriter(gameRepo, List.of()), event -> { }, 200, 100);
+        gameService = new GameService(gameRepo, mock(GameMoveRepo.class), mock(UserRepo.class), engine,
+                liveGameRegistry, mock(PostGameAnalysisService.class), mock(OpeningBookService.class),
+                gameMailboxes, new OptimisticRetry(new SimpleMeterRegistry(), 3), clockService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameMailboxes.shutdown();
+        clockService.shutdown();
+        liveGameRegistry.shutdown();
+        analysisPool.shutdown();
+    }
+
+    @Test
+    void racingMovesApplyOncePerPlyInOrder() throws Exception {
+        AtomicInteger[] accepted = new AtomicInteger[GAMES];
+        AtomicInteger rejected = new AtomicInteger();
+        for (int i = 0; i < GAMES; i++) {
+            liveGameRegistry.register(newGame(i + 1L));
+            accepted[i] = new AtomicInteger();
+        }
+
+        // Every client of a game fires the same next move at once
+        ExecutorService clients = Executors.newFixedThreadPool(GAMES * CLIENTS_PER_GAME);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < GAMES; i++) {
+            long gameId = i + 1L;
+            CyclicBarrier barrier = new CyclicBarrier(CLIENTS_PER_GAME);
+            for (int c = 0; c < CLIENTS_PER_GAME; c++) {
+                results.add(clients.submit(() -> {
+                    for (int ply = 0; ply < LINE.length; ply++) {
+                        barrier.await();
+                        String uci = LINE[ply];
+                        try {
+                            gameService.makeMove(gameId, ply % 2 == 0 ? "white" : "black", uci.substring(0, 2),
+                                    uci.substring(2, 4), null);
+                            accepted[(int) gameId - 1].incrementAndGet();
+                        } catch (GameStateException | InvalidMoveException e) {
+                            // Another client played this ply first
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> result : results) {
+            result.get(2, TimeUnit.MINUTES);
+        }
+        clients.shutdown();
+
+        Position expected = new Position();
+        for (String uci : LINE) {
+            expected.makeMove(Move.parseUci(expected, uci));
+        }
+        for (int i = 0; i < GAMES; i++) {
+            Game game = gameService.getGame(i + 1L);
+            assertEquals(LINE.length, accepted[i].get(), "accepted moves in game " + (i + 1));
+            assertEquals(String.join(" ", LINE), game.getPgn());
+            assertEquals(expected.toFen(), game.getFen());
+            assertEquals(GameStatus.COMPLETED, game.getStatus());
+            assertEquals("White Wins by Checkmate!", game.getStatusMessage());
+        }
+        assertEquals(GAMES * LINE.length * (CLIENTS_PER_GAME - 1), rejected.get());
+    }
+
+    private Game newGame(long id) {
+        Game game = new Game();
+        game.setId(id);
+        game.setWhitePlayer(user("white"));
+        game.setBlackPlayer(user("black"));
+        game.setFen(new Position().toFen());
+        game.setMoves(new byte[0]);
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setCurrentTurn("WHITE");
+        game.setTimeControl(TimeControl.RAPID);
+        game.setWhiteTimeRemaining(TimeControl.RAPID.getInitialTimeSeconds());
+        game.setBlackTimeRemaining(TimeControl.RAPID.getInitialTimeSeconds());
+        game.setLastMoveTime(System.currentTimeMillis());
+        rows.put(id, game);
+        return game;
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+}
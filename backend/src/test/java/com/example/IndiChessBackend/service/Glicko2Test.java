@@ -0,0 +1,26 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Glicko-2 against the worked example in Glickman's paper.
+ */
+class Glicko2Test {
+
+    @Test
+    void ratingPeriodMatchesPublishedExample() {
+        Glicko2.Rating rated = Glicko2.rate(new Glicko2.Rating(1500, 200, 0.06),
+                new double[] { 1400, 1550, 1700 }, new double[] { 30, 100, 300 }, new double[] { 1, 0, 0 }, 3);
+        assertEquals(1464.06, rated.rating(), 0.01);
+        assertEquals(151.52, rated.deviation(), 0.01);
+        assertEquals(0.05999, rated.volatility(), 0.00001);
+    }
+
+    @Test
+    void idlePeriodGrowsDeviationUpToNewPlayer() {
+        assertEquals(Math.sqrt(200 * 200 + Math.pow(173.7178 * 0.06, 2)), Glicko2.inflate(200, 0.06), 1e-9);
+        assertEquals(Glicko2.DEFAULT_DEVIATION, Glicko2.inflate(349.9, 0.06));
+    }
+}
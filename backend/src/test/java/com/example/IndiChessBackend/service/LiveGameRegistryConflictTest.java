@@ -0,0 +1,177 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.engine.Move;
+import com.example.IndiChessBackend.engine.MoveList;
+import com.example.IndiChessBackend.engine.Position;
+import com.example.IndiChessBackend.model.Game;
+import com.example.IndiChessBackend.model.GameStatus;
+import com.example.IndiChessBackend.model.TimeControl;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.GameMoveRepo;
+import com.example.IndiChessBackend.repo.GameRepo;
+import com.example.IndiChessBackend.repo.GameStateWrite;
+import com.example.IndiChessBackend.repo.UserRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Another node changes a game's row after a move has been applied in memory
+ * and before the write-behind flush. The other node's change always wins,
+ * whatever columns it touched; the unwritten move is reported for a resync
+ * rather than written over it or dropped silently.
+ */
+class LiveGameRegistryConflictTest {
+
+    private static final long GAME_ID = 1L;
+
+    // The games table: a write lands only on the version it was based on
+    private final Map<Long, Game> rows = new ConcurrentHashMap<>();
+    private final List<Long> dropped = new CopyOnWriteArrayList<>();
+    private AnalysisPool analysisPool;
+    private GameMailboxes gameMailboxes;
+    private ClockService clockService;
+    private LiveGameRegistry liveGameRegistry;
+    private GameService gameService;
+
+    @BeforeEach
+    void setUp() {
+        GameRepo gameRepo = mock(GameRepo.class);
+        when(gameRepo.writeLiveStates(anyList())).thenAnswer(invocation -> {
+            List<GameStateWrite> writes = invocation.getArgument(0);
+            int[] counts = new int[writes.size()];
+            for (int i = 0; i < writes.size(); i++) {
+                GameStateWrite write = writes.get(i);
+                Game row = rows.get(write.snapshot().getId());
+                if (row.getVersion() == write.expectedVersion()) {
+                    write.snapshot().setVersion(row.getVersion() + 1);
+                    rows.put(row.getId(), write.snapshot());
+                    counts[i] = 1;
+                }
+            }
+            return counts;
+        });
+        when(gameRepo.findById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(rows.get(invocation.<Long>getArgument(0))));
+
+        analysisPool = new AnalysisPool(1, 1, 1_000, 1, 1);
+        GameEngineService engine = new GameEngineService(new PositionCache(new SimpleMeterRegistry(), 100_000),
+                analysisPool, new EndgameBitbaseService(""));
+        gameMailboxes = new GameMailboxes(0);
+        clockService = new ClockService(new SimpleMeterRegistry(), 100, 1);
+        // Flushed by hand only, so the conflicting update always lands in between
+        liveGameRegistry = new LiveGameRegistry(new GameStateWriter(gameRepo, List.of()),
+                event -> dropped.add(((LiveGameRegistry.SessionDropped) event).gameId()), 60_000, 100);
+        gameService = new GameService(gameRepo, mock(GameMoveRepo.class), mock(UserRepo.class), engine,
+                liveGameRegistry, mock(PostGameAnalysisService.class), mock(OpeningBookService.class),
+                gameMailboxes, new OptimisticRetry(new SimpleMeterRegistry(), 3), clockService);
+
+        Game game = row(0);
+        rows.put(GAME_ID, game);
+        liveGameRegistry.register(game);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameMailboxes.shutdown();
+        clockService.shutdown();
+        liveGameRegistry.shutdown();
+        analysisPool.shutdown();
+    }
+
+    @Test
+    void otherWritersChangeSurvivesAndTheSessionIsResynced() {
+        gameService.makeMove(GAME_ID, "white", "e2", "e4", null);
+
+        // Another node touches the row without playing: only the version and a clock change
+        Game touched = row(1);
+        long whiteSeconds = touched.getWhiteTimeRemaining() - 5;
+        touched.setWhiteTimeRemaining(whiteSeconds);
+        rows.put(GAME_ID, touched);
+        liveGameRegistry.flushNow();
+
+        // The row is left exactly as the other writer made it
+        assertEquals(1, rows.get(GAME_ID).getVersion());
+        assertEquals(whiteSeconds, rows.get(GAME_ID).getWhiteTimeRemaining());
+        assertEquals("", rows.get(GAME_ID).getPgn());
+        assertEquals(List.of(GAME_ID), dropped);
+        assertFalse(liveGameRegistry.find(GAME_ID).isPresent());
+
+        // The clients are shown the row, clock change included, and play on from it
+        Game synced = gameService.resync(GAME_ID);
+        assertEquals("WHITE", synced.getCurrentTurn());
+        assertEquals(whiteSeconds, synced.getWhiteTimeRemaining());
+        gameService.makeMove(GAME_ID, "white", "e2", "e4", null);
+        liveGameRegistry.flushNow();
+        assertEquals("e2e4", rows.get(GAME_ID).getPgn());
+        assertEquals(2, rows.get(GAME_ID).getVersion());
+        assertTrue(rows.get(GAME_ID).getWhiteTimeRemaining() <= whiteSeconds
+                + TimeControl.RAPID.getIncrementSeconds());
+    }
+
+    @Test
+    void movesContradictingTheRowAreReportedAndTheRowWins() {
+        gameService.makeMove(GAME_ID, "white", "e2", "e4", null);
+
+        // Another node played a different first move
+        rows.put(GAME_ID, row(1, "d2d4"));
+        liveGameRegistry.flushNow();
+
+        assertEquals("d2d4", rows.get(GAME_ID).getPgn());
+        assertEquals(List.of(GAME_ID), dropped);
+        assertFalse(liveGameRegistry.find(GAME_ID).isPresent());
+
+        // The clients are resynced to the row and play on from it
+        Game synced = gameService.resync(GAME_ID);
+        assertEquals("BLACK", synced.getCurrentTurn());
+        assertEquals(rows.get(GAME_ID).getFen(), synced.getFen());
+        gameService.makeMove(GAME_ID, "black", "d7", "d5", null);
+        liveGameRegistry.flushNow();
+        assertEquals("d2d4 d7d5", rows.get(GAME_ID).getPgn());
+    }
+
+    private static Game row(long version, String... line) {
+        Position position = new Position();
+        MoveList moves = new MoveList();
+        for (String uci : line) {
+            int move = Move.parseUci(position, uci);
+            position.makeMove(move);
+            moves.add(move);
+        }
+        Game game = new Game();
+        game.setId(GAME_ID);
+        game.setWhitePlayer(user("white"));
+        game.setBlackPlayer(user("black"));
+        game.setFen(position.toFen());
+        game.setMoves(moves.toBytes());
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setCurrentTurn(line.length % 2 == 0 ? "WHITE" : "BLACK");
+        game.setTimeControl(TimeControl.RAPID);
+        game.setWhiteTimeRemaining(TimeControl.RAPID.getInitialTimeSeconds());
+        game.setBlackTimeRemaining(TimeControl.RAPID.getInitialTimeSeconds());
+        game.setLastMoveTime(System.currentTimeMillis());
+        game.setVersion(version);
+        return game;
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+}
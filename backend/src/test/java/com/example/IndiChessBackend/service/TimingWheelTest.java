@@ -0,0 +1,59 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Timers fire exactly on their deadline tick, across every wheel level,
+ * and cancelled ones never fire.
+ */
+class TimingWheelTest {
+
+    @Test
+    void randomDeadlinesFireOnTheirTick() {
+        Random random = new Random(7);
+        TimingWheel wheel = new TimingWheel(123_456);
+        Map<Long, TimingWheel.Timer> pending = new HashMap<>();
+        long tick = wheel.currentTick();
+        long key = 0;
+        for (int round = 0; round < 2_000; round++) {
+            for (int i = 0; i < 10; i++) {
+                // Within a level-0 turn, a few minutes, or days ahead
+                int[] spans = { 300, 100_000, 20_000_000 };
+                long deadline = tick + 1 + random.nextInt(spans[random.nextInt(spans.length)]);
+                pending.put(key, wheel.schedule(key, deadline));
+                key++;
+            }
+            if (random.nextInt(3) == 0) {
+                wheel.cancel(pending.remove(pending.keySet().iterator().next()));
+            }
+
+            long target = tick + 1 + random.nextInt(random.nextInt(10) == 0 ? 70_000 : 50);
+            while (tick < target) {
+                long now = ++tick;
+                List<Long> fired = new ArrayList<>();
+                wheel.advance(now, fired::add);
+                for (long id : fired) {
+                    assertEquals(now, pending.remove(id).deadline(), "timer " + id);
+                }
+            }
+            assertEquals(pending.size(), wheel.size());
+        }
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextTick() {
+        TimingWheel wheel = new TimingWheel(1_000);
+        wheel.schedule(1, 10);
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(1_001, fired::add);
+        assertEquals(List.of(1L), fired);
+    }
+}
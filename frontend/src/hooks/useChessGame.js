@@ -1,6 +1,13 @@
 import { useState, useCallback, useEffect } from 'react';
 import { Chess } from 'chess.js';
 import { stompClient } from '../services/socket';
+import { decodeLegalMoves, isLegal } from '../services/legalMoves';
+
+// Placement, side to move and castling rights; move counters and en passant
+// squares are written differently by some engines
+function samePosition(fenA, fenB) {
+    return fenA.split(" ").slice(0, 3).join(" ") === fenB.split(" ").slice(0, 3).join(" ");
+}
 
 export function useChessGame(gameId = 1) { // Default gameId 1 for Phase 1
     const [game, setGame] = useState(new Chess());
@@ -13,9 +20,12 @@ export function useChessGame(gameId = 1) { // Default gameId 1 for Phase 1
     const [blackTime, setBlackTime] = useState(600);
     const [gameOver, setGameOver] = useState(false);
     const [gameResult, setGameResult] = useState("");
+    // Server-provided legal moves of the side to move; null until the first state arrives
+    const [legalMoves, setLegalMoves] = useState(null);
 
     // WebSocket Connection
     useEffect(() => {
+        let pingTimer = null;
         stompClient.onConnect = (frame) => {
             console.log('Connected: ' + frame);
             setIsConnected(true);
@@ -26,28 +36,34 @@ export function useChessGame(gameId = 1) { // Default gameId 1 for Phase 1
                 console.log("Received:", body);
 
                 if (body.type === 'MOVE') {
-                    // Update Game State
-                    if (body.pgn) {
-                        try {
-                            const newGame = new Chess();
-                            const moves = body.pgn.split(" ");
-                            for (const moveStr of moves) {
-                                if (!moveStr) continue;
-                                newGame.move({
-                                    from: moveStr.substring(0, 2),
-                                    to: moveStr.substring(2, 4),
-                                    promotion: moveStr.length > 4 ? moveStr.substring(4) : undefined
-                                });
+                    // Apply just the moves of this step (a move, plus a premove
+                    // answering it) so the local history is kept; resync from the
+                    // FEN if the boards ever disagree
+                    const batch = body.moves && body.moves.length ? body.moves
+                        : (body.lastMove ? [body.lastMove] : []);
+                    setGame((prev) => {
+                        if (batch.length) {
+                            try {
+                                const next = new Chess();
+                                next.loadPgn(prev.pgn());
+                                for (const uci of batch) {
+                                    next.move({
+                                        from: uci.substring(0, 2),
+                                        to: uci.substring(2, 4),
+                                        promotion: uci.length > 4 ? uci.substring(4) : undefined
+                                    });
+                                }
+                                if (samePosition(next.fen(), body.fen)) {
+                                    return next;
+                                }
+                            } catch (e) {
+                                console.warn("Move replay failed, loading FEN", e);
                             }
-                            setGame(newGame);
-                        } catch (e) {
-                            console.error("PGN replay failed", e);
-                            setGame(new Chess(body.fen));
                         }
-                    } else {
-                        setGame(new Chess(body.fen));
-                    }
+                        return new Chess(body.fen);
+                    });
 
+                    setLegalMoves(decodeLegalMoves(body.legalMoves));
                     setWhiteTime(body.whiteTimeLeft);
                     setBlackTime(body.blackTimeLeft);
                     setLastLog(`Opponent moved. Turn: ${body.currentTurn}`); // using body for turn if available, else derive
@@ -56,6 +72,21 @@ export function useChessGame(gameId = 1) { // Default gameId 1 for Phase 1
                         setGameOver(true);
                         setGameResult(body.message || "Game Over");
                     }
+                } else if (body.type === 'SYNC') {
+                    // The server could not keep our last moves; take its position as it stands
+                    setGame(new Chess(body.fen));
+                    setLegalMoves(decodeLegalMoves(body.legalMoves));
+                    setWhiteTime(body.whiteTimeLeft);
+                    setBlackTime(body.blackTimeLeft);
+                    setLastLog(`Game resynced with the server. Turn: ${body.currentTurn}`);
+                    if (body.status === 'COMPLETED' || body.status === 'FINISHED') {
+                        setGameOver(true);
+                        setGameResult(body.message || "Game Over");
+                    }
+                } else if (body.type === 'CLOCK') {
+                    // Periodic sync between moves keeps the countdowns from drifting
+                    setWhiteTime(Math.floor(body.whiteClockMillis / 1000));
+                    setBlackTime(Math.floor(body.blackClockMillis / 1000));
                 } else if (body.type === 'GAME_OVER') {
                     // Handle explicit Game Over message if backend sends it separately
                     setGameOver(true);
@@ -64,6 +95,18 @@ export function useChessGame(gameId = 1) { // Default gameId 1 for Phase 1
                     setLastLog(`Error: ${body.status}`);
                 }
             });
+
+            // Lag probe: echo each pong so the server can credit network delay back to our clock
+            stompClient.subscribe(`/user/queue/pong`, (message) => {
+                stompClient.publish({ destination: '/app/pong', body: message.body });
+            });
+            clearInterval(pingTimer);
+            pingTimer = setInterval(() => {
+                if (stompClient.connected) {
+                    stompClient.publish({ destination: '/app/ping', body: '{}' });
+                }
+            }, 5000);
+            stompClient.publish({ destination: '/app/ping', body: '{}' });
         };
 
         stompClient.onWebSocketError = (error) => {
@@ -80,6 +123,7 @@ export function useChessGame(gameId = 1) { // Default gameId 1 for Phase 1
         stompClient.activate();
 
         return () => {
+            clearInterval(pingTimer);
             stompClient.deactivate();
         };
     }, [gameId]);
@@ -87,10 +131,9 @@ export function useChessGame(gameId = 1) { // Default gameId 1 for Phase 1
     // ... (rest of helper functions same as above) ...
     // Helper: Get valid moves for a square
     function getMoveOptions(square) {
-        const moves = game.moves({
-            square,
-            verbose: true,
-        });
+        const moves = legalMoves
+            ? (legalMoves[square] || []).map((to) => ({ to }))
+            : game.moves({ square, verbose: true });
         if (moves.length === 0) {
             return false;
         }
@@ -114,16 +157,19 @@ export function useChessGame(gameId = 1) { // Default gameId 1 for Phase 1
     }
 
     // Handler: Drag and Drop
-    function onDrop(sourceSquare, targetSquare) {
+    // Checked against the server's set, so illegal attempts never leave the client
+    function isMoveLegal(from, to) {
+        if (legalMoves) return isLegal(legalMoves, from, to);
         try {
-            const gameCopy = new Chess(game.fen());
-            const move = gameCopy.move({
-                from: sourceSquare,
-                to: targetSquare,
-                promotion: 'q',
-            });
+            return !!new Chess(game.fen()).move({ from, to, promotion: 'q' });
+        } catch (e) {
+            return false;
+        }
+    }
 
-            if (!move) return false;
+    function onDrop(sourceSquare, targetSquare) {
+        try {
+            if (!isMoveLegal(sourceSquare, targetSquare)) return false;
 
             if (isConnected) {
                 stompClient.publish({
@@ -153,14 +199,7 @@ export function useChessGame(gameId = 1) { // Default gameId 1 for Phase 1
 
         if (moveFrom) {
             try {
-                const gameCopy = new Chess(game.fen());
-                const move = gameCopy.move({
-                    from: moveFrom,
-                    to: square,
-                    promotion: 'q',
-                });
-
-                if (move) {
+                if (isMoveLegal(moveFrom, square)) {
                     if (isConnected) {
                         stompClient.publish({
                             destination: "/app/move",
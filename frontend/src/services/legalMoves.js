@@ -0,0 +1,35 @@
+// Decodes the server's legal-move bitboards (GameStateDTO.legalMoves) into
+// { e2: ['e3', 'e4'], ... }. Bitboards arrive as 16-digit hex strings with
+// a1 = bit 0; each is read as two 32-bit halves to stay within JS numbers.
+
+const FILES = 'abcdefgh';
+
+function squareName(sq) {
+    return FILES[sq % 8] + (Math.floor(sq / 8) + 1);
+}
+
+function squaresOf(hex) {
+    const squares = [];
+    const halves = [parseInt(hex.substring(8, 16), 16), parseInt(hex.substring(0, 8), 16)];
+    for (let half = 0; half < 2; half++) {
+        for (let bit = 0; bit < 32; bit++) {
+            if (Math.floor(halves[half] / 2 ** bit) % 2 === 1) {
+                squares.push(half * 32 + bit);
+            }
+        }
+    }
+    return squares;
+}
+
+export function decodeLegalMoves(legalMoves) {
+    if (!legalMoves || !legalMoves.from) return null;
+    const moves = {};
+    squaresOf(legalMoves.from).forEach((from, i) => {
+        moves[squareName(from)] = squaresOf(legalMoves.to[i]).map(squareName);
+    });
+    return moves;
+}
+
+export function isLegal(moves, from, to) {
+    return !!moves && !!moves[from] && moves[from].includes(to);
+}